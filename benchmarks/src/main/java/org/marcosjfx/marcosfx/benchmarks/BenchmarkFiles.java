@@ -0,0 +1,34 @@
+package org.marcosjfx.marcosfx.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Utilidades para los archivos temporales de las pruebas de rendimiento.
+ */
+final class BenchmarkFiles {
+
+    /**
+     * Clase de utilidades, no se instancia.
+     */
+    private BenchmarkFiles() {
+    }
+
+    /**
+     * Borra un directorio y todo su contenido.
+     *
+     * @param directory el directorio a borrar.
+     * @throws IOException si no se puede borrar algún archivo.
+     */
+    static void deleteRecursively(Path directory) throws IOException {
+        if (directory == null || !Files.exists(directory)) return;
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
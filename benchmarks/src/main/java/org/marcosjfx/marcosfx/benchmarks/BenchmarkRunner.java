@@ -0,0 +1,36 @@
+package org.marcosjfx.marcosfx.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Punto de entrada de benchmarks.jar. Acepta las mismas opciones que JMH (por ejemplo, un filtro
+ * con el nombre de la prueba o {@code -p rows=1000}) y añade siempre el perfilador {@code gc}
+ * para informar de la tasa de asignación de memoria de cada prueba.
+ */
+public final class BenchmarkRunner {
+
+    /**
+     * Clase de utilidades, no se instancia.
+     */
+    private BenchmarkRunner() {
+    }
+
+    /**
+     * Ejecuta las pruebas de rendimiento.
+     *
+     * @param args opciones de línea de comandos de JMH.
+     * @throws CommandLineOptionException si alguna opción no es válida.
+     * @throws RunnerException            si falla alguna prueba.
+     */
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+        new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
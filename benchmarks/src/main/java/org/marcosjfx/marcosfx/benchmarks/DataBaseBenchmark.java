@@ -0,0 +1,168 @@
+package org.marcosjfx.marcosfx.benchmarks;
+
+import org.marcosjfx.marcosfx.backend.CsvParser;
+import org.marcosjfx.marcosfx.backend.DataBase;
+import org.marcosjfx.marcosfx.backend.PlayerMap;
+import org.marcosjfx.marcosfx.backend.PlayerStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pruebas de rendimiento de la lectura y actualización del catálogo de jugadores.
+ * <p>
+ * Cada prueba se ejecuta con catálogos sintéticos de 1.000, 100.000 y 1.000.000 de jugadores y mide
+ * el rendimiento (operaciones por segundo) y la distribución de la latencia.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DataBaseBenchmark {
+
+    /**
+     * Número de jugadores del catálogo sintético.
+     */
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    /**
+     * Directorio temporal con los archivos generados.
+     */
+    private Path directory;
+
+    /**
+     * Archivo de jugadores generado.
+     */
+    private Path csvPath;
+
+    /**
+     * Copia binaria del catálogo que {@link PlayerStore} guarda junto al archivo de jugadores.
+     */
+    private Path snapshotPath;
+
+    /**
+     * Base de datos que trabaja con los archivos generados.
+     */
+    private DataBase dataBase;
+
+    /**
+     * Genera los archivos sintéticos y carga el catálogo una primera vez.
+     *
+     * @throws IOException si no se pueden crear los archivos.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("marcosfx-bench");
+        csvPath = directory.resolve("players.csv");
+        snapshotPath = directory.resolve("players.csv.bin");
+        Path jsonPath = directory.resolve("team.json");
+        SyntheticData.writePlayers(csvPath, rows);
+        SyntheticData.writeTeam(jsonPath, 0);
+        dataBase = new DataBase(csvPath, jsonPath);
+        dataBase.getPlayerStore();
+    }
+
+    /**
+     * Borra los archivos generados.
+     *
+     * @throws IOException si no se pueden borrar.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchmarkFiles.deleteRecursively(directory);
+    }
+
+    /**
+     * Carga de un almacén nuevo desde la copia binaria mapeada en memoria y el archivo de estadísticas,
+     * como en cada arranque mientras el CSV no cambie.
+     *
+     * @return el almacén cargado.
+     * @throws IOException si no se puede leer el catálogo.
+     */
+    @Benchmark
+    public PlayerStore loadCatalog() throws IOException {
+        return PlayerStore.load(csvPath);
+    }
+
+    /**
+     * Carga en frío desde el CSV: antes de cada carga se borra la copia binaria, así que se lee el CSV
+     * completo y se vuelve a generar la copia, como en el primer arranque después de cambiar el CSV.
+     *
+     * @return el almacén leído.
+     * @throws IOException si no se puede leer el archivo.
+     */
+    @Benchmark
+    public PlayerStore loadCatalogFromCsv() throws IOException {
+        Files.deleteIfExists(snapshotPath);
+        return PlayerStore.load(csvPath);
+    }
+
+    /**
+     * {@link DataBase#getInformation()}: simula una jornada, guarda las estadísticas y crea el mapa de jugadores.
+     *
+     * @return el mapa de jugadores.
+     */
+    @Benchmark
+    public PlayerMap getInformation() {
+        return dataBase.getInformation();
+    }
+
+    /**
+     * Actualización de estadísticas: simula una jornada y guarda las estadísticas modificadas, sin crear
+     * jugadores.
+     *
+     * @return el almacén actualizado.
+     */
+    @Benchmark
+    public PlayerStore updatePlayerStats() {
+        return dataBase.getPlayerStore();
+    }
+
+    /**
+     * Suma por club recorriendo el archivo CSV, como hacía el gráfico de la vista principal.
+     *
+     * @return la suma de valores de cada club.
+     * @throws IOException si no se puede leer el archivo.
+     */
+    @Benchmark
+    public Map<String, Long> clubsBarChartCsvScan() throws IOException {
+        Map<String, Long> valuesByClub = new HashMap<>();
+        try (CsvParser parser = CsvParser.open(csvPath)) {
+            parser.nextRow();
+            while (parser.nextRow()) {
+                valuesByClub.merge(parser.getString(6), (long) parser.getInt(3), Long::sum);
+            }
+        }
+        return valuesByClub;
+    }
+
+    /**
+     * Suma por club a partir de los totales que mantiene el almacén, como hace ahora el gráfico.
+     *
+     * @return los nombres y la suma de valores de cada club, por código.
+     */
+    @Benchmark
+    public PlayerStore.ClubMarketValues clubsBarChartAggregate() {
+        return dataBase.getMarketValueByClub();
+    }
+}
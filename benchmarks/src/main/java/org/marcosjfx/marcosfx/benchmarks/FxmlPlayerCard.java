@@ -0,0 +1,60 @@
+package org.marcosjfx.marcosfx.benchmarks;
+
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.AnchorPane;
+
+/**
+ * Controlador de la tarjeta de jugador cargada desde FXML, con los mismos campos que inyectaba el
+ * antiguo controlador de PlayerCard, para medir la carga del FXML con la inyección por reflexión.
+ */
+public class FxmlPlayerCard {
+
+    /**
+     * El contenedor principal de la tarjeta del jugador.
+     */
+    public AnchorPane PlayerPane;
+
+    /**
+     * Imagen del retrato del jugador.
+     */
+    public ImageView PlayerPortrait;
+
+    /**
+     * Etiqueta que muestra el nombre del jugador.
+     */
+    public Label NameLabel;
+
+    /**
+     * Etiqueta que muestra la posición del jugador.
+     */
+    public Label PositionLabel;
+
+    /**
+     * Etiqueta que muestra el equipo del jugador.
+     */
+    public Label TeamLabel;
+
+    /**
+     * Botón para comprar o vender al jugador.
+     */
+    public Button BuyButton;
+
+    /**
+     * Etiqueta que muestra el precio del jugador.
+     */
+    public Label PriceLabel;
+
+    /**
+     * Constructor que usa el FXML para crear el controlador.
+     */
+    public FxmlPlayerCard() {
+    }
+
+    /**
+     * Acción del botón de compra, vacía en las pruebas.
+     */
+    public void onBuyButtonClicked() {
+    }
+}
@@ -0,0 +1,54 @@
+package org.marcosjfx.marcosfx.benchmarks;
+
+import org.marcosjfx.marcosfx.backend.Metrics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pruebas de rendimiento del coste de las métricas en los caminos frecuentes: medir una operación vacía
+ * con un {@link Metrics.Timer} y contar un suceso con un {@link Metrics.Counter}, sin grabación de JFR. Con
+ * la opción {@code -t} de JMH se mide desde varios hilos a la vez.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MetricsBenchmark {
+
+    /**
+     * Tiempo de la operación vacía.
+     */
+    private final Metrics.Timer timer = Metrics.timer("benchmark.timer");
+
+    /**
+     * Contador de la prueba.
+     */
+    private final Metrics.Counter counter = Metrics.counter("benchmark.counter");
+
+    /**
+     * Mide una operación vacía.
+     */
+    @Benchmark
+    public void timer() {
+        timer.stop(timer.start());
+    }
+
+    /**
+     * Cuenta un suceso.
+     */
+    @Benchmark
+    public void counter() {
+        counter.increment();
+    }
+}
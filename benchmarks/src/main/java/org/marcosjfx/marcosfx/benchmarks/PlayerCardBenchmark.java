@@ -0,0 +1,77 @@
+package org.marcosjfx.marcosfx.benchmarks;
+
+import javafx.application.Platform;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+import org.marcosjfx.marcosfx.PlayerCard;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pruebas de rendimiento de la creación de una tarjeta de jugador del mercado: construida en código con
+ * {@link PlayerCard} o cargada desde el FXML que se usaba antes, con su controlador inyectado por
+ * reflexión. Las tarjetas se crean fuera del hilo de JavaFX, como en la precarga del mercado, pero el
+ * conjunto de herramientas de JavaFX tiene que estar iniciado; sin pantalla se puede usar Monocle con
+ * {@code -Dglass.platform=Monocle -Dmonocle.platform=Headless -Dprism.order=sw}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PlayerCardBenchmark {
+
+    /**
+     * FXML de la tarjeta tal y como se cargaba antes.
+     */
+    private static final URL FXML = Objects.requireNonNull(PlayerCardBenchmark.class.getResource("PlayerCard.fxml"));
+
+    /**
+     * Inicia el conjunto de herramientas de JavaFX, que necesitan los controles de la tarjeta.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        try {
+            Platform.startup(() -> {
+            });
+        } catch (IllegalStateException e) {
+            // Ya estaba iniciado.
+        }
+    }
+
+    /**
+     * Crea una tarjeta en código.
+     *
+     * @return la tarjeta creada.
+     */
+    @Benchmark
+    public Parent codeCard() {
+        return new PlayerCard();
+    }
+
+    /**
+     * Crea una tarjeta cargando el FXML.
+     *
+     * @return el nodo raíz de la tarjeta cargada.
+     * @throws IOException si no se puede leer el FXML.
+     */
+    @Benchmark
+    public Parent fxmlCard() throws IOException {
+        return new FXMLLoader(FXML).load();
+    }
+}
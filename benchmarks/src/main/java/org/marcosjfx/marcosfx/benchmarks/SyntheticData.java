@@ -0,0 +1,127 @@
+package org.marcosjfx.marcosfx.benchmarks;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+/**
+ * Genera archivos players.csv y team.json sintéticos con el mismo formato que los de la aplicación,
+ * para medir el rendimiento con catálogos mucho más grandes que el real.
+ */
+public final class SyntheticData {
+
+    /**
+     * Cabecera del archivo de jugadores, igual que la del archivo real.
+     */
+    private static final String HEADER = "id,name,overall,market_value,age,team_id,club_name,club_position,"
+            + "goals,assists,saves,player_face_url,club_logo_url";
+
+    /**
+     * Posiciones que aparecen en el archivo real.
+     */
+    private static final String[] POSITIONS = {"GK", "LB", "LCB", "RCB", "RB", "LDM", "RDM", "CDM", "LCM", "RCM",
+            "CM", "CAM", "LM", "RM", "LW", "RW", "LS", "RS", "ST", "CF", "SUB", "RES"};
+
+    /**
+     * Número de clubes distintos del catálogo sintético.
+     */
+    private static final int CLUBS = 200;
+
+    /**
+     * Semilla fija para que todas las ejecuciones midan los mismos datos.
+     */
+    private static final long SEED = 20241017L;
+
+    /**
+     * Clase de utilidades, no se instancia.
+     */
+    private SyntheticData() {
+    }
+
+    /**
+     * Escribe un archivo de jugadores con el número de filas indicado.
+     *
+     * @param csvPath ruta del archivo a crear.
+     * @param rows    número de jugadores.
+     * @throws IOException si no se puede escribir el archivo.
+     */
+    public static void writePlayers(Path csvPath, int rows) throws IOException {
+        SplittableRandom random = new SplittableRandom(SEED);
+        try (BufferedWriter writer = Files.newBufferedWriter(csvPath)) {
+            writer.write(HEADER);
+            writer.newLine();
+            for (int id = 1; id <= rows; id++) {
+                int teamID = 1 + random.nextInt(CLUBS);
+                String position = POSITIONS[random.nextInt(POSITIONS.length)];
+                writer.write(id + ",Player " + id + "," + (50 + random.nextInt(45)) + ","
+                        + 5000 * (100 + random.nextInt(20_000)) + "," + (17 + random.nextInt(20)) + ","
+                        + teamID + ",Club " + teamID + "," + position + ","
+                        + random.nextInt(40) + "," + random.nextInt(40) + ","
+                        + (position.equals("GK") ? random.nextInt(100) : 0) + ","
+                        + playerImageURL(id) + "," + clubImageURL(teamID));
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * Escribe un archivo de equipo con los primeros jugadores del catálogo sintético y un presupuesto
+     * suficiente para que ninguna compra falle por falta de dinero. Si el nombre del archivo termina en
+     * {@code .smile} se escribe en formato Smile, igual que lo guardaría la aplicación.
+     *
+     * @param jsonPath    ruta del archivo a crear.
+     * @param rosterSize  número de jugadores del equipo.
+     * @throws IOException si no se puede escribir el archivo.
+     */
+    public static void writeTeam(Path jsonPath, int rosterSize) throws IOException {
+        JsonFactory factory = jsonPath.getFileName().toString().endsWith(".smile") ? new SmileFactory() : new JsonFactory();
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(jsonPath));
+             JsonGenerator generator = factory.createGenerator(out)) {
+            generator.writeStartObject();
+            generator.writeNumberField("budget", 2_000_000_000);
+            generator.writeArrayFieldStart("team");
+            for (int id = 1; id <= rosterSize; id++) {
+                int teamID = 1 + id % CLUBS;
+                generator.writeStartObject();
+                generator.writeNumberField("ID", id);
+                generator.writeStringField("Name", "Player " + id);
+                generator.writeStringField("ClubName", "Club " + teamID);
+                generator.writeStringField("Position", "ST");
+                generator.writeStringField("PlayerImageURL", playerImageURL(id));
+                generator.writeStringField("ClubImageURL", clubImageURL(teamID));
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+    }
+
+    /**
+     * Construye la URL del retrato de un jugador con el mismo formato que el archivo real.
+     *
+     * @param id el id del jugador.
+     * @return la URL del retrato.
+     */
+    private static String playerImageURL(int id) {
+        String digits = String.format("%06d", id % 1_000_000);
+        return "https://cdn.sofifa.net/players/" + digits.substring(0, 3) + "/" + digits.substring(3) + "/15_120.png";
+    }
+
+    /**
+     * Construye la URL del escudo de un club con el mismo formato que el archivo real.
+     *
+     * @param teamID el id del club.
+     * @return la URL del escudo.
+     */
+    private static String clubImageURL(int teamID) {
+        return "https://cdn.sofifa.net/teams/" + teamID + "/60.png";
+    }
+}
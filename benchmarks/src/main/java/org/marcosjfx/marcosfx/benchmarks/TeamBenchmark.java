@@ -0,0 +1,171 @@
+package org.marcosjfx.marcosfx.benchmarks;
+
+import org.marcosjfx.marcosfx.backend.DataBase;
+import org.marcosjfx.marcosfx.backend.Player;
+import org.marcosjfx.marcosfx.backend.Position;
+import org.marcosjfx.marcosfx.backend.TeamRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pruebas de rendimiento de las operaciones sobre el equipo (team.json): compra, venta y
+ * comprobación de pertenencia, con equipos sintéticos de 1.000, 100.000 y 1.000.000 de jugadores.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TeamBenchmark {
+
+    /**
+     * Número de jugadores del equipo sintético.
+     */
+    @Param({"1000", "100000", "1000000"})
+    public int rosterSize;
+
+    /**
+     * Directorio temporal con los archivos generados.
+     */
+    private Path directory;
+
+    /**
+     * Base de datos que trabaja con los archivos generados.
+     */
+    private DataBase dataBase;
+
+    /**
+     * Jugador que ya está en el equipo.
+     */
+    private Player member;
+
+    /**
+     * Jugador que no está en el equipo, usado para comprar y vender.
+     */
+    private Player outsider;
+
+    /**
+     * Siguiente id libre para los jugadores de cada hilo de las pruebas concurrentes.
+     */
+    private final AtomicInteger nextThreadPlayerId = new AtomicInteger();
+
+    /**
+     * Jugador propio de cada hilo en las pruebas concurrentes, para que cada hilo compre y venda
+     * un jugador distinto.
+     */
+    @State(Scope.Thread)
+    public static class ThreadPlayer {
+
+        /**
+         * Jugador que compra y vende este hilo.
+         */
+        private Player player;
+
+        /**
+         * Crea el jugador del hilo con un id que no está en el equipo.
+         *
+         * @param benchmark el estado compartido de la prueba.
+         */
+        @Setup(Level.Trial)
+        public void setUp(TeamBenchmark benchmark) {
+            int id = benchmark.rosterSize + 2 + benchmark.nextThreadPlayerId.getAndIncrement();
+            player = new Player(id, "Player", 80, 5000, 25, 1, 0, 0, 0, "Club 1", Position.ST, "", "");
+        }
+    }
+
+    /**
+     * Genera los archivos sintéticos y carga el equipo una primera vez.
+     *
+     * @throws IOException si no se pueden crear los archivos.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("marcosfx-bench");
+        Path csvPath = directory.resolve("players.csv");
+        Path jsonPath = directory.resolve("team.json");
+        SyntheticData.writePlayers(csvPath, 1000);
+        SyntheticData.writeTeam(jsonPath, rosterSize);
+        dataBase = new DataBase(csvPath, jsonPath);
+        member = new Player(1, "Player 1", 80, 1_000_000, 25, 1, 0, 0, 0, "Club 1", Position.ST, "", "");
+        outsider = new Player(rosterSize + 1, "Player", 80, 1_000_000, 25, 1, 0, 0, 0, "Club 1", Position.ST, "", "");
+        dataBase.getPurchaseBudget();
+    }
+
+    /**
+     * Escribe los cambios pendientes y borra los archivos generados.
+     *
+     * @throws IOException si no se pueden borrar.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        TeamRepository.flushAll();
+        BenchmarkFiles.deleteRecursively(directory);
+    }
+
+    /**
+     * Compra y venta seguidas del mismo jugador.
+     *
+     * @return el estado de la compra.
+     */
+    @Benchmark
+    public int buyAndSell() {
+        int status = dataBase.addPlayerToTeam(outsider);
+        dataBase.removePlayerFromTeam(outsider);
+        return status;
+    }
+
+    /**
+     * Compra y venta seguidas desde 32 hilos a la vez, cada uno con su propio jugador. Para ver cómo
+     * escala, se puede comparar con {@link #buyAndSell()} o cambiar el número de hilos con {@code -t}.
+     *
+     * @param threadPlayer el jugador del hilo.
+     * @return el estado de la compra.
+     */
+    @Benchmark
+    @Threads(32)
+    public int concurrentBuyAndSell(ThreadPlayer threadPlayer) {
+        int status = dataBase.addPlayerToTeam(threadPlayer.player);
+        dataBase.removePlayerFromTeam(threadPlayer.player);
+        return status;
+    }
+
+    /**
+     * Comprobación de pertenencia de un único jugador.
+     *
+     * @return si el jugador está en el equipo.
+     */
+    @Benchmark
+    public boolean isPlayerInTeam() {
+        return dataBase.isPlayerInTeam(member);
+    }
+
+    /**
+     * Obtención de los ids de todo el equipo, como hace la vista del mercado al abrirse.
+     *
+     * @return los ids del equipo.
+     */
+    @Benchmark
+    public Set<Integer> getTeamPlayerIds() {
+        return dataBase.getTeamPlayerIds();
+    }
+}
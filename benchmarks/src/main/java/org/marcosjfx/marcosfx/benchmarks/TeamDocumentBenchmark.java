@@ -0,0 +1,108 @@
+package org.marcosjfx.marcosfx.benchmarks;
+
+import org.marcosjfx.marcosfx.backend.Player;
+import org.marcosjfx.marcosfx.backend.Position;
+import org.marcosjfx.marcosfx.backend.TeamRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pruebas de rendimiento de la copia completa del equipo: cada operación compra un jugador y compacta el
+ * equipo, escribiendo el documento entero, en JSON o en Smile según la extensión del archivo.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TeamDocumentBenchmark {
+
+    /**
+     * Número de jugadores del equipo sintético.
+     */
+    @Param({"100", "10000"})
+    public int rosterSize;
+
+    /**
+     * Nombre del archivo del equipo; su extensión decide el formato.
+     */
+    @Param({"team.json", "team.smile"})
+    public String fileName;
+
+    /**
+     * Directorio temporal con el archivo generado.
+     */
+    private Path directory;
+
+    /**
+     * Repositorio del archivo generado.
+     */
+    private TeamRepository repository;
+
+    /**
+     * Jugador que no está en el equipo, usado para comprar y vender.
+     */
+    private Player outsider;
+
+    /**
+     * Indica si el jugador está comprado, para alternar compras y ventas.
+     */
+    private boolean bought;
+
+    /**
+     * Genera el archivo del equipo y lo abre.
+     *
+     * @throws IOException si no se puede crear o leer el archivo.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("marcosfx-bench");
+        Path teamPath = directory.resolve(fileName);
+        SyntheticData.writeTeam(teamPath, rosterSize);
+        repository = TeamRepository.open(teamPath);
+        outsider = new Player(rosterSize + 1, "Player", 80, 5000, 25, 1, 0, 0, 0, "Club 1", Position.ST, "", "");
+    }
+
+    /**
+     * Borra los archivos generados.
+     *
+     * @throws IOException si no se pueden borrar.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchmarkFiles.deleteRecursively(directory);
+    }
+
+    /**
+     * Compra o vende un jugador y escribe la copia completa del equipo.
+     *
+     * @throws IOException si no se puede escribir el archivo.
+     */
+    @Benchmark
+    public void tradeAndCompact() throws IOException {
+        if (bought) {
+            repository.removePlayer(outsider);
+        } else {
+            repository.addPlayer(outsider);
+        }
+        bought = !bought;
+        repository.flush();
+    }
+}
@@ -21,6 +21,8 @@
  *   <li><b>com.almasb.fxgl.all</b>: Marco de trabajo para desarrollo de videojuegos.</li>
  *   <li><b>java.net.http</b>: Utilizado para gestión de solicitudes web HTTP y conexiones.</li>
  *   <li><b>com.fasterxml.jackson.databind</b>: Procesamiento de datos en formato JSON.</li>
+ *   <li><b>com.fasterxml.jackson.dataformat.smile</b>: Formato binario Smile, equivalente a JSON.</li>
+ *   <li><b>jdk.jfr</b>: Eventos de JDK Flight Recorder con las métricas de la aplicación.</li>
  * </ul>
  * <p>
  * Paquetes principales:
@@ -42,7 +44,10 @@ module org.marcosjfx.marcosfx {
     requires com.almasb.fxgl.all;
     requires java.net.http;
     requires com.fasterxml.jackson.databind;
+    requires com.fasterxml.jackson.dataformat.smile;
+    requires jdk.jfr;
 
     opens org.marcosjfx.marcosfx to javafx.fxml;
+    opens org.marcosjfx.marcosfx.backend to com.fasterxml.jackson.databind;
     exports org.marcosjfx.marcosfx;
 }
\ No newline at end of file
@@ -0,0 +1,55 @@
+package org.marcosjfx.marcosfx;
+
+import javafx.application.Platform;
+import org.marcosjfx.marcosfx.backend.Metrics;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Ejecuta fuera del hilo de JavaFX el trabajo con los datos (lectura de archivos, compras y ventas)
+ * y publica los resultados de vuelta en el hilo de JavaFX con {@link Platform#runLater(Runnable)}.
+ * <p>
+ * Todo el trabajo se ejecuta en un único hilo dedicado, así que las operaciones se aplican en el mismo
+ * orden en el que se piden (por ejemplo, dos clics seguidos de comprar y vender) y la interfaz nunca
+ * se queda bloqueada esperando al disco.
+ */
+final class BackgroundTasks {
+
+    /**
+     * Hilo dedicado al trabajo con los datos.
+     */
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "data-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Clase de utilidades, no se instancia.
+     */
+    private BackgroundTasks() {
+    }
+
+    /**
+     * Ejecuta un trabajo en segundo plano y entrega su resultado en el hilo de JavaFX.
+     * Si el trabajo falla, el error se muestra por consola y no se llama a {@code onFxThread}.
+     *
+     * @param work       el trabajo a ejecutar fuera del hilo de JavaFX.
+     * @param onFxThread la acción que recibe el resultado en el hilo de JavaFX.
+     * @param <T>        el tipo del resultado.
+     * @return una tarea que se completa cuando el resultado se ha entregado.
+     */
+    static <T> CompletableFuture<Void> run(Supplier<T> work, Consumer<T> onFxThread) {
+        return CompletableFuture.supplyAsync(work, EXECUTOR)
+                .thenAcceptAsync(onFxThread, Platform::runLater)
+                .exceptionally(error -> {
+                    System.out.printf("Error en segundo plano: %s\n", error.getMessage());
+                    Metrics.error("background");
+                    return null;
+                });
+    }
+}
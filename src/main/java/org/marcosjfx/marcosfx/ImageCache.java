@@ -0,0 +1,304 @@
+package org.marcosjfx.marcosfx;
+
+import javafx.scene.image.Image;
+import org.marcosjfx.marcosfx.backend.Metrics;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Caché compartida de imágenes (retratos de jugadores y escudos) identificadas por su URL.
+ * <p>
+ * Tiene dos niveles:
+ * <ul>
+ *   <li>En memoria, las imágenes ya decodificadas se guardan en orden LRU y se descartan las menos
+ *   usadas cuando el tamaño total de sus píxeles supera el límite.</li>
+ *   <li>En disco, cada imagen descargada se guarda en un directorio de caché, de forma que en las
+ *   siguientes ejecuciones (o sin conexión) se lee desde ahí en lugar de volver a descargarla.</li>
+ * </ul>
+ * La descarga y la decodificación se hacen en un grupo de hilos en segundo plano; si varias
+ * tarjetas piden la misma URL a la vez, solo se carga una vez.
+ */
+public class ImageCache {
+
+    /**
+     * Límite por defecto de bytes de píxeles decodificados que se guardan en memoria.
+     */
+    private static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+    /**
+     * Número de hilos por defecto que descargan y decodifican imágenes.
+     */
+    private static final int DEFAULT_THREADS = 4;
+
+    /**
+     * Tiempo máximo de espera al conectar o leer una imagen remota.
+     */
+    private static final int TIMEOUT_MS = 10_000;
+
+    /**
+     * Caché compartida por toda la aplicación.
+     */
+    private static ImageCache defaultCache;
+
+    /**
+     * Tiempo de la carga de una imagen que no estaba en memoria, desde el disco o descargándola.
+     */
+    private static final Metrics.Timer LOAD_TIMER = Metrics.timer("images.load");
+
+    /**
+     * Tiempo de la descarga de una imagen.
+     */
+    private static final Metrics.Timer DOWNLOAD_TIMER = Metrics.timer("images.download");
+
+    /**
+     * Directorio donde se guardan las imágenes descargadas.
+     */
+    private final Path directory;
+
+    /**
+     * Límite de bytes de píxeles decodificados en memoria.
+     */
+    private final long maxBytes;
+
+    /**
+     * Hilos que descargan y decodifican las imágenes.
+     */
+    private final ExecutorService decodePool;
+
+    /**
+     * Imágenes decodificadas, ordenadas de menos a más recientemente usada.
+     */
+    private final LinkedHashMap<String, Image> images = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Cargas en curso, para no cargar dos veces la misma URL.
+     */
+    private final Map<String, CompletableFuture<Image>> loading = new HashMap<>();
+
+    /**
+     * Bytes de píxeles que ocupan las imágenes en memoria.
+     */
+    private long currentBytes;
+
+    /**
+     * Veces que una imagen se ha encontrado en memoria.
+     */
+    private long hits;
+
+    /**
+     * Veces que una imagen no estaba en memoria.
+     */
+    private long misses;
+
+    /**
+     * Crea una caché de imágenes.
+     *
+     * @param directory directorio donde se guardan las imágenes en disco.
+     * @param maxBytes  límite de bytes de píxeles decodificados en memoria.
+     * @param threads   número de hilos para descargar y decodificar.
+     */
+    public ImageCache(Path directory, long maxBytes, int threads) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        AtomicInteger counter = new AtomicInteger();
+        this.decodePool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "image-cache-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Devuelve la caché compartida por la aplicación, que guarda las imágenes en
+     * {@code ~/.marcosfx/images}.
+     *
+     * @return la caché de imágenes por defecto.
+     */
+    public static synchronized ImageCache getDefault() {
+        if (defaultCache == null) {
+            Path directory = Paths.get(System.getProperty("user.home"), ".marcosfx", "images");
+            defaultCache = new ImageCache(directory, DEFAULT_MAX_BYTES, DEFAULT_THREADS);
+            ImageCache cache = defaultCache;
+            Metrics.gauge("images.hitRate", cache::getHitRate);
+            Metrics.gauge("images.cached", cache::getCachedCount);
+        }
+        return defaultCache;
+    }
+
+    /**
+     * Devuelve la imagen si ya está decodificada en memoria, sin cargarla.
+     *
+     * @param url la URL de la imagen.
+     * @return la imagen, o {@code null} si no está en memoria.
+     */
+    public synchronized Image getIfPresent(String url) {
+        Image image = images.get(url);
+        if (image != null) hits++;
+        else misses++;
+        return image;
+    }
+
+    /**
+     * Obtiene una imagen: de memoria si ya está, y si no la lee del disco o la descarga
+     * en segundo plano.
+     *
+     * @param url la URL de la imagen.
+     * @return una tarea que se completa con la imagen decodificada, cuando ya está guardada en memoria.
+     */
+    public synchronized CompletableFuture<Image> load(String url) {
+        Image image = images.get(url);
+        if (image != null) return CompletableFuture.completedFuture(image);
+
+        CompletableFuture<Image> future = loading.get(url);
+        if (future == null) {
+            future = CompletableFuture.supplyAsync(() -> read(url), decodePool)
+                    .whenComplete((loaded, error) -> store(url, loaded));
+            if (!future.isDone()) loading.put(url, future);
+        }
+        return future;
+    }
+
+    /**
+     * Obtiene la proporción de consultas a memoria que han encontrado la imagen.
+     *
+     * @return la tasa de aciertos, entre 0 y 1.
+     */
+    public synchronized double getHitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /**
+     * Obtiene el número de imágenes decodificadas que hay en memoria.
+     *
+     * @return el número de imágenes.
+     */
+    public synchronized int getCachedCount() {
+        return images.size();
+    }
+
+    /**
+     * Guarda en memoria una imagen recién cargada y descarta las menos usadas si se supera el límite.
+     *
+     * @param url   la URL de la imagen.
+     * @param image la imagen cargada, o {@code null} si la carga falló.
+     */
+    private synchronized void store(String url, Image image) {
+        loading.remove(url);
+        if (image == null) return;
+
+        Image previous = images.put(url, image);
+        if (previous != null) currentBytes -= pixelBytes(previous);
+        currentBytes += pixelBytes(image);
+
+        Iterator<Map.Entry<String, Image>> eldest = images.entrySet().iterator();
+        while (currentBytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<String, Image> entry = eldest.next();
+            if (entry.getValue() == image) break;
+            currentBytes -= pixelBytes(entry.getValue());
+            eldest.remove();
+        }
+    }
+
+    /**
+     * Lee una imagen del disco o, si no está, la descarga y la guarda en el disco. Se ejecuta en
+     * los hilos de la caché.
+     *
+     * @param url la URL de la imagen.
+     * @return la imagen decodificada.
+     */
+    private Image read(String url) {
+        Path file = directory.resolve(fileName(url));
+        long start = LOAD_TIMER.start();
+        try {
+            if (!Files.exists(file)) {
+                download(url, file);
+            }
+            Image image;
+            try (InputStream in = Files.newInputStream(file)) {
+                image = new Image(in);
+            }
+            if (image.isError()) {
+                Files.deleteIfExists(file);
+                throw new IOException("No se pudo decodificar la imagen " + url, image.getException());
+            }
+            return image;
+        } catch (IOException e) {
+            Metrics.error("images");
+            throw new UncheckedIOException(e);
+        } finally {
+            LOAD_TIMER.stop(start);
+        }
+    }
+
+    /**
+     * Descarga una imagen al directorio de caché. Se escribe primero en un archivo temporal para
+     * que nunca quede una imagen a medias con el nombre definitivo.
+     *
+     * @param url  la URL de la imagen.
+     * @param file el archivo de destino.
+     * @throws IOException si no se puede descargar o guardar la imagen.
+     */
+    private void download(String url, Path file) throws IOException {
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, "download", ".tmp");
+        long start = DOWNLOAD_TIMER.start();
+        try {
+            URLConnection connection = URI.create(url).toURL().openConnection();
+            connection.setConnectTimeout(TIMEOUT_MS);
+            connection.setReadTimeout(TIMEOUT_MS);
+            try (InputStream in = connection.getInputStream()) {
+                Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+            DOWNLOAD_TIMER.stop(start);
+        }
+    }
+
+    /**
+     * Calcula el nombre del archivo de caché de una URL.
+     *
+     * @param url la URL de la imagen.
+     * @return el resumen SHA-256 de la URL en hexadecimal.
+     */
+    private static String fileName(String url) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(url.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Calcula los bytes que ocupan los píxeles decodificados de una imagen (4 bytes por píxel).
+     *
+     * @param image la imagen.
+     * @return el tamaño aproximado en memoria.
+     */
+    private static long pixelBytes(Image image) {
+        return (long) image.getWidth() * (long) image.getHeight() * 4;
+    }
+}
@@ -2,18 +2,12 @@ package org.marcosjfx.marcosfx;
 
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Node;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.web.WebEngine;
 import javafx.scene.web.WebView;
-import javafx.stage.Stage;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.Objects;
 
 /**
  * La clase JavaDocView proporciona la funcionalidad para mostrar la documentación
@@ -63,11 +57,7 @@ public class JavaDocView {
      * @throws IOException si ocurre un error al cargar el archivo FXML de la vista principal.
      */
     public void switchToMainView(ActionEvent event) throws IOException {
-        Parent root = FXMLLoader.load(Objects.requireNonNull(getClass().getResource("MainView.fxml")));
-        Stage stage = (Stage) ((Node) event.getSource()).getScene().getWindow();
-        Scene scene = new Scene(root, 1300, 800);
-        stage.setScene(scene);
-        stage.show();
+        ViewNavigator.show(event, ViewNavigator.View.MAIN);
     }
 
 }
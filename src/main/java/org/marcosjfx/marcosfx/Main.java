@@ -1,13 +1,15 @@
 package org.marcosjfx.marcosfx;
 
 import javafx.application.Application;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
+import org.marcosjfx.marcosfx.backend.Metrics;
+import org.marcosjfx.marcosfx.backend.TeamRepository;
 
 import java.io.IOException;
-import java.util.Objects;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
 
 /**
  * Clase principal de la aplicación que extiende {@link Application} y sirve como punto de entrada para la interfaz gráfica.
@@ -17,7 +19,18 @@ import java.util.Objects;
 public class Main extends Application {
 
     /**
-     * Método principal que se ejecuta al iniciar la aplicación JavaFX.
+     * Archivo donde se guardan periódicamente las {@link Metrics métricas} de la sesión.
+     */
+    private static final Path METRICS_PATH = Paths.get(System.getProperty("user.home"), ".marcosfx", "metrics.json");
+
+    /**
+     * Tiempo entre dos escrituras del archivo de métricas.
+     */
+    private static final Duration METRICS_INTERVAL = Duration.ofMinutes(1);
+
+    /**
+     * Método principal que se ejecuta al iniciar la aplicación JavaFX. Después de mostrar la vista principal
+     * empieza a preparar el mercado en segundo plano con {@link StartupPreloader}.
      *
      * @param stage El escenario principal proporcionado por JavaFX donde se monta la interfaz gráfica.
      * @throws RuntimeException Sí ocurre algún error durante la carga del archivo FXML.
@@ -25,8 +38,7 @@ public class Main extends Application {
     @Override
     public void start(Stage stage) {
         try {
-            Parent root = FXMLLoader.load(Objects.requireNonNull(getClass().getResource("MainView.fxml")));
-            Scene scene = new Scene(root, 1300, 800);
+            Scene scene = ViewNavigator.createScene(ViewNavigator.View.MAIN);
 
             stage.setTitle("Marcos Plaza Piqueras Fantasy");
             stage.setScene(scene);
@@ -34,10 +46,27 @@ public class Main extends Application {
             stage.centerOnScreen();
             stage.show();
 
+            StartupPreloader.start();
+            Metrics.startPeriodicDump(METRICS_PATH, METRICS_INTERVAL);
+
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
 
     }
 
+    /**
+     * Método que se ejecuta al cerrar la aplicación. Guarda en disco los cambios del equipo
+     * que todavía estuvieran pendientes de escribir y las métricas finales de la sesión.
+     */
+    @Override
+    public void stop() {
+        TeamRepository.flushAll();
+        try {
+            Metrics.dump(METRICS_PATH);
+        } catch (IOException e) {
+            System.out.printf("Error guardando las métricas: %s\n", e.getMessage());
+        }
+    }
+
 }
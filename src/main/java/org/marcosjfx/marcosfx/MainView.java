@@ -1,30 +1,36 @@
 package org.marcosjfx.marcosfx;
 
 import javafx.event.ActionEvent;
-import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
-import javafx.scene.Node;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
 import javafx.scene.chart.BarChart;
 import javafx.scene.control.Button;
+import javafx.scene.control.ChoiceBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListView;
+import javafx.scene.control.ProgressBar;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.AnchorPane;
-import javafx.stage.Stage;
+import javafx.scene.layout.VBox;
+import org.marcosjfx.marcosfx.backend.DataBase;
+import org.marcosjfx.marcosfx.backend.Formation;
+import org.marcosjfx.marcosfx.backend.Player;
+import org.marcosjfx.marcosfx.backend.PlayerRankings;
+import org.marcosjfx.marcosfx.backend.PlayerStore;
+import org.marcosjfx.marcosfx.backend.SquadOptimizer;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
 import java.util.Map;
-import java.util.HashMap;
 
-import java.util.Objects;
+import java.util.function.Function;
 
 /**
  * La clase MainView actúa como controlador para la interfaz principal de la aplicación.
  * Gestiona la navegación entre vistas, la visualización de gráficos de barras y otras interacciones de usuario.
  */
-public class MainView implements Initializable {
+public class MainView implements Initializable, ViewNavigator.Refreshable {
     /**
      * Constructor de la clase MainView.
      * Inicializa una nueva instancia del controlador principal.
@@ -55,13 +61,89 @@ public class MainView implements Initializable {
     /**
      * Gráfico de barras que muestra información sobre los precios de equipos.
      */
-    public BarChart clubsBarChart;
+    public BarChart<String, Number> clubsBarChart;
 
     /**
      * Botón para acceder a la vista de la documentación JavaDoc.
      */
     public Button JavaDocGoButton;
 
+    /**
+     * Contenedor de la pestaña de clasificaciones.
+     */
+    public AnchorPane RankingsPane;
+
+    /**
+     * Clasificación de los jugadores con mejor calificación.
+     */
+    public ListView<String> ratingLeaderboard;
+
+    /**
+     * Clasificación de los jugadores con más goles y asistencias.
+     */
+    public ListView<String> goalsLeaderboard;
+
+    /**
+     * Clasificación de los porteros con más paradas.
+     */
+    public ListView<String> savesLeaderboard;
+
+    /**
+     * Clasificación de los jugadores con mejor calificación por millón de valor de mercado.
+     */
+    public ListView<String> valueLeaderboard;
+
+    /**
+     * Selector de la alineación del equipo sugerido.
+     */
+    public ChoiceBox<String> FormationChoice;
+
+    /**
+     * Selector del criterio que maximiza el equipo sugerido.
+     */
+    public ChoiceBox<String> ObjectiveChoice;
+
+    /**
+     * Botón para buscar el mejor equipo que cabe en el presupuesto.
+     */
+    public Button SquadGoButton;
+
+    /**
+     * Jugadores del equipo sugerido.
+     */
+    public ListView<String> squadList;
+
+    /**
+     * Resumen de la puntuación y el coste del equipo sugerido.
+     */
+    public Label squadSummary;
+
+    /**
+     * Contenedor de la barra de progreso de la precarga del mercado.
+     */
+    public VBox preloadBox;
+
+    /**
+     * Barra de progreso de la precarga del mercado.
+     */
+    public ProgressBar preloadProgress;
+
+    /**
+     * Etiqueta con el estado de la precarga del mercado.
+     */
+    public Label preloadStatus;
+
+    /**
+     * Alineaciones que se pueden elegir para el equipo sugerido.
+     */
+    private static final String[] FORMATIONS = {"4-3-3", "4-4-2", "3-5-2", "4-5-1", "5-3-2", "3-4-3"};
+
+    /**
+     * Barra del gráfico de cada club, indexada por el código del club, para poder actualizar solo las que
+     * cambian.
+     */
+    private final List<BarChart.Data<String, Number>> clubBars = new ArrayList<>();
+
     /**
      * Método que inicializa los elementos del controlador.
      *
@@ -71,64 +153,160 @@ public class MainView implements Initializable {
     @Override
     public void initialize(java.net.URL url, java.util.ResourceBundle resourceBundle) {
         addInfoClubsBarChart();
+        addLeaderboards();
+        FormationChoice.getItems().setAll(FORMATIONS);
+        FormationChoice.setValue(FORMATIONS[0]);
+        ObjectiveChoice.getItems().setAll("Calificación", "Puntos");
+        ObjectiveChoice.setValue("Calificación");
+        showPreloadProgress();
     }
 
     /**
-     * Cambia a la vista del mercado cargando el archivo FXML correspondiente.
+     * Enlaza la barra de progreso y su etiqueta con la {@link StartupPreloader precarga del mercado} y las
+     * oculta cuando termina.
+     */
+    private void showPreloadProgress() {
+        preloadProgress.progressProperty().bind(StartupPreloader.progressProperty());
+        preloadStatus.textProperty().bind(StartupPreloader.messageProperty());
+        preloadBox.visibleProperty().bind(StartupPreloader.progressProperty().lessThan(1));
+    }
+
+    /**
+     * Cambia a la vista del mercado. El archivo FXML solo se carga la primera vez; las siguientes se
+     * reutiliza la vista y se actualizan sus datos.
      *
      * @param event Evento de acción que activa el cambio de vista.
      * @throws IOException Si ocurre un error al cargar el archivo FXML.
      */
     public void switchToMarketView(ActionEvent event) throws IOException {
-        Parent root = FXMLLoader.load(Objects.requireNonNull(getClass().getResource("MarketView.fxml")));
-        Stage stage = (Stage) ((Node) event.getSource()).getScene().getWindow();
-        Scene scene = new Scene(root, 1300, 800);
-
-        stage.setScene(scene);
-        stage.show();
+        ViewNavigator.show(event, ViewNavigator.View.MARKET);
     }
 
     /**
-     * Cambia a la vista de documentación JavaDoc cargando el archivo FXML correspondiente.
+     * Cambia a la vista de documentación JavaDoc. El archivo FXML solo se carga la primera vez.
      *
      * @param event Evento de acción que activa el cambio de vista.
      * @throws IOException Si ocurre un error al cargar el archivo FXML.
      */
     public void switchToJavaDocView(ActionEvent event) throws IOException {
-        Parent root = FXMLLoader.load(Objects.requireNonNull(getClass().getResource("JavaDocView.fxml")));
-        Stage stage = (Stage) ((Node) event.getSource()).getScene().getWindow();
-        Scene scene = new Scene(root, 1300, 800);
+        ViewNavigator.show(event, ViewNavigator.View.JAVADOC);
+    }
 
-        stage.setScene(scene);
-        stage.show();
+    /**
+     * Actualiza el gráfico de clubes y las clasificaciones al volver a la vista principal, por si han
+     * cambiado los valores de mercado o las estadísticas. Solo se modifican las barras y las filas que
+     * han cambiado.
+     */
+    @Override
+    public void refresh() {
+        addInfoClubsBarChart();
+        addLeaderboards();
     }
 
     /**
-     * Carga información desde un archivo CSV y la utiliza para poblar el gráfico de barras con datos
-     * sobre precios de equipos.
+     * Pide la suma de los valores de mercado de cada club y la utiliza para poblar el gráfico de barras
+     * con datos sobre precios de equipos. Las sumas se obtienen en segundo plano y solo se modifican
+     * las barras cuyo valor ha cambiado.
      */
     public void addInfoClubsBarChart() {
-        try (BufferedReader reader = new BufferedReader(new FileReader("src/main/resources/database/players.csv"))) {
-            Map<String, Integer> pricesByTeam = new HashMap<>();
-            String line;
-            reader.readLine();
-            while ((line = reader.readLine()) != null) {
-                String[] columns = line.split(",");
-                String team = columns[6].trim();
-                int price = Integer.parseInt(columns[3].trim());
-                pricesByTeam.put(team, pricesByTeam.getOrDefault(team, 0) + price);
-            }
-            clubsBarChart.getData().clear();
-            for (Map.Entry<String, Integer> entry : pricesByTeam.entrySet()) {
+        BackgroundTasks.run(() -> new DataBase().getMarketValueByClub(), this::updateClubsBarChart);
+    }
+
+    /**
+     * Actualiza el gráfico de barras con los valores de cada club. Las barras que ya existían se
+     * reutilizan y solo se crea una serie nueva para los clubes que todavía no aparecían; como los
+     * códigos de los clubes no cambian, cada barra se encuentra por su código sin comparar nombres.
+     *
+     * @param valuesByClub los nombres y la suma de los valores de mercado de cada club, por código.
+     */
+    private void updateClubsBarChart(PlayerStore.ClubMarketValues valuesByClub) {
+        String[] clubNames = valuesByClub.clubNames();
+        long[] marketValues = valuesByClub.marketValues();
+        for (int code = 0; code < marketValues.length; code++) {
+            if (code == clubBars.size()) {
                 BarChart.Series<String, Number> series = new BarChart.Series<>();
-                series.setName(entry.getKey());
-                series.getData().add(new BarChart.Data<>(entry.getKey(), entry.getValue()));
+                series.setName(clubNames[code]);
+                BarChart.Data<String, Number> bar = new BarChart.Data<>(clubNames[code], marketValues[code]);
+                series.getData().add(bar);
                 clubsBarChart.getData().add(series);
+                clubBars.add(bar);
+            } else if (clubBars.get(code).getYValue().longValue() != marketValues[code]) {
+                clubBars.get(code).setYValue(marketValues[code]);
             }
-        } catch (IOException e) {
-            System.out.printf("Error %s\n", e.getMessage());
         }
     }
 
+    /**
+     * Pide en segundo plano los mejores jugadores de cada clasificación y los muestra en las listas de la
+     * pestaña de clasificaciones. Las clasificaciones ya están calculadas con la última jornada simulada.
+     */
+    public void addLeaderboards() {
+        BackgroundTasks.run(() -> {
+            DataBase dataBase = new DataBase();
+            Map<PlayerRankings.Ranking, List<Player>> tops = new EnumMap<>(PlayerRankings.Ranking.class);
+            for (PlayerRankings.Ranking ranking : PlayerRankings.Ranking.values()) {
+                tops.put(ranking, dataBase.getTopPlayers(ranking));
+            }
+            return tops;
+        }, this::updateLeaderboards);
+    }
+
+    /**
+     * Rellena las listas de las clasificaciones.
+     *
+     * @param tops los mejores jugadores de cada clasificación, de mejor a peor.
+     */
+    private void updateLeaderboards(Map<PlayerRankings.Ranking, List<Player>> tops) {
+        ratingLeaderboard.getItems().setAll(leaderboardLines(tops.get(PlayerRankings.Ranking.RATING),
+                player -> String.valueOf(player.getRating())));
+        goalsLeaderboard.getItems().setAll(leaderboardLines(tops.get(PlayerRankings.Ranking.GOAL_CONTRIBUTIONS),
+                player -> (player.getGoals() + player.getAssists()) + " G+A"));
+        savesLeaderboard.getItems().setAll(leaderboardLines(tops.get(PlayerRankings.Ranking.SAVES),
+                player -> player.getSaves() + " paradas"));
+        valueLeaderboard.getItems().setAll(leaderboardLines(tops.get(PlayerRankings.Ranking.VALUE_FOR_MONEY),
+                player -> String.format("%.2f", player.getRating() * 1_000_000.0 / player.getMarketValue())));
+    }
+
+    /**
+     * Busca en segundo plano el equipo con mayor puntuación que se puede comprar con el presupuesto
+     * actual y lo muestra en la pestaña del equipo.
+     */
+    public void suggestSquad() {
+        Formation formation = Formation.parse(FormationChoice.getValue());
+        SquadOptimizer.Objective objective = "Puntos".equals(ObjectiveChoice.getValue())
+                ? SquadOptimizer.Objective.POINTS : SquadOptimizer.Objective.RATING;
+        SquadGoButton.setDisable(true);
+        BackgroundTasks.run(() -> new DataBase().getOptimalSquad(formation, objective), squad -> {
+            SquadGoButton.setDisable(false);
+            List<String> lines = new ArrayList<>(squad.size());
+            long totalScore = 0;
+            long totalCost = 0;
+            for (Player player : squad) {
+                lines.add(String.format("%s - %s (%s) - %d - %,d €", player.getPosition(), player.getName(),
+                        player.getClubName(), objective.score(player), player.getMarketValue()));
+                totalScore += objective.score(player);
+                totalCost += player.getMarketValue();
+            }
+            squadList.getItems().setAll(lines);
+            squadSummary.setText(squad.isEmpty() ? "Ningún equipo cabe en el presupuesto"
+                    : String.format("Total: %d - %,d €", totalScore, totalCost));
+        });
+    }
 
+    /**
+     * Construye el texto de cada puesto de una clasificación.
+     *
+     * @param players los jugadores, de mejor a peor.
+     * @param score   el texto con la puntuación de cada jugador.
+     * @return una línea por jugador con su puesto, nombre, club y puntuación.
+     */
+    private static List<String> leaderboardLines(List<Player> players, Function<Player, String> score) {
+        List<String> lines = new ArrayList<>(players.size());
+        for (int i = 0; i < players.size(); i++) {
+            Player player = players.get(i);
+            lines.add(String.format("%d. %s (%s) - %s", i + 1, player.getName(), player.getClubName(),
+                    score.apply(player)));
+        }
+        return lines;
+    }
 }
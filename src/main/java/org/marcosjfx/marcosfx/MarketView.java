@@ -1,23 +1,21 @@
 package org.marcosjfx.marcosfx;
 
+import javafx.animation.PauseTransition;
 import javafx.event.ActionEvent;
-import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
-import javafx.scene.Node;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
-import javafx.scene.control.ScrollPane;
+import javafx.scene.control.ListView;
+import javafx.scene.control.TextField;
 import javafx.scene.layout.AnchorPane;
-import javafx.scene.layout.VBox;
-import javafx.stage.Stage;
+import javafx.util.Duration;
 import org.marcosjfx.marcosfx.backend.DataBase;
 import org.marcosjfx.marcosfx.backend.Player;
+import org.marcosjfx.marcosfx.backend.PlayerSearch;
+import org.marcosjfx.marcosfx.backend.PlayerStore;
 
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Objects;
+import java.util.Set;
 
 /**
  * Clase que representa la vista del mercado en la aplicación.
@@ -27,7 +25,7 @@ import java.util.Objects;
  * <p>
  * Esta clase utiliza JavaFX para construir la interfaz gráfica del usuario.
  */
-public class MarketView implements Initializable {
+public class MarketView implements Initializable, ViewNavigator.Refreshable {
 
     /**
      * Botón para regresar a la vista principal de la aplicación.
@@ -45,14 +43,15 @@ public class MarketView implements Initializable {
     public AnchorPane DataPane;
 
     /**
-     * Panel de desplazamiento que contiene la lista de jugadores disponibles en el mercado.
+     * Lista virtualizada con los jugadores disponibles en el mercado. Solo existen como nodos
+     * las tarjetas de las filas visibles.
      */
-    public ScrollPane PlayersPane;
+    public ListView<Player> PlayersList;
 
     /**
-     * Contenedor vertical que aloja las tarjetas de jugador en la vista del mercado.
+     * Cuadro de texto para buscar jugadores por nombre o club mientras se escribe.
      */
-    public VBox PlayersVBox;
+    public TextField SearchField;
 
     /**
      * Etiqueta que muestra el presupuesto actual disponible en la vista del mercado.
@@ -64,6 +63,33 @@ public class MarketView implements Initializable {
      */
     public Label MessageLabel;
 
+    /**
+     * Tiempo que se espera desde la última tecla hasta lanzar la búsqueda, para no buscar en cada
+     * pulsación cuando se escribe deprisa.
+     */
+    private static final Duration SEARCH_DELAY = Duration.millis(150);
+
+    /**
+     * Almacén de jugadores que muestra el mercado, o {@code null} mientras se carga.
+     */
+    private PlayerStore playerStore;
+
+    /**
+     * Búsqueda del cuadro de texto, que recuerda el resultado anterior para refinarlo.
+     */
+    private PlayerSearch playerSearch;
+
+    /**
+     * Ids de los jugadores del equipo, compartidos con las celdas de la lista, o {@code null} mientras se
+     * carga.
+     */
+    private Set<Integer> teamPlayerIds;
+
+    /**
+     * Temporizador que retrasa la búsqueda hasta que se deja de escribir.
+     */
+    private final PauseTransition searchDelay = new PauseTransition(SEARCH_DELAY);
+
     /**
      * Constructor vacío para la clase MarketView.
      * Inicializa un controlador de vista para la interfaz gráfica del mercado,
@@ -74,31 +100,98 @@ public class MarketView implements Initializable {
     /**
      * Método inicial que se ejecuta al cargar la vista del mercado.
      * Aquí se inicializan y configuran los elementos dinámicos de la vista, como
-     * la lista de jugadores cargados desde la base de datos.
+     * la lista de jugadores cargados desde la base de datos. Los jugadores se cargan sin simular una
+     * jornada, porque la vista se puede cargar por adelantado; la jornada se simula al
+     * {@link #refresh() mostrarla}.
      *
      * @param url            URL de la ubicación del archivo FXML.
      * @param resourceBundle Recursos utilizados para la internacionalización de la vista.
      */
     @Override
     public void initialize(java.net.URL url, java.util.ResourceBundle resourceBundle) {
-        try {
-            
-            DataBase dataBase = new DataBase();
-            HashMap<Integer, Player> playerHashMap = dataBase.getInformation();
 
-            for (Integer playerId : playerHashMap.keySet()) {
+        BackgroundTasks.run(() -> MarketData.load(false), this::showMarketData);
 
-                FXMLLoader fxmlLoader = new FXMLLoader();
-                fxmlLoader.setLocation(getClass().getResource("PlayerCard.fxml"));
-                AnchorPane anchorPane = fxmlLoader.load();
-                PlayerCard playerCard = fxmlLoader.getController();
+        searchDelay.setOnFinished(event -> search(SearchField.getText()));
+        SearchField.textProperty().addListener((observable, oldText, newText) -> searchDelay.playFromStart());
+    }
+
+    /**
+     * Vuelve a cargar los datos del mercado cada vez que se muestra la vista, lo que también simula una
+     * jornada, igual que cuando se abría el mercado desde cero. La lista, la búsqueda y las celdas se
+     * conservan.
+     */
+    @Override
+    public void refresh() {
+        MessageLabel.setText("");
+        BackgroundTasks.run(() -> MarketData.load(true), this::showMarketData);
+    }
 
-                playerCard.setInformation(playerHashMap.get(playerId), this);
-                PlayersVBox.getChildren().add(anchorPane);
-                updateBudgetLabel();
+    /**
+     * Muestra los datos del mercado. La primera vez crea la lista; las siguientes solo actualiza los ids del
+     * equipo y el presupuesto y vuelve a pintar las celdas visibles, porque el almacén es el mismo y las
+     * filas de la lista leen sus valores actuales.
+     *
+     * @param marketData los datos del mercado.
+     */
+    private void showMarketData(MarketData marketData) {
+        if (marketData.playerStore() == null) return;
+        showBudget(marketData.budget());
+        if (playerStore == marketData.playerStore()) {
+            if (!teamPlayerIds.equals(marketData.teamPlayerIds())) {
+                teamPlayerIds.clear();
+                teamPlayerIds.addAll(marketData.teamPlayerIds());
             }
-        } catch (IOException e) {
-            System.out.printf("Error %s\n", e.getMessage());
+            PlayersList.refresh();
+            return;
+        }
+        playerStore = marketData.playerStore();
+        playerSearch = marketData.playerSearch();
+        teamPlayerIds = marketData.teamPlayerIds();
+        PlayersList.setCellFactory(listView -> new PlayerCardCell(this, teamPlayerIds));
+        PlayersList.setItems(new PlayerStoreList(playerStore));
+        if (!SearchField.getText().isEmpty()) searchDelay.playFromStart();
+    }
+
+    /**
+     * Busca en segundo plano los jugadores cuyo nombre o club coincide con el texto y muestra el
+     * resultado en la lista. Las búsquedas se ejecutan en el orden en el que se piden, así que el
+     * último resultado mostrado es siempre el del último texto.
+     *
+     * @param text el texto del cuadro de búsqueda.
+     */
+    private void search(String text) {
+        if (playerSearch == null) return;
+        PlayerSearch search = playerSearch;
+        BackgroundTasks.run(() -> search.search(text), rows -> {
+            PlayersList.setItems(new PlayerStoreList(playerStore, rows));
+            PlayersList.scrollTo(0);
+        });
+    }
+
+    /**
+     * Datos que necesita la vista del mercado, cargados juntos en segundo plano.
+     *
+     * @param playerStore   el almacén de jugadores, o {@code null} si no se ha podido leer.
+     * @param playerSearch  la búsqueda sobre el almacén, o {@code null} si no se ha podido leer.
+     * @param teamPlayerIds los ids de los jugadores del equipo.
+     * @param budget        el presupuesto disponible.
+     */
+    private record MarketData(PlayerStore playerStore, PlayerSearch playerSearch, Set<Integer> teamPlayerIds,
+                              int budget) {
+
+        /**
+         * Carga los datos del mercado. Se debe llamar fuera del hilo de JavaFX.
+         *
+         * @param simulateMatchday {@code true} para actualizar las estadísticas de los jugadores con una
+         *                         jornada simulada.
+         * @return los datos del mercado.
+         */
+        static MarketData load(boolean simulateMatchday) {
+            DataBase dataBase = new DataBase();
+            PlayerStore playerStore = simulateMatchday ? dataBase.getPlayerStore() : dataBase.loadPlayerStore();
+            PlayerSearch playerSearch = playerStore == null ? null : playerStore.newSearch();
+            return new MarketData(playerStore, playerSearch, dataBase.getTeamPlayerIds(), dataBase.getPurchaseBudget());
         }
     }
 
@@ -110,21 +203,25 @@ public class MarketView implements Initializable {
      * @throws IOException Excepción que puede ocurrir si el archivo FXML no se encuentra o no se puede cargar.
      */
     public void switchToMainView(ActionEvent event) throws IOException {
-        Parent root = FXMLLoader.load(Objects.requireNonNull(getClass().getResource("MainView.fxml")));
-        Stage stage = (Stage) ((Node) event.getSource()).getScene().getWindow();
-        Scene scene = new Scene(root, 1300, 800);
-        stage.setScene(scene);
-        stage.show();
+        ViewNavigator.show(event, ViewNavigator.View.MAIN);
     }
 
     /**
      * Actualiza el texto de la etiqueta relacionada con el presupuesto actual
-     * en función de los datos recuperados de la base de datos.
+     * en función de los datos recuperados de la base de datos. El presupuesto se consulta
+     * en segundo plano.
      */
     public void updateBudgetLabel() {
-        DataBase dataBase = new DataBase();
-        BudgetLabel.setText(String.format("€%,.2f", (double) dataBase.getPurchaseBudget()));
+        BackgroundTasks.run(() -> new DataBase().getPurchaseBudget(), this::showBudget);
     }
 
-}
+    /**
+     * Muestra un presupuesto en la etiqueta correspondiente.
+     *
+     * @param budget el presupuesto a mostrar.
+     */
+    private void showBudget(int budget) {
+        BudgetLabel.setText(String.format("€%,.2f", (double) budget));
+    }
 
+}
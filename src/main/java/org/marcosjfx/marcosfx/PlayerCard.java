@@ -1,60 +1,116 @@
 package org.marcosjfx.marcosfx;
 
-import javafx.scene.image.Image;
-
+import javafx.application.Platform;
+import javafx.scene.Node;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
+import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.AnchorPane;
+import javafx.scene.layout.VBox;
 import org.marcosjfx.marcosfx.backend.DataBase;
 import org.marcosjfx.marcosfx.backend.Player;
 
+import java.util.Objects;
+import java.util.Set;
+
 /**
  * Representa una tarjeta de jugador en la interfaz, mostrando su información
  * y permitiendo interacciones con la compra y venta de jugadores.
+ * <p>
+ * La tarjeta se construye en código, con los mismos nodos, ids y hoja de estilos playerCardStyle.css que
+ * tenía su antiguo FXML, así que se ve igual pero crearla no lee ningún archivo ni inyecta campos por
+ * reflexión. Las celdas de la lista del mercado crean una tarjeta cada una y después solo cambian el
+ * jugador que muestra con {@link #setInformation(Player, MarketView, Set)}.
  */
-public class PlayerCard {
+public final class PlayerCard extends AnchorPane {
 
     /**
-     * Constructor que inicializa una tarjeta del jugador vacía.
+     * Hoja de estilos de la tarjeta, resuelta una sola vez para todas las tarjetas.
      */
-    public PlayerCard() {
-    }
-
-    /**
-     * El contenedor principal de la tarjeta del jugador.
-     */
-    public AnchorPane PlayerPane;
+    private static final String STYLESHEET = Objects.requireNonNull(
+            PlayerCard.class.getResource("/stylesheets/playerCardStyle.css")).toExternalForm();
 
     /**
      * Imagen del retrato del jugador.
      */
-    public ImageView PlayerPortrait;
+    private final ImageView playerPortrait = new ImageView();
 
     /**
      * Etiqueta que muestra el nombre del jugador.
      */
-    public Label NameLabel;
+    private final Label nameLabel = new Label("Nombre y Apellidos");
 
     /**
      * Etiqueta que muestra la posición del jugador.
      */
-    public Label PositionLabel;
+    private final Label positionLabel = new Label("Posicion");
 
     /**
      * Etiqueta que muestra el equipo del jugador.
      */
-    public Label TeamLabel;
+    private final Label teamLabel = new Label("Equipo");
 
     /**
      * Botón para comprar o vender al jugador.
      */
-    public Button BuyButton;
+    private final Button buyButton = new Button("Comprar");
 
     /**
      * Etiqueta que muestra el precio del jugador.
      */
-    public Label PriceLabel;
+    private final Label priceLabel = new Label("Precio");
+
+    /**
+     * Constructor que crea una tarjeta del jugador vacía, con la misma estructura que tenía PlayerCard.fxml.
+     */
+    public PlayerCard() {
+        setPrefSize(790, 200);
+        getStylesheets().add(STYLESHEET);
+
+        playerPortrait.setFitWidth(150);
+        playerPortrait.setFitHeight(150);
+        playerPortrait.setPickOnBounds(true);
+        playerPortrait.setPreserveRatio(true);
+        setAnchors(playerPortrait, 10.0, null, 10.0, 10.0);
+
+        nameLabel.setPrefSize(224, 35);
+        positionLabel.setPrefSize(235, 37);
+        teamLabel.setPrefSize(224, 36);
+        VBox informationBox = new VBox(10, nameLabel, positionLabel, teamLabel);
+        informationBox.setLayoutX(200);
+        informationBox.setPrefSize(223, 142);
+        setAnchors(informationBox, 10.0, null, 0.0, null);
+
+        buyButton.setId("BuyButton");
+        buyButton.setMnemonicParsing(false);
+        buyButton.setOnAction(event -> onBuyButtonClicked());
+        priceLabel.setPrefSize(224, 35);
+        VBox priceBox = new VBox(10, buyButton, priceLabel);
+        priceBox.relocate(512, 21);
+        priceBox.setPrefSize(223, 142);
+
+        AnchorPane playerPane = new AnchorPane(playerPortrait, informationBox, priceBox);
+        playerPane.setId("PlayerPane");
+        setAnchors(playerPane, 0.0, 0.0, 0.0, 0.0);
+        getChildren().add(playerPane);
+    }
+
+    /**
+     * Fija las distancias de un nodo a los bordes de su {@link AnchorPane}.
+     *
+     * @param node   el nodo.
+     * @param top    la distancia al borde superior, o {@code null} para no fijarla.
+     * @param right  la distancia al borde derecho, o {@code null} para no fijarla.
+     * @param bottom la distancia al borde inferior, o {@code null} para no fijarla.
+     * @param left   la distancia al borde izquierdo, o {@code null} para no fijarla.
+     */
+    private static void setAnchors(Node node, Double top, Double right, Double bottom, Double left) {
+        AnchorPane.setTopAnchor(node, top);
+        AnchorPane.setRightAnchor(node, right);
+        AnchorPane.setBottomAnchor(node, bottom);
+        AnchorPane.setLeftAnchor(node, left);
+    }
 
     /**
      * Objeto que representa al jugador actual de la tarjeta.
@@ -71,64 +127,93 @@ public class PlayerCard {
      */
     private MarketView marketView;
 
+    /**
+     * Ids de los jugadores del equipo, compartidos por todas las tarjetas del mercado.
+     */
+    private Set<Integer> teamPlayerIds;
+
     /**
      * Establece la información de la tarjeta del jugador y actualiza los elementos visuales.
      *
-     * @param player     El jugador cuya información se mostrará en la tarjeta.
-     * @param marketView La vista del mercado asociada a esta tarjeta.
+     * @param player        El jugador cuya información se mostrará en la tarjeta.
+     * @param marketView    La vista del mercado asociada a esta tarjeta.
+     * @param teamPlayerIds Los ids de los jugadores del equipo, obtenidos una sola vez por la vista del mercado.
+     *                      La tarjeta lo mantiene al día cuando se compra o vende el jugador, ya que
+     *                      las tarjetas se reutilizan para mostrar otros jugadores.
      */
-    public void setInformation(Player player, MarketView marketView) {
+    public void setInformation(Player player, MarketView marketView, Set<Integer> teamPlayerIds) {
 
         this.player = player;
         this.marketView = marketView;
+        this.teamPlayerIds = teamPlayerIds;
 
-        DataBase dataBase = new DataBase();
-        if(dataBase.isPlayerInTeam(player)) {
-            inTeam = true;
-            BuyButton.setText("Vender");
-        }
+        inTeam = teamPlayerIds.contains(player.getId());
+        buyButton.setText(inTeam ? "Vender" : "Comprar");
 
-        NameLabel.setText(player.getName());
-        PositionLabel.setText(player.getPosition());
-        TeamLabel.setText(player.getClubName());
+        nameLabel.setText(player.getName());
+        positionLabel.setText(player.getPositionCode());
+        teamLabel.setText(player.getClubName());
 
-        PriceLabel.setText(String.format("€%,.2f", (double) player.getMarketValue()));
+        priceLabel.setText(String.format("€%,.2f", (double) player.getMarketValue()));
 
         String urlImage = player.getPlayerImageURL();
-        Image playerImage = new Image(urlImage, true);
-        PlayerPortrait.setImage(playerImage);
+        ImageCache imageCache = ImageCache.getDefault();
+        Image playerImage = imageCache.getIfPresent(urlImage);
+        playerPortrait.setImage(playerImage);
+        if (playerImage == null) {
+            imageCache.load(urlImage).thenAccept(image -> Platform.runLater(() -> {
+                if (this.player != null && urlImage.equals(this.player.getPlayerImageURL())) {
+                    playerPortrait.setImage(image);
+                }
+            }));
+        }
 
     }
 
     /**
      * Maneja las acciones realizadas al hacer clic en el botón de compra o venta.
-     * Actualiza el estado del jugador en el equipo, el botón y muestra mensajes relevantes.
+     * La compra o venta se realiza en segundo plano; mientras tanto el botón queda desactivado.
+     * Al terminar, actualiza el estado del jugador en el equipo, el botón y muestra mensajes relevantes.
      */
     public void onBuyButtonClicked() {
 
-        DataBase dataBase = new DataBase();
+        Player player = this.player;
+        buyButton.setDisable(true);
 
         if(inTeam) {
-            dataBase.removePlayerFromTeam(player);
-            inTeam = false;
-            BuyButton.setText("Comprar");
-            marketView.MessageLabel.setText("La venta se realizo con exito");
-            marketView.updateBudgetLabel();
-        } else {
-            int completionStatus = dataBase.addPlayerToTeam(player);
-            if(completionStatus == 0) {
-                marketView.MessageLabel.setText("No hay suficiente presupuesto");
-            } else if (completionStatus == 1) {
-                marketView.MessageLabel.setText("La compra se realizo con exito");
-                inTeam = true;
-                BuyButton.setText("Vender");
+            BackgroundTasks.run(() -> {
+                new DataBase().removePlayerFromTeam(player);
+                return null;
+            }, ignored -> {
+                teamPlayerIds.remove(player.getId());
+                buyButton.setDisable(false);
+                marketView.MessageLabel.setText("La venta se realizo con exito");
                 marketView.updateBudgetLabel();
-            }
-            else {
-                marketView.MessageLabel.setText("Hubo un error");
-            }
+                if (player.getId() == this.player.getId()) {
+                    inTeam = false;
+                    buyButton.setText("Comprar");
+                }
+            });
+        } else {
+            BackgroundTasks.run(() -> new DataBase().addPlayerToTeam(player), completionStatus -> {
+                buyButton.setDisable(false);
+                if(completionStatus == 0) {
+                    marketView.MessageLabel.setText("No hay suficiente presupuesto");
+                } else if (completionStatus == 1) {
+                    marketView.MessageLabel.setText("La compra se realizo con exito");
+                    teamPlayerIds.add(player.getId());
+                    marketView.updateBudgetLabel();
+                    if (player.getId() == this.player.getId()) {
+                        inTeam = true;
+                        buyButton.setText("Vender");
+                    }
+                }
+                else {
+                    marketView.MessageLabel.setText("Hubo un error");
+                }
+            });
         }
 
     }
 
-}
\ No newline at end of file
+}
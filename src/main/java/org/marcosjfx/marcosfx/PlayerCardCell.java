@@ -0,0 +1,61 @@
+package org.marcosjfx.marcosfx;
+
+import javafx.scene.control.ContentDisplay;
+import javafx.scene.control.ListCell;
+import org.marcosjfx.marcosfx.backend.Player;
+
+import java.util.Set;
+
+/**
+ * Celda de la lista del mercado que muestra un jugador con una {@link PlayerCard}.
+ * <p>
+ * La tarjeta se crea una sola vez por celda. Al desplazarse por la lista,
+ * {@link javafx.scene.control.ListView} reutiliza las mismas celdas y solo cambia el jugador
+ * que muestran, así que el número de tarjetas no depende del número de jugadores.
+ */
+class PlayerCardCell extends ListCell<Player> {
+
+    /**
+     * Tarjeta de la celda.
+     */
+    private final PlayerCard playerCard = new PlayerCard();
+
+    /**
+     * Vista del mercado a la que pertenece la celda.
+     */
+    private final MarketView marketView;
+
+    /**
+     * Ids de los jugadores del equipo, compartidos con la vista del mercado.
+     */
+    private final Set<Integer> teamPlayerIds;
+
+    /**
+     * Crea la celda y su tarjeta de jugador.
+     *
+     * @param marketView    la vista del mercado.
+     * @param teamPlayerIds los ids de los jugadores del equipo.
+     */
+    PlayerCardCell(MarketView marketView, Set<Integer> teamPlayerIds) {
+        this.marketView = marketView;
+        this.teamPlayerIds = teamPlayerIds;
+        setContentDisplay(ContentDisplay.GRAPHIC_ONLY);
+    }
+
+    /**
+     * Cambia el jugador que muestra la celda.
+     *
+     * @param player el jugador a mostrar, o {@code null} si la celda queda vacía.
+     * @param empty  {@code true} si la celda no tiene contenido.
+     */
+    @Override
+    protected void updateItem(Player player, boolean empty) {
+        super.updateItem(player, empty);
+        if (empty || player == null) {
+            setGraphic(null);
+        } else {
+            playerCard.setInformation(player, marketView, teamPlayerIds);
+            setGraphic(playerCard);
+        }
+    }
+}
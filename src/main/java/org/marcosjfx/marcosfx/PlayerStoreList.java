@@ -0,0 +1,67 @@
+package org.marcosjfx.marcosfx;
+
+import javafx.collections.ObservableListBase;
+import org.marcosjfx.marcosfx.backend.Player;
+import org.marcosjfx.marcosfx.backend.PlayerStore;
+
+/**
+ * Lista observable de solo lectura que expone las filas de un {@link PlayerStore} como jugadores.
+ * <p>
+ * No guarda ningún objeto: cada {@link Player} se crea en el momento en el que la lista
+ * lo pide, por lo que un {@link javafx.scene.control.ListView} solo genera los jugadores de
+ * las filas visibles. Puede mostrar todas las filas del almacén o solo algunas, por ejemplo el
+ * resultado de una búsqueda.
+ */
+class PlayerStoreList extends ObservableListBase<Player> {
+
+    /**
+     * Almacén con la información de los jugadores.
+     */
+    private final PlayerStore playerStore;
+
+    /**
+     * Filas del almacén que muestra la lista, o {@code null} para mostrar todas.
+     */
+    private final int[] rows;
+
+    /**
+     * Crea la lista con todas las filas de un almacén de jugadores.
+     *
+     * @param playerStore el almacén de jugadores.
+     */
+    PlayerStoreList(PlayerStore playerStore) {
+        this(playerStore, null);
+    }
+
+    /**
+     * Crea la lista con algunas filas de un almacén de jugadores.
+     *
+     * @param playerStore el almacén de jugadores.
+     * @param rows        las filas a mostrar, en orden, o {@code null} para mostrar todas.
+     */
+    PlayerStoreList(PlayerStore playerStore, int[] rows) {
+        this.playerStore = playerStore;
+        this.rows = rows;
+    }
+
+    /**
+     * Crea el jugador de una fila del almacén.
+     *
+     * @param index la posición en la lista.
+     * @return el jugador de esa fila.
+     */
+    @Override
+    public Player get(int index) {
+        return playerStore.getPlayer(rows == null ? index : rows[index]);
+    }
+
+    /**
+     * Obtiene el número de jugadores de la lista.
+     *
+     * @return el número de filas que muestra la lista.
+     */
+    @Override
+    public int size() {
+        return rows == null ? playerStore.size() : rows.length;
+    }
+}
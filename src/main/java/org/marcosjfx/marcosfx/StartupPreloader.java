@@ -0,0 +1,165 @@
+package org.marcosjfx.marcosfx;
+
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyDoubleProperty;
+import javafx.beans.property.ReadOnlyDoubleWrapper;
+import javafx.beans.property.ReadOnlyStringProperty;
+import javafx.beans.property.ReadOnlyStringWrapper;
+import org.marcosjfx.marcosfx.backend.DataBase;
+import org.marcosjfx.marcosfx.backend.Metrics;
+import org.marcosjfx.marcosfx.backend.PlayerStore;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Prepara el mercado en segundo plano al arrancar la aplicación, después de mostrar la vista principal,
+ * para que la primera vez que se abre ya esté cargado.
+ * <p>
+ * En paralelo se leen el catálogo de jugadores y el equipo; cuando los dos están en memoria se carga la
+ * vista del mercado, y en cuanto está el catálogo se descargan los retratos de los primeros jugadores de la
+ * lista. Ninguno de estos pasos simula una jornada: eso sigue ocurriendo al abrir el mercado. El progreso
+ * se publica en el hilo de JavaFX con {@link #progressProperty()} y {@link #messageProperty()}.
+ */
+final class StartupPreloader {
+
+    /**
+     * Número de retratos que se descargan por adelantado, los de los primeros jugadores de la lista del
+     * mercado, que son los que se ven al abrirlo.
+     */
+    private static final int PORTRAITS = 12;
+
+    /**
+     * Número de pasos de la precarga: catálogo, equipo, vista del mercado y retratos.
+     */
+    private static final int STEPS = 4;
+
+    /**
+     * Número del último hilo de precarga creado, para distinguir sus nombres.
+     */
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    /**
+     * Hilos dedicados a la precarga, separados del hilo de {@link BackgroundTasks} para no retrasar el
+     * trabajo que pide la interfaz mientras tanto.
+     */
+    private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(2, runnable -> {
+        Thread thread = new Thread(runnable, "startup-preloader-" + THREAD_COUNTER.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Fracción de los pasos terminados, de 0 a 1.
+     */
+    private static final ReadOnlyDoubleWrapper PROGRESS = new ReadOnlyDoubleWrapper(0);
+
+    /**
+     * Descripción del último paso terminado.
+     */
+    private static final ReadOnlyStringWrapper MESSAGE = new ReadOnlyStringWrapper("");
+
+    /**
+     * Número de pasos terminados; solo se usa en el hilo de JavaFX.
+     */
+    private static int completedSteps;
+
+    /**
+     * Indica si la precarga ya se ha iniciado.
+     */
+    private static boolean started;
+
+    /**
+     * Clase de utilidades, no se instancia.
+     */
+    private StartupPreloader() {
+    }
+
+    /**
+     * Obtiene el progreso de la precarga.
+     *
+     * @return la fracción de los pasos terminados, de 0 a 1.
+     */
+    static ReadOnlyDoubleProperty progressProperty() {
+        return PROGRESS.getReadOnlyProperty();
+    }
+
+    /**
+     * Obtiene la descripción del estado de la precarga.
+     *
+     * @return la descripción del último paso terminado.
+     */
+    static ReadOnlyStringProperty messageProperty() {
+        return MESSAGE.getReadOnlyProperty();
+    }
+
+    /**
+     * Inicia la precarga. Se debe llamar en el hilo de JavaFX, después de mostrar la ventana; las
+     * llamadas siguientes no hacen nada.
+     */
+    static void start() {
+        if (started) return;
+        started = true;
+        MESSAGE.set("Preparando el mercado...");
+
+        CompletableFuture<PlayerStore> catalog = CompletableFuture.supplyAsync(
+                () -> new DataBase().loadPlayerStore(), EXECUTOR);
+        CompletableFuture<Integer> team = CompletableFuture.supplyAsync(
+                () -> new DataBase().getPurchaseBudget(), EXECUTOR);
+
+        step(catalog, "Catálogo de jugadores cargado");
+        step(team, "Equipo cargado");
+        step(catalog.thenCombine(team, (store, budget) -> store)
+                .thenCompose(store -> ViewNavigator.preload(ViewNavigator.View.MARKET, EXECUTOR))
+                .thenRunAsync(StartupPreloader::warmUpPlayerCard, EXECUTOR), "Mercado preparado");
+        step(catalog.thenCompose(StartupPreloader::loadPortraits), "Retratos descargados");
+    }
+
+    /**
+     * Descarga en la caché de imágenes los retratos de los primeros jugadores del catálogo.
+     *
+     * @param store el catálogo, o {@code null} si no se ha podido leer.
+     * @return una tarea que se completa cuando se han descargado todos los retratos.
+     */
+    private static CompletableFuture<Void> loadPortraits(PlayerStore store) {
+        if (store == null) return CompletableFuture.completedFuture(null);
+        ImageCache imageCache = ImageCache.getDefault();
+        int count = Math.min(PORTRAITS, store.size());
+        CompletableFuture<?>[] portraits = new CompletableFuture<?>[count];
+        for (int row = 0; row < count; row++) {
+            portraits[row] = imageCache.load(store.getPlayer(row).getPlayerImageURL());
+        }
+        return CompletableFuture.allOf(portraits);
+    }
+
+    /**
+     * Crea una tarjeta de jugador y la descarta, para que sus clases y su hoja de estilos ya estén cargadas
+     * cuando la lista del mercado cree sus celdas.
+     */
+    private static void warmUpPlayerCard() {
+        new PlayerCard();
+    }
+
+    /**
+     * Cuenta un paso de la precarga cuando termina, tanto si sale bien como si falla; los errores se
+     * muestran por consola y no impiden el resto de pasos.
+     *
+     * @param task    la tarea del paso.
+     * @param message la descripción del paso terminado.
+     */
+    private static void step(CompletableFuture<?> task, String message) {
+        task.whenComplete((result, error) -> {
+            if (error != null) {
+                System.out.printf("Error en la precarga: %s\n", error.getMessage());
+                Metrics.error("preload");
+            }
+            Platform.runLater(() -> {
+                completedSteps++;
+                MESSAGE.set(completedSteps == STEPS ? "Mercado listo" : message);
+                PROGRESS.set((double) completedSteps / STEPS);
+            });
+        });
+    }
+}
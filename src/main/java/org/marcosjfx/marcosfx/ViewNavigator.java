@@ -0,0 +1,201 @@
+package org.marcosjfx.marcosfx;
+
+import javafx.application.Platform;
+import javafx.event.ActionEvent;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import org.marcosjfx.marcosfx.backend.Metrics;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Navegación entre las vistas de la aplicación sobre una única escena.
+ * <p>
+ * Cada vista se carga desde su FXML solo una vez, la primera vez que se muestra o antes, si se
+ * {@link #preload(View, Executor) precarga}: el nodo raíz y su controlador se guardan y, al volver a la vista,
+ * solo se cambia la raíz de la escena, sin volver a leer el FXML ni a ejecutar {@code initialize}. Si el
+ * controlador implementa {@link Refreshable}, se le avisa cada vez que se muestra para que actualice los datos
+ * que pueden haber cambiado mientras la vista estaba oculta.
+ * <p>
+ * Salvo la precarga, que lee el FXML en otro hilo, solo se debe usar desde el hilo de JavaFX.
+ */
+final class ViewNavigator {
+
+    /**
+     * Ancho de la escena.
+     */
+    static final double WIDTH = 1300;
+
+    /**
+     * Alto de la escena.
+     */
+    static final double HEIGHT = 800;
+
+    /**
+     * Vistas de la aplicación.
+     */
+    enum View {
+        /**
+         * Vista principal.
+         */
+        MAIN("MainView.fxml"),
+        /**
+         * Vista del mercado.
+         */
+        MARKET("MarketView.fxml"),
+        /**
+         * Vista de la documentación JavaDoc.
+         */
+        JAVADOC("JavaDocView.fxml");
+
+        /**
+         * Nombre del archivo FXML de la vista.
+         */
+        private final String fxml;
+
+        /**
+         * Tiempo de la carga del FXML de la vista.
+         */
+        private final Metrics.Timer loadTimer;
+
+        /**
+         * Crea una vista.
+         *
+         * @param fxml el nombre del archivo FXML.
+         */
+        View(String fxml) {
+            this.fxml = fxml;
+            this.loadTimer = Metrics.timer("ui.load." + fxml);
+        }
+    }
+
+    /**
+     * Controlador de una vista que actualiza sus datos cada vez que se vuelve a mostrar.
+     */
+    interface Refreshable {
+
+        /**
+         * Actualiza los datos de la vista que pueden haber cambiado mientras estaba oculta. Se llama en el
+         * hilo de JavaFX cada vez que se muestra la vista, también la primera, así que {@code initialize}
+         * solo debe preparar la vista, sin repetir el trabajo de cada visita.
+         */
+        void refresh();
+    }
+
+    /**
+     * Vista ya cargada.
+     *
+     * @param root       el nodo raíz de la vista.
+     * @param controller el controlador de la vista.
+     */
+    private record LoadedView(Parent root, Object controller) {
+    }
+
+    /**
+     * Vistas cargadas hasta ahora.
+     */
+    private static final Map<View, LoadedView> VIEWS = new EnumMap<>(View.class);
+
+    /**
+     * Clase de utilidades, no se instancia.
+     */
+    private ViewNavigator() {
+    }
+
+    /**
+     * Crea la escena de la aplicación mostrando una vista.
+     *
+     * @param view la vista inicial.
+     * @return la escena nueva.
+     * @throws IOException si no se puede cargar el FXML de la vista.
+     */
+    static Scene createScene(View view) throws IOException {
+        return new Scene(load(view).root(), WIDTH, HEIGHT);
+    }
+
+    /**
+     * Carga una vista en segundo plano, sin mostrarla, para que la primera vez que se pida ya esté lista.
+     * El FXML se lee y se ejecuta {@code initialize} en el ejecutor indicado, así que la vista no debe tener
+     * nodos que solo se puedan crear en el hilo de JavaFX, como {@link javafx.scene.web.WebView}. La vista
+     * se guarda después en el hilo de JavaFX, salvo si mientras tanto ya se había cargado al mostrarla.
+     *
+     * @param view     la vista a precargar.
+     * @param executor el ejecutor en el que se lee el FXML.
+     * @return una tarea que se completa cuando la vista se ha guardado, o con error si no se ha podido leer.
+     */
+    static CompletableFuture<Void> preload(View view, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return read(view);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }, executor)
+                .thenAcceptAsync(loaded -> VIEWS.putIfAbsent(view, loaded), Platform::runLater);
+    }
+
+    /**
+     * Muestra una vista en la escena del nodo que ha producido un evento.
+     *
+     * @param event el evento, por ejemplo el clic de un botón.
+     * @param view  la vista a mostrar.
+     * @throws IOException si no se puede cargar el FXML de la vista.
+     */
+    static void show(ActionEvent event, View view) throws IOException {
+        show(((Node) event.getSource()).getScene(), view);
+    }
+
+    /**
+     * Muestra una vista en una escena. Si la vista ya estaba cargada se reutiliza; en cualquier caso se
+     * actualizan sus datos.
+     *
+     * @param scene la escena.
+     * @param view  la vista a mostrar.
+     * @throws IOException si no se puede cargar el FXML de la vista.
+     */
+    static void show(Scene scene, View view) throws IOException {
+        LoadedView loaded = VIEWS.get(view);
+        if (loaded == null) loaded = load(view);
+        if (scene.getRoot() != loaded.root()) scene.setRoot(loaded.root());
+        if (loaded.controller() instanceof Refreshable refreshable) refreshable.refresh();
+    }
+
+    /**
+     * Carga una vista desde su FXML y la guarda para las siguientes veces.
+     *
+     * @param view la vista.
+     * @return la vista cargada.
+     * @throws IOException si no se puede cargar el FXML.
+     */
+    private static LoadedView load(View view) throws IOException {
+        LoadedView loaded = read(view);
+        VIEWS.put(view, loaded);
+        return loaded;
+    }
+
+    /**
+     * Lee una vista desde su FXML, sin guardarla.
+     *
+     * @param view la vista.
+     * @return la vista leída.
+     * @throws IOException si no se puede cargar el FXML.
+     */
+    private static LoadedView read(View view) throws IOException {
+        long start = view.loadTimer.start();
+        try {
+            FXMLLoader loader = new FXMLLoader(Objects.requireNonNull(ViewNavigator.class.getResource(view.fxml)));
+            Parent root = loader.load();
+            return new LoadedView(root, loader.getController());
+        } finally {
+            view.loadTimer.stop(start);
+        }
+    }
+}
@@ -0,0 +1,460 @@
+package org.marcosjfx.marcosfx.backend;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Copia binaria del catálogo de jugadores, guardada junto al CSV (players.csv.bin), que permite
+ * cargar el catálogo sin analizar el texto del CSV.
+ * <p>
+ * El archivo empieza con una cabecera de {@value #HEADER_BYTES} bytes: número mágico, versión del
+ * formato, tamaño y fecha de modificación del CSV del que se generó, número de filas y CRC32 del resto
+ * del archivo. Después van los textos, los diccionarios y las columnas en el orden en el que los escribe
+ * {@link PlayerStore}: las columnas numéricas como arrays de enteros de ancho fijo y las de texto como
+ * una tabla de posiciones, un bit por fila que indica si el texto es {@code null} y todos los bytes UTF-8.
+ * Al final van los códigos originales de las posiciones desconocidas, solo de las filas que los tienen.
+ * <p>
+ * La copia solo se usa si coincide con el CSV actual; si el CSV ha cambiado por fuera de la aplicación
+ * o la copia está dañada, se vuelve a leer el CSV y se genera una copia nueva. El archivo se proyecta
+ * en memoria y las columnas se copian en bloque, sin analizar fila a fila.
+ */
+class CatalogSnapshot implements Closeable {
+
+    /**
+     * Número mágico del archivo ("MFXS").
+     */
+    private static final int MAGIC = 0x4D465853;
+
+    /**
+     * Versión del formato; si cambia, las copias antiguas se descartan y se regeneran.
+     */
+    private static final int VERSION = 5;
+
+    /**
+     * Tamaño de la cabecera del archivo.
+     */
+    static final int HEADER_BYTES = 32;
+
+    /**
+     * Enteros de 4 bytes en orden big-endian, sin exigir alineación.
+     */
+    private static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+
+    /**
+     * Enteros de 8 bytes en orden big-endian, sin exigir alineación.
+     */
+    private static final ValueLayout.OfLong LONG = ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+
+    /**
+     * Zona de memoria que mantiene proyectado el archivo; al cerrarla se libera la proyección.
+     */
+    private final Arena arena;
+
+    /**
+     * Contenido completo del archivo proyectado en memoria.
+     */
+    private final MemorySegment data;
+
+    /**
+     * Número de filas del catálogo.
+     */
+    private final int rowCount;
+
+    /**
+     * Posición del siguiente dato a leer.
+     */
+    private long position = HEADER_BYTES;
+
+    /**
+     * Crea el lector de una copia ya validada.
+     *
+     * @param arena    la zona de memoria de la proyección.
+     * @param data     el contenido del archivo.
+     * @param rowCount el número de filas.
+     */
+    private CatalogSnapshot(Arena arena, MemorySegment data, int rowCount) {
+        this.arena = arena;
+        this.data = data;
+        this.rowCount = rowCount;
+    }
+
+    /**
+     * Obtiene la ruta de la copia binaria de un CSV.
+     *
+     * @param csvPath ruta al archivo CSV.
+     * @return la ruta de la copia binaria.
+     */
+    static Path pathFor(Path csvPath) {
+        return csvPath.resolveSibling(csvPath.getFileName() + ".bin");
+    }
+
+    /**
+     * Abre la copia binaria de un CSV si existe, está completa y corresponde al CSV actual.
+     *
+     * @param csvPath ruta al archivo CSV.
+     * @return el lector de la copia, o {@code null} si no hay una copia válida.
+     * @throws IOException si no se puede leer el archivo.
+     */
+    static CatalogSnapshot openIfCurrent(Path csvPath) throws IOException {
+        Path path = pathFor(csvPath);
+        if (!Files.exists(path)) return null;
+
+        Arena arena = Arena.ofConfined();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MemorySegment data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena);
+            if (data.byteSize() < HEADER_BYTES
+                    || data.get(INT, 0) != MAGIC
+                    || data.get(INT, 4) != VERSION
+                    || data.get(LONG, 8) != Files.size(csvPath)
+                    || data.get(LONG, 16) != Files.getLastModifiedTime(csvPath).toMillis()) {
+                arena.close();
+                return null;
+            }
+
+            CRC32 crc = new CRC32();
+            crc.update(data.asSlice(HEADER_BYTES).asByteBuffer());
+            if ((int) crc.getValue() != data.get(INT, 28)) {
+                System.out.printf("Error en la copia binaria del catálogo: %s está dañada\n", path);
+                Metrics.error("catalog");
+                arena.close();
+                return null;
+            }
+            return new CatalogSnapshot(arena, data, data.get(INT, 24));
+        } catch (IOException | RuntimeException e) {
+            arena.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Obtiene el número de filas del catálogo.
+     *
+     * @return el número de filas.
+     */
+    int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Lee un texto.
+     *
+     * @return el texto leído.
+     */
+    String readString() {
+        int length = data.get(INT, position);
+        String value = new String(data.asSlice(position + 4, length).toArray(ValueLayout.JAVA_BYTE),
+                StandardCharsets.UTF_8);
+        position += 4 + length;
+        return value;
+    }
+
+    /**
+     * Lee los valores de un diccionario y los añade, en el mismo orden, al diccionario indicado,
+     * de forma que cada valor conserva su código.
+     *
+     * @param dictionary el diccionario vacío que se va a rellenar.
+     */
+    void readDictionary(StringDictionary dictionary) {
+        int count = data.get(INT, position);
+        position += 4;
+        for (int code = 0; code < count; code++) {
+            dictionary.encode(readString());
+        }
+    }
+
+    /**
+     * Lee una columna de enteros con una fila por jugador.
+     *
+     * @return la columna leída.
+     */
+    int[] readIntColumn() {
+        return readInts(rowCount);
+    }
+
+    /**
+     * Lee una columna de textos con una fila por jugador, con {@code null} en las filas que se escribieron
+     * así; un texto vacío se lee vacío.
+     *
+     * @return la columna leída.
+     */
+    String[] readStringColumn() {
+        int[] offsets = readInts(rowCount + 1);
+        int[] nulls = readInts((rowCount + 31) >>> 5);
+        byte[] bytes = data.asSlice(position, offsets[rowCount]).toArray(ValueLayout.JAVA_BYTE);
+        position += offsets[rowCount];
+
+        String[] column = new String[rowCount];
+        for (int row = 0; row < rowCount; row++) {
+            if ((nulls[row >>> 5] & (1 << row)) == 0) {
+                column[row] = new String(bytes, offsets[row], offsets[row + 1] - offsets[row], StandardCharsets.UTF_8);
+            }
+        }
+        return column;
+    }
+
+    /**
+     * Lee los textos de algunas filas, como los escribe {@link Writer#writeRowStrings(Map)}.
+     *
+     * @return los textos, indexados por su fila.
+     */
+    Map<Integer, String> readRowStrings() {
+        int count = data.get(INT, position);
+        position += 4;
+        Map<Integer, String> values = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            int row = data.get(INT, position);
+            position += 4;
+            values.put(row, readString());
+        }
+        return values;
+    }
+
+    /**
+     * Libera la proyección del archivo.
+     */
+    @Override
+    public void close() {
+        arena.close();
+    }
+
+    /**
+     * Copia en bloque un número de enteros a partir de la posición actual.
+     *
+     * @param count el número de enteros.
+     * @return los enteros leídos.
+     */
+    private int[] readInts(int count) {
+        int[] values = new int[count];
+        MemorySegment.copy(data, INT, position, values, 0, count);
+        position += (long) count * 4;
+        return values;
+    }
+
+    /**
+     * Escritor de la copia binaria. Escribe en un archivo temporal y solo sustituye a la copia anterior
+     * al llamar a {@link #commit()}, así que nunca queda una copia a medias con el nombre definitivo.
+     */
+    static class Writer implements Closeable {
+
+        /**
+         * Ruta al archivo CSV del que se genera la copia.
+         */
+        private final Path csvPath;
+
+        /**
+         * Archivo temporal donde se escribe la copia.
+         */
+        private final Path temp;
+
+        /**
+         * Canal del archivo temporal.
+         */
+        private final FileChannel channel;
+
+        /**
+         * Buffer de escritura.
+         */
+        private final ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+
+        /**
+         * CRC32 de todo lo escrito después de la cabecera.
+         */
+        private final CRC32 crc = new CRC32();
+
+        /**
+         * Número de filas del catálogo.
+         */
+        private final int rowCount;
+
+        /**
+         * Crea el escritor de la copia de un CSV.
+         *
+         * @param csvPath  ruta al archivo CSV.
+         * @param rowCount número de filas del catálogo.
+         * @throws IOException si no se puede crear el archivo temporal.
+         */
+        Writer(Path csvPath, int rowCount) throws IOException {
+            this.csvPath = csvPath;
+            this.rowCount = rowCount;
+            Path path = pathFor(csvPath).toAbsolutePath();
+            this.temp = Files.createTempFile(path.getParent(), path.getFileName().toString(), ".tmp");
+            this.channel = FileChannel.open(temp, StandardOpenOption.WRITE);
+            channel.position(HEADER_BYTES);
+        }
+
+        /**
+         * Escribe un texto.
+         *
+         * @param value el texto.
+         * @throws IOException si no se puede escribir.
+         */
+        void writeString(String value) throws IOException {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeInt(bytes.length);
+            writeBytes(bytes);
+        }
+
+        /**
+         * Escribe todos los valores de un diccionario en el orden de sus códigos.
+         *
+         * @param dictionary el diccionario.
+         * @throws IOException si no se puede escribir.
+         */
+        void writeDictionary(StringDictionary dictionary) throws IOException {
+            byte[][] values = dictionary.encodedValues();
+            writeInt(values.length);
+            for (byte[] value : values) {
+                writeInt(value.length);
+                writeBytes(value);
+            }
+        }
+
+        /**
+         * Escribe una columna de enteros con una fila por jugador.
+         *
+         * @param column la columna.
+         * @throws IOException si no se puede escribir.
+         */
+        void writeIntColumn(int[] column) throws IOException {
+            for (int row = 0; row < rowCount; row++) {
+                writeInt(column[row]);
+            }
+        }
+
+        /**
+         * Escribe una columna de textos con una fila por jugador: primero la posición en la que empieza
+         * cada texto, después un bit por fila a 1 en las filas con {@code null} y por último los bytes de
+         * todos los textos seguidos. Los {@code null} no ocupan bytes, así que se distinguen de los textos
+         * vacíos solo por su bit.
+         *
+         * @param column la columna.
+         * @throws IOException si no se puede escribir.
+         */
+        void writeStringColumn(String[] column) throws IOException {
+            byte[][] values = new byte[rowCount][];
+            int[] nulls = new int[(rowCount + 31) >>> 5];
+            int offset = 0;
+            writeInt(offset);
+            for (int row = 0; row < rowCount; row++) {
+                if (column[row] == null) {
+                    values[row] = new byte[0];
+                    nulls[row >>> 5] |= 1 << row;
+                } else {
+                    values[row] = column[row].getBytes(StandardCharsets.UTF_8);
+                }
+                offset += values[row].length;
+                writeInt(offset);
+            }
+            for (int word : nulls) {
+                writeInt(word);
+            }
+            for (byte[] value : values) {
+                writeBytes(value);
+            }
+        }
+
+        /**
+         * Escribe los textos de algunas filas: el número de filas y después cada fila seguida de su texto.
+         *
+         * @param values los textos, indexados por su fila.
+         * @throws IOException si no se puede escribir.
+         */
+        void writeRowStrings(Map<Integer, String> values) throws IOException {
+            writeInt(values.size());
+            for (Map.Entry<Integer, String> entry : values.entrySet()) {
+                writeInt(entry.getKey());
+                writeString(entry.getValue());
+            }
+        }
+
+        /**
+         * Completa la cabecera con los datos del CSV actual, fuerza la copia al disco y la mueve
+         * sobre la copia anterior. Debe llamarse después de terminar de escribir el CSV.
+         *
+         * @throws IOException si no se puede escribir o mover el archivo.
+         */
+        void commit() throws IOException {
+            drain();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAGIC);
+            header.putInt(VERSION);
+            header.putLong(Files.size(csvPath));
+            header.putLong(Files.getLastModifiedTime(csvPath).toMillis());
+            header.putInt(rowCount);
+            header.putInt((int) crc.getValue());
+            header.flip();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            channel.force(true);
+            channel.close();
+            Files.move(temp, pathFor(csvPath), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        /**
+         * Cierra el archivo temporal y lo borra si la copia no se ha llegado a confirmar.
+         *
+         * @throws IOException si no se puede cerrar o borrar el archivo.
+         */
+        @Override
+        public void close() throws IOException {
+            channel.close();
+            Files.deleteIfExists(temp);
+        }
+
+        /**
+         * Escribe un entero en el buffer.
+         *
+         * @param value el entero.
+         * @throws IOException si no se puede vaciar el buffer.
+         */
+        private void writeInt(int value) throws IOException {
+            if (buffer.remaining() < 4) drain();
+            buffer.putInt(value);
+        }
+
+        /**
+         * Escribe bytes en el buffer, vaciándolo tantas veces como haga falta.
+         *
+         * @param bytes los bytes.
+         * @throws IOException si no se puede vaciar el buffer.
+         */
+        private void writeBytes(byte[] bytes) throws IOException {
+            int offset = 0;
+            while (offset < bytes.length) {
+                if (!buffer.hasRemaining()) drain();
+                int length = Math.min(buffer.remaining(), bytes.length - offset);
+                buffer.put(bytes, offset, length);
+                offset += length;
+            }
+        }
+
+        /**
+         * Escribe en el archivo el contenido del buffer y lo añade al CRC32.
+         *
+         * @throws IOException si no se puede escribir.
+         */
+        private void drain() throws IOException {
+            buffer.flip();
+            crc.update(buffer.duplicate());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package org.marcosjfx.marcosfx.backend;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Lector de archivos CSV que trabaja directamente sobre el archivo mapeado en memoria.
+ * <p>
+ * El archivo se mapea con {@link FileChannel#map(FileChannel.MapMode, long, long, Arena)} y las filas
+ * se recorren byte a byte, guardando únicamente dónde empieza y termina cada campo. Los enteros se leen sin crear cadenas intermedias
+ * y solo se crea un {@link String} para los campos que se piden con {@link #getString(int)}.
+ * No admite campos entre comillas, igual que el formato de players.csv.
+ * <p>
+ * El mapeo se libera al cerrar el lector, de forma que el archivo se puede reescribir justo después
+ * (en Windows no se puede escribir un archivo mientras está mapeado). Uso típico:
+ * <pre>{@code
+ * try (CsvParser parser = CsvParser.open(path)) {
+ *     while (parser.nextRow()) {
+ *         int id = parser.getInt(0);
+ *     }
+ * }
+ * }</pre>
+ */
+public class CsvParser implements AutoCloseable {
+
+    /**
+     * Número máximo de campos por fila que se esperan inicialmente; crece si hace falta.
+     */
+    private static final int INITIAL_FIELDS = 16;
+
+    /**
+     * Zona de memoria que controla la vida del mapeo.
+     */
+    private final Arena arena;
+
+    /**
+     * Contenido del archivo mapeado en memoria.
+     */
+    private final MemorySegment buffer;
+
+    /**
+     * Tamaño del archivo en bytes.
+     */
+    private final long limit;
+
+    /**
+     * Posición donde empieza la siguiente fila.
+     */
+    private long position;
+
+    /**
+     * Posición de inicio de cada campo de la fila actual.
+     */
+    private long[] starts = new long[INITIAL_FIELDS];
+
+    /**
+     * Posición final (exclusiva) de cada campo de la fila actual.
+     */
+    private long[] ends = new long[INITIAL_FIELDS];
+
+    /**
+     * Número de campos de la fila actual.
+     */
+    private int fieldCount;
+
+    /**
+     * Buffer auxiliar para copiar los bytes de un campo antes de convertirlo en texto.
+     */
+    private byte[] scratch = new byte[64];
+
+    /**
+     * Crea un lector sobre un archivo ya mapeado.
+     *
+     * @param arena  la zona de memoria del mapeo.
+     * @param buffer el contenido del archivo.
+     */
+    private CsvParser(Arena arena, MemorySegment buffer) {
+        this.arena = arena;
+        this.buffer = buffer;
+        this.limit = buffer.byteSize();
+    }
+
+    /**
+     * Mapea en memoria el archivo indicado y crea un lector situado antes de la primera fila.
+     *
+     * @param path ruta al archivo CSV.
+     * @return el lector del archivo, que se debe cerrar al terminar.
+     * @throws IOException si no se puede abrir o mapear el archivo.
+     */
+    public static CsvParser open(Path path) throws IOException {
+        Arena arena = Arena.ofConfined();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new CsvParser(arena, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena));
+        } catch (IOException | RuntimeException e) {
+            arena.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Lee un byte del archivo.
+     *
+     * @param offset la posición del byte.
+     * @return el byte leído.
+     */
+    private byte byteAt(long offset) {
+        return buffer.get(ValueLayout.JAVA_BYTE, offset);
+    }
+
+    /**
+     * Cuenta las filas no vacías desde la posición actual hasta el final del archivo,
+     * sin mover el lector.
+     *
+     * @return el número de filas restantes.
+     */
+    public int countRemainingRows() {
+        int rows = 0;
+        boolean content = false;
+        for (long i = position; i < limit; i++) {
+            byte b = byteAt(i);
+            if (b == '\n') {
+                if (content) rows++;
+                content = false;
+            } else if (b != '\r') {
+                content = true;
+            }
+        }
+        return content ? rows + 1 : rows;
+    }
+
+    /**
+     * Avanza a la siguiente fila no vacía y calcula los límites de sus campos.
+     *
+     * @return {@code true} si hay una nueva fila, {@code false} si se ha llegado al final.
+     */
+    public boolean nextRow() {
+        while (position < limit) {
+            long lineStart = position;
+            long lineEnd = lineStart;
+            while (lineEnd < limit && byteAt(lineEnd) != '\n') lineEnd++;
+            position = lineEnd + 1;
+            if (lineEnd > lineStart && byteAt(lineEnd - 1) == '\r') lineEnd--;
+            if (lineEnd == lineStart) continue;
+
+            fieldCount = 0;
+            long fieldStart = lineStart;
+            for (long i = lineStart; i <= lineEnd; i++) {
+                if (i == lineEnd || byteAt(i) == ',') {
+                    addField(fieldStart, i);
+                    fieldStart = i + 1;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Registra los límites de un campo de la fila actual.
+     *
+     * @param start posición de inicio.
+     * @param end   posición final (exclusiva).
+     */
+    private void addField(long start, long end) {
+        if (fieldCount == starts.length) {
+            starts = Arrays.copyOf(starts, fieldCount * 2);
+            ends = Arrays.copyOf(ends, fieldCount * 2);
+        }
+        starts[fieldCount] = start;
+        ends[fieldCount] = end;
+        fieldCount++;
+    }
+
+    /**
+     * Obtiene el número de campos de la fila actual.
+     *
+     * @return el número de campos.
+     */
+    public int getFieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * Lee un campo de la fila actual como entero, directamente desde los bytes del archivo.
+     *
+     * @param field el índice del campo.
+     * @return el valor entero del campo.
+     * @throws NumberFormatException si el campo no es un entero válido.
+     */
+    public int getInt(int field) {
+        checkField(field);
+        long i = starts[field];
+        long end = ends[field];
+        while (i < end && byteAt(i) == ' ') i++;
+        while (end > i && byteAt(end - 1) == ' ') end--;
+        if (i == end) throw new NumberFormatException("Campo vacío en la columna " + field);
+
+        boolean negative = byteAt(i) == '-';
+        if (negative || byteAt(i) == '+') i++;
+        if (i == end) throw new NumberFormatException("Campo sin dígitos en la columna " + field);
+
+        long value = 0;
+        for (; i < end; i++) {
+            int digit = byteAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException("Carácter no numérico en la columna " + field);
+            }
+            value = value * 10 + digit;
+            if (value > (long) Integer.MAX_VALUE + 1) {
+                throw new NumberFormatException("Número demasiado grande en la columna " + field);
+            }
+        }
+        value = negative ? -value : value;
+        if (value > Integer.MAX_VALUE) {
+            throw new NumberFormatException("Número demasiado grande en la columna " + field);
+        }
+        return (int) value;
+    }
+
+    /**
+     * Lee un campo de la fila actual como texto UTF-8, sin espacios al principio ni al final.
+     *
+     * @param field el índice del campo.
+     * @return el contenido del campo.
+     */
+    public String getString(int field) {
+        checkField(field);
+        long start = starts[field];
+        long end = ends[field];
+        while (start < end && byteAt(start) == ' ') start++;
+        while (end > start && byteAt(end - 1) == ' ') end--;
+        return decode(start, end);
+    }
+
+    /**
+     * Obtiene la fila actual completa como texto, tal y como aparece en el archivo.
+     *
+     * @return la fila actual.
+     */
+    public String getRow() {
+        return fieldCount == 0 ? "" : decode(starts[0], ends[fieldCount - 1]);
+    }
+
+    /**
+     * Convierte un rango de bytes del archivo en texto UTF-8.
+     *
+     * @param start posición de inicio.
+     * @param end   posición final (exclusiva).
+     * @return el texto del rango.
+     */
+    private String decode(long start, long end) {
+        int length = (int) (end - start);
+        if (scratch.length < length) scratch = new byte[Math.max(length, scratch.length * 2)];
+        MemorySegment.copy(buffer, ValueLayout.JAVA_BYTE, start, scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Comprueba que el índice de campo exista en la fila actual.
+     *
+     * @param field el índice del campo.
+     */
+    private void checkField(int field) {
+        if (field < 0 || field >= fieldCount) {
+            throw new IndexOutOfBoundsException("La fila solo tiene " + fieldCount + " campos: " + field);
+        }
+    }
+
+    /**
+     * Libera el mapeo del archivo. El lector no se puede usar después de cerrarlo.
+     */
+    @Override
+    public void close() {
+        arena.close();
+    }
+}
@@ -2,13 +2,11 @@ package org.marcosjfx.marcosfx.backend;
 
 import java.io.IOException;
 import java.nio.file.Path;
-import java.util.HashMap;
-import java.nio.file.Files;
-import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
-
-import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.Set;
+import java.nio.file.Paths;
 
 /**
  * La clase {@code DataBase} gestiona datos relacionados con jugadores y equipos de fútbol
@@ -17,15 +15,30 @@ import com.fasterxml.jackson.databind.ObjectMapper;
  */
 public class DataBase {
 
+    /**
+     * Simulador de jornadas compartido, para que cada jornada continúe la secuencia aleatoria de la anterior.
+     */
+    private static final StatSimulator SIMULATOR = new StatSimulator();
+
+    /**
+     * Tiempo de {@link #getInformation()}.
+     */
+    private static final Metrics.Timer INFORMATION_TIMER = Metrics.timer("database.getInformation");
+
+    /**
+     * Tiempo de la simulación y el guardado de una jornada.
+     */
+    private static final Metrics.Timer UPDATE_STATS_TIMER = Metrics.timer("database.updatePlayerStats");
+
     /**
      * Ruta al archivo CSV donde se almacena la información de los jugadores.
      */
-    private final Path csvPath = Paths.get("src/main/resources/database/players.csv");
+    private final Path csvPath;
 
     /**
      * Ruta al archivo JSON donde se almacena la información del equipo.
      */
-    private final Path jsonPath = Paths.get("src/main/resources/database/team.json");
+    private final Path jsonPath;
 
     /**
      * Constructor de la clase {@code DataBase}.
@@ -33,6 +46,19 @@ public class DataBase {
      * la información de jugadores y equipos.
      */
     public DataBase() {
+        this(Paths.get("src/main/resources/database/players.csv"), Paths.get("src/main/resources/database/team.json"));
+    }
+
+    /**
+     * Constructor de la clase {@code DataBase} que trabaja con otros archivos de jugadores y equipo,
+     * por ejemplo los datos sintéticos de las pruebas de rendimiento.
+     *
+     * @param csvPath  ruta al archivo CSV de jugadores.
+     * @param jsonPath ruta al archivo JSON del equipo.
+     */
+    public DataBase(Path csvPath, Path jsonPath) {
+        this.csvPath = csvPath;
+        this.jsonPath = jsonPath;
     }
 
     /**
@@ -42,142 +68,159 @@ public class DataBase {
      * cierres la aplicación
      * @return un mapa que asocia los ids de los jugadores con objetos {@link Player}.
      */
-    public HashMap<Integer, Player> getInformation() {
+    public PlayerMap getInformation() {
+        long start = INFORMATION_TIMER.start();
+        try {
+            PlayerStore store = getPlayerStore();
+            if (store == null) return new PlayerMap();
 
-        updatePlayerStats();
+            PlayerMap players = new PlayerMap(store.size());
 
-        HashMap<Integer, Player> players = new HashMap<>();
+            for (int row = 0; row < store.size(); row++) {
+                players.put(store.getId(row), store.getPlayer(row));
+            }
 
-        try {
+            return players;
+        } finally {
+            INFORMATION_TIMER.stop(start);
+        }
+    }
 
-            boolean header = true;
-            List<String> lines = Files.readAllLines(csvPath);
-            for (String line : lines) {
-
-                if (header) {
-                    header = false;
-                    continue;
-                }
-
-                String[] data = line.split(",");
-                int id = Integer.parseInt(data[0]);
-                String name = data[1];
-                int rating = Integer.parseInt(data[2]);
-                int marketValue = Integer.parseInt(data[3]);
-                int age = Integer.parseInt(data[4]);
-                int teamID = Integer.parseInt(data[5]);
-                String clubName = data[6];
-                String position = data[7];
-                int goals = Integer.parseInt(data[8]);
-                int assists = Integer.parseInt(data[9]);
-                int saves = Integer.parseInt(data[10]);
-                String playerImageURL = data[11];
-                String clubImageURL = data[12];
-
-                players.put(id, new Player(id, name, rating, marketValue, age, teamID, goals, assists, saves, clubName, position, playerImageURL, clubImageURL));
+    /**
+     * Recupera el almacén columnar de jugadores y actualiza sus estadísticas, igual que
+     * {@link #getInformation()}, pero sin crear un objeto {@link Player} por cada jugador.
+     * El archivo CSV solo se lee la primera vez; las siguientes llamadas reutilizan los datos en memoria.
+     *
+     * @return el almacén de jugadores, o {@code null} si no se ha podido leer el archivo.
+     */
+    public PlayerStore getPlayerStore() {
+        PlayerStore store = loadPlayerStore();
+        if (store != null) updatePlayerStats(store);
+        return store;
+    }
 
-            }
+    /**
+     * Recupera el almacén columnar de jugadores sin actualizar sus estadísticas. Sirve para cargar el
+     * catálogo por adelantado: el archivo CSV solo se lee la primera vez y las llamadas siguientes a
+     * {@link #getPlayerStore()} reutilizan los datos en memoria.
+     *
+     * @return el almacén de jugadores, o {@code null} si no se ha podido leer el archivo.
+     */
+    public PlayerStore loadPlayerStore() {
+        try {
+            return PlayerStore.open(csvPath);
         } catch (IOException e) {
             System.out.printf("Error sacando la información %s\n", e.getMessage());
+            Metrics.error("database");
+            return null;
         }
-
-        return players;
     }
 
 
     /**
-     * Actualizo las estadísticas de los jugadores en el archivo CSV aplicando cambios aleatorios
-     * al valor de mercado, goles, asistencias o atajadas, dependiendo de la posición del jugador.
+     * Obtiene la suma de los valores de mercado de los jugadores de cada club, sin actualizar
+     * las estadísticas. Las sumas se mantienen en memoria, así que solo se lee el archivo CSV
+     * si todavía no se había cargado.
+     *
+     * @return los nombres y las sumas de cada club, indexados por el código del club; sin clubes si
+     * ocurre un error.
      */
-    private void updatePlayerStats() {
+    public PlayerStore.ClubMarketValues getMarketValueByClub() {
         try {
-            List<String> lines = Files.readAllLines(csvPath);
-
-            for (int i = 0; i < lines.size(); i++) {
-                String line = lines.get(i);
-                if (i == 0) continue;
-
-                String[] data = line.split(",");
-
-                int marketValue = Integer.parseInt(data[3]);
-                int goals = Integer.parseInt(data[8]);
-                int assists = Integer.parseInt(data[9]);
-                int saves = Integer.parseInt(data[10]);
-                String position = data[7];
-
-                int randomNumber = generateRandom();
-
-                if(randomNumber == 0) data[3] = String.valueOf(marketValue -5000);
-                else data[3] = String.valueOf(marketValue + 5000);
+            return PlayerStore.open(csvPath).getMarketValueByClub();
+        } catch (IOException e) {
+            System.out.printf("Error sacando los valores de los clubes %s\n", e.getMessage());
+            Metrics.error("database");
+            return new PlayerStore.ClubMarketValues(new String[0], new long[0]);
+        }
+    }
 
-                if(position.equals("GK"))
-                {
-                    data[10] = String.valueOf(saves + randomNumber*2);
-                }
-                else
-                {
-                    data[8] = String.valueOf(goals + randomNumber);
-                    data[9] = String.valueOf(assists + randomNumber * generateRandom());
-                }
 
-                lines.set(i, String.join(",", data));
+    /**
+     * Obtiene los mejores jugadores de una clasificación, sin actualizar las estadísticas. Las
+     * clasificaciones se mantienen en memoria y se actualizan a partir de las anteriores después de cada
+     * jornada, así que no se ordena el catálogo entero.
+     *
+     * @param ranking el criterio de la clasificación.
+     * @return los mejores jugadores, de mejor a peor, o una lista vacía si ocurre un error.
+     */
+    public List<Player> getTopPlayers(PlayerRankings.Ranking ranking) {
+        try {
+            PlayerStore store = PlayerStore.open(csvPath);
+            List<Player> players = new ArrayList<>();
+            for (int row : store.topRows(ranking)) {
+                players.add(store.getPlayer(row));
             }
+            return players;
+        } catch (IOException e) {
+            System.out.printf("Error sacando la clasificación %s\n", e.getMessage());
+            Metrics.error("database");
+            return new ArrayList<>();
+        }
+    }
 
-            Files.write(csvPath, lines);
 
-        } catch (IOException e) {
-            System.out.printf("Error updating player stats: %s\n", e.getMessage());
+    /**
+     * Busca la alineación con mayor puntuación que se puede comprar con el presupuesto de compra actual,
+     * sin actualizar las estadísticas.
+     *
+     * @param formation el número de jugadores de cada línea.
+     * @param objective el criterio que se maximiza.
+     * @return los jugadores de la alineación, ordenados por línea, o una lista vacía si ninguna alineación
+     * cabe en el presupuesto o si ocurre un error, también si la búsqueda necesita demasiada memoria.
+     */
+    public List<Player> getOptimalSquad(Formation formation, SquadOptimizer.Objective objective) {
+        try {
+            PlayerStore store = PlayerStore.open(csvPath);
+            SquadOptimizer.Squad squad = SquadOptimizer.optimize(store, formation, objective, getPurchaseBudget());
+            List<Player> players = new ArrayList<>();
+            if (squad == null) return players;
+            for (int row : squad.rows()) {
+                players.add(store.getPlayer(row));
+            }
+            return players;
+        } catch (IOException | IllegalStateException e) {
+            System.out.printf("Error buscando la mejor alineación %s\n", e.getMessage());
+            Metrics.error("database");
+            return new ArrayList<>();
         }
     }
 
+
     /**
-     * Genera un número aleatorio entre 0 y 3 con probabilidades definidas:
-     * 0 (40%), 1 (30%), 2 (20%) y 3 (10%).
+     * Actualizo las estadísticas de los jugadores simulando una jornada con {@link StatSimulator}
+     * y guardo las de los jugadores modificados en el archivo de estadísticas, sin reescribir el CSV.
      *
-     * @return un entero aleatorio entre 0 y 3.
+     * @param store el almacén de jugadores que se va a actualizar.
      */
-    private int generateRandom() {
-        double random = Math.random();
-        if (random < 0.4) return 0;
-        else if (random < 0.7) return 1;
-        else if (random < 0.9) return 2;
-        else return 3;
+    private void updatePlayerStats(PlayerStore store) {
+        long start = UPDATE_STATS_TIMER.start();
+        SIMULATOR.simulate(store);
+
+        try {
+            store.saveStats(csvPath);
+        } catch (IOException e) {
+            System.out.printf("Error updating player stats: %s\n", e.getMessage());
+            Metrics.error("database");
+        } finally {
+            UPDATE_STATS_TIMER.stop(start);
+        }
     }
 
 
     /**
      * Añade un jugador al equipo almacenado en un archivo JSON si el presupuesto lo permite.
+     * La operación se guarda en el diario de operaciones del equipo y se aplica en memoria.
      *
      * @param player el jugador que se desea añadir.
      * @return 1 si el jugador fue añadido exitosamente, 0 si el presupuesto es insuficiente, o -1 si ocurre un error.
      */
     public int addPlayerToTeam(Player player) {
         try {
-            ObjectMapper objectMapper = new ObjectMapper();
-            Map<String, Object> teamData = objectMapper.readValue(Files.readString(jsonPath), Map.class);
-            List<Map<String, Object>> team = (List<Map<String, Object>>) teamData.get("team");
-
-            int budget = (int) teamData.get("budget");
-            budget -= player.getMarketValue();
-
-            if (budget < 0) return 0;
-
-            teamData.put("budget", budget);
-
-            Map<String, Object> newPlayer = new HashMap<>();
-            newPlayer.put("ID", player.getId());
-            newPlayer.put("Name", player.getName());
-            newPlayer.put("ClubName", player.getClubName());
-            newPlayer.put("Position", player.getPosition());
-            newPlayer.put("PlayerImageURL", player.getPlayerImageURL());
-            newPlayer.put("ClubImageURL", player.getClubImageURL());
-
-            team.add(newPlayer);
-            objectMapper.writeValue(jsonPath.toFile(), teamData);
-            return 1;
-
+            return TeamRepository.open(jsonPath).addPlayer(player) ? 1 : 0;
         } catch (IOException e) {
             System.out.printf("Error al añadir el jugador a el equipo: %s\n", e.getMessage());
+            Metrics.error("database");
             return -1;
         }
     }
@@ -190,48 +233,46 @@ public class DataBase {
      */
     public boolean isPlayerInTeam(Player player) {
         try {
-
-            ObjectMapper objectMapper = new ObjectMapper();
-            Map<String, Object> teamData = objectMapper.readValue(Files.readString(jsonPath), Map.class);
-            List<Map<String, Object>> team = (List<Map<String, Object>>) teamData.get("team");
-
-            return team.stream().anyMatch(p -> (int) p.get("ID") == player.getId());
+            return TeamRepository.open(jsonPath).contains(player.getId());
         } catch (IOException e) {
             System.out.printf("Error comprobando si el jugador está en el equipo: %s\n", e.getMessage());
+            Metrics.error("database");
             return false;
         }
     }
 
 
+    /**
+     * Obtiene de una sola vez los ids de todos los jugadores del equipo. Sirve para comprobar
+     * la pertenencia de muchos jugadores (por ejemplo, todas las tarjetas del mercado) con una
+     * única consulta en lugar de llamar a {@link #isPlayerInTeam(Player)} para cada uno.
+     *
+     * @return un conjunto con los ids de los jugadores del equipo, vacío si ocurre un error.
+     */
+    public Set<Integer> getTeamPlayerIds() {
+        try {
+            return TeamRepository.open(jsonPath).getPlayerIds();
+        } catch (IOException e) {
+            System.out.printf("Error recogiendo los jugadores del team.json: %s\n", e.getMessage());
+            Metrics.error("database");
+            return new HashSet<>();
+        }
+    }
+
+
     /**
      * Recupera la información del equipo desde un archivo JSON y la convierte en un mapa.
      *
      * @return un mapa que asocia los ids de los jugadores del equipo con objetos {@link Player}.
      */
-    public HashMap<Integer, Player> getTeam() {
-        HashMap<Integer, Player> team = new HashMap<>();
-
+    public PlayerMap getTeam() {
         try {
-            ObjectMapper objectMapper = new ObjectMapper();
-            Map<String, Object> teamData = objectMapper.readValue(Files.readString(jsonPath), Map.class);
-            List<Map<String, Object>> teamList = (List<Map<String, Object>>) teamData.get("team");
-
-            for (Map<String, Object> playerData : teamList) {
-                int id = (int) playerData.get("ID");
-                String name = (String) playerData.get("Name");
-                String clubName = (String) playerData.get("ClubName");
-                String position = (String) playerData.get("Position");
-                String playerImageURL = (String) playerData.get("PlayerImageURL");
-                String clubImageURL = (String) playerData.get("ClubImageURL");
-
-                team.put(id, new Player(id,name, clubName, position, playerImageURL, clubImageURL));
-            }
-
+            return TeamRepository.open(jsonPath).getPlayers();
         } catch (IOException e) {
             System.out.printf("Error recogiendo la información del team.json: %s\n", e.getMessage());
+            Metrics.error("database");
+            return new PlayerMap();
         }
-
-        return team;
     }
 
 
@@ -242,35 +283,26 @@ public class DataBase {
      */
     public int getPurchaseBudget() {
         try {
-            ObjectMapper objectMapper = new ObjectMapper();
-            Map<String, Object> teamData = objectMapper.readValue(Files.readString(jsonPath), Map.class);
-            return (int) teamData.get("budget");
+            return TeamRepository.open(jsonPath).getBudget();
         } catch (IOException e) {
             System.out.printf("Error obteniendo el presupuesto de compra: %s\n", e.getMessage());
+            Metrics.error("database");
             return -1;
         }
     }
 
     /**
      * Elimina a un jugador del equipo en el archivo JSON y ajusta el presupuesto en consecuencia.
+     * La operación se guarda en el diario de operaciones del equipo y se aplica en memoria.
      *
      * @param player el jugador que se desea eliminar del equipo.
      */
     public void removePlayerFromTeam(Player player) {
         try {
-            ObjectMapper objectMapper = new ObjectMapper();
-            Map<String, Object> teamData = objectMapper.readValue(Files.readString(jsonPath), Map.class);
-            List<Map<String, Object>> team = (List<Map<String, Object>>) teamData.get("team");
-
-            int budget = (int) teamData.get("budget");
-            budget += player.getMarketValue();
-            teamData.put("budget", budget);
-
-            team.removeIf(p -> (int) p.get("ID") == player.getId());
-            objectMapper.writeValue(jsonPath.toFile(), teamData);
-
+            TeamRepository.open(jsonPath).removePlayer(player);
         } catch (IOException e) {
             System.out.printf("Error al quitar el jugador del equipo: %s\n", e.getMessage());
+            Metrics.error("database");
         }
     }
     
@@ -0,0 +1,81 @@
+package org.marcosjfx.marcosfx.backend;
+
+/**
+ * Número de jugadores de cada línea de una alineación.
+ *
+ * @param goalkeepers el número de porteros.
+ * @param defenders   el número de defensas.
+ * @param midfielders el número de centrocampistas.
+ * @param forwards    el número de delanteros.
+ */
+public record Formation(int goalkeepers, int defenders, int midfielders, int forwards) {
+
+    /**
+     * Comprueba que ninguna línea tenga un número negativo de jugadores.
+     *
+     * @param goalkeepers el número de porteros.
+     * @param defenders   el número de defensas.
+     * @param midfielders el número de centrocampistas.
+     * @param forwards    el número de delanteros.
+     */
+    public Formation {
+        if (goalkeepers < 0 || defenders < 0 || midfielders < 0 || forwards < 0) {
+            throw new IllegalArgumentException("Una alineación no puede tener líneas con jugadores negativos");
+        }
+    }
+
+    /**
+     * Lee una alineación escrita como defensas, centrocampistas y delanteros separados por guiones, por
+     * ejemplo "4-3-3", con un portero.
+     *
+     * @param text la alineación escrita.
+     * @return la alineación.
+     */
+    public static Formation parse(String text) {
+        String[] lines = text.trim().split("-");
+        if (lines.length != 3) {
+            throw new IllegalArgumentException("Alineación no válida: " + text);
+        }
+        try {
+            return new Formation(1, Integer.parseInt(lines[0].trim()), Integer.parseInt(lines[1].trim()),
+                    Integer.parseInt(lines[2].trim()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Alineación no válida: " + text);
+        }
+    }
+
+    /**
+     * Obtiene el número de jugadores de una línea.
+     *
+     * @param line la línea: 0 porteros, 1 defensas, 2 centrocampistas y 3 delanteros.
+     * @return el número de jugadores de la línea.
+     */
+    int slots(int line) {
+        return switch (line) {
+            case 0 -> goalkeepers;
+            case 1 -> defenders;
+            case 2 -> midfielders;
+            case 3 -> forwards;
+            default -> throw new IllegalArgumentException("Línea no válida: " + line);
+        };
+    }
+
+    /**
+     * Obtiene el número total de jugadores de la alineación.
+     *
+     * @return la suma de los jugadores de todas las líneas.
+     */
+    public int size() {
+        return goalkeepers + defenders + midfielders + forwards;
+    }
+
+    /**
+     * Escribe la alineación como defensas, centrocampistas y delanteros separados por guiones.
+     *
+     * @return la alineación escrita, por ejemplo "4-3-3".
+     */
+    @Override
+    public String toString() {
+        return defenders + "-" + midfielders + "-" + forwards;
+    }
+}
@@ -0,0 +1,33 @@
+package org.marcosjfx.marcosfx.backend;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento periódico de JFR con el valor de un indicador de {@link Metrics}. En cada periodo se guarda un
+ * evento por indicador.
+ */
+@Name("org.marcosjfx.marcosfx.Gauge")
+@Label("Indicador")
+@Category("MarcosFX")
+@Description("Valor de un indicador de la aplicación")
+@Period("10 s")
+@StackTrace(false)
+final class GaugeEvent extends jdk.jfr.Event {
+
+    /**
+     * Nombre del indicador.
+     */
+    @Label("Indicador")
+    String gauge;
+
+    /**
+     * Valor del indicador.
+     */
+    @Label("Valor")
+    double value;
+}
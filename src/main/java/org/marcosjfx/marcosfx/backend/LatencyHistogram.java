@@ -0,0 +1,143 @@
+package org.marcosjfx.marcosfx.backend;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latencias en nanosegundos con cubetas logarítmicas, al estilo de HdrHistogram.
+ * <p>
+ * Cada potencia de dos se divide en {@value #SUB_BUCKETS} cubetas del mismo ancho, así que cualquier valor
+ * se guarda con un error relativo menor del 12,5 % y el histograma ocupa siempre lo mismo, desde
+ * nanosegundos hasta horas. Registrar un valor solo incrementa un contador de su cubeta, sin bloqueos ni
+ * objetos nuevos, por lo que se puede usar desde varios hilos en los caminos más frecuentes.
+ */
+final class LatencyHistogram {
+
+    /**
+     * Bits de la subdivisión de cada potencia de dos.
+     */
+    private static final int SUB_BUCKET_BITS = 3;
+
+    /**
+     * Número de cubetas de cada potencia de dos.
+     */
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * Número total de cubetas, suficiente para cualquier {@code long} positivo.
+     */
+    private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    /**
+     * Número de valores de cada cubeta.
+     */
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    /**
+     * Número de valores registrados.
+     */
+    private final LongAdder count = new LongAdder();
+
+    /**
+     * Suma de los valores registrados.
+     */
+    private final LongAdder sum = new LongAdder();
+
+    /**
+     * Mayor valor registrado.
+     */
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Registra un valor. Los valores negativos se cuentan como 0.
+     *
+     * @param nanos la latencia en nanosegundos.
+     */
+    void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(bucket(value));
+        count.increment();
+        sum.add(value);
+        if (value > max.get()) max.accumulateAndGet(value, Math::max);
+    }
+
+    /**
+     * Obtiene el número de valores registrados.
+     *
+     * @return el número de valores.
+     */
+    long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Obtiene la media de los valores registrados.
+     *
+     * @return la media en nanosegundos, o 0 si no hay valores.
+     */
+    double getMean() {
+        long total = count.sum();
+        return total == 0 ? 0 : (double) sum.sum() / total;
+    }
+
+    /**
+     * Obtiene el mayor valor registrado.
+     *
+     * @return el máximo en nanosegundos, o 0 si no hay valores.
+     */
+    long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Obtiene un percentil de los valores registrados, redondeado al límite superior de su cubeta.
+     *
+     * @param percentile el percentil, de 0 a 100.
+     * @return el valor del percentil en nanosegundos, o 0 si no hay valores.
+     */
+    long getPercentile(double percentile) {
+        long[] snapshot = new long[BUCKETS];
+        long total = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            snapshot[bucket] = counts.get(bucket);
+            total += snapshot[bucket];
+        }
+        if (total == 0) return 0;
+
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            seen += snapshot[bucket];
+            if (seen >= rank) return Math.min(upperBound(bucket), getMax());
+        }
+        return getMax();
+    }
+
+    /**
+     * Obtiene la cubeta de un valor.
+     *
+     * @param value el valor, no negativo.
+     * @return el índice de la cubeta.
+     */
+    private static int bucket(long value) {
+        if (value < SUB_BUCKETS) return (int) value;
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * Obtiene el mayor valor que cae en una cubeta.
+     *
+     * @param bucket el índice de la cubeta.
+     * @return el límite superior de la cubeta, incluido.
+     */
+    private static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) return bucket;
+        int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long subBucket = bucket % SUB_BUCKETS;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        return ((SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS)) + width - 1;
+    }
+}
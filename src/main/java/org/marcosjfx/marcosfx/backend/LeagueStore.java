@@ -0,0 +1,159 @@
+package org.marcosjfx.marcosfx.backend;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Liga con muchos mánagers en un mismo proceso, cada uno con su propio {@link Team equipo}.
+ * <p>
+ * Todos los equipos comparten un único catálogo de jugadores ({@link PlayerStore}), del que se leen
+ * los precios y el resto de datos; cada equipo solo guarda los ids de sus jugadores y su presupuesto.
+ * Se pueden tener varias ligas a la vez creando varias instancias sobre el mismo catálogo.
+ * <p>
+ * Las operaciones de un mismo mánager se serializan sobre su equipo, y las de mánagers distintos se
+ * pueden ejecutar en paralelo desde varios hilos.
+ * <p>
+ * La liga solo vive en memoria: los equipos no se guardan en disco y se pierden al cerrar la aplicación.
+ * El equipo del usuario de la aplicación se guarda aparte con {@link TeamRepository}.
+ */
+public class LeagueStore {
+
+    /**
+     * Catálogo de jugadores compartido por todos los equipos.
+     */
+    private final PlayerStore catalog;
+
+    /**
+     * Presupuesto con el que empieza cada mánager nuevo.
+     */
+    private final long startingBudget;
+
+    /**
+     * Equipos de la liga indexados por el id de su mánager.
+     */
+    private final ConcurrentHashMap<Integer, Team> teams = new ConcurrentHashMap<>();
+
+    /**
+     * Crea una liga vacía.
+     *
+     * @param catalog        el catálogo de jugadores compartido.
+     * @param startingBudget el presupuesto inicial de cada mánager.
+     */
+    public LeagueStore(PlayerStore catalog, long startingBudget) {
+        this.catalog = catalog;
+        this.startingBudget = startingBudget;
+    }
+
+    /**
+     * Da de alta a un mánager con un equipo vacío. Si ya estaba en la liga, devuelve su equipo actual.
+     *
+     * @param managerId el identificador del mánager.
+     * @return el equipo del mánager.
+     */
+    public Team addManager(int managerId) {
+        return teams.computeIfAbsent(managerId, id -> new Team(id, startingBudget));
+    }
+
+    /**
+     * Obtiene el equipo de un mánager.
+     *
+     * @param managerId el identificador del mánager.
+     * @return el equipo, o {@code null} si el mánager no está en la liga.
+     */
+    public Team getTeam(int managerId) {
+        return teams.get(managerId);
+    }
+
+    /**
+     * Obtiene el número de mánagers de la liga.
+     *
+     * @return el número de mánagers.
+     */
+    public int getManagerCount() {
+        return teams.size();
+    }
+
+    /**
+     * Compra un jugador del catálogo para el equipo de un mánager, pagando su valor de mercado actual.
+     *
+     * @param managerId el identificador del mánager.
+     * @param playerId  el id del jugador.
+     * @return {@code true} si el jugador está ahora en el equipo, {@code false} si el presupuesto es insuficiente.
+     * @throws IllegalArgumentException si el mánager no está en la liga o el jugador no está en el catálogo.
+     */
+    public boolean buyPlayer(int managerId, int playerId) {
+        return requireTeam(managerId).add(playerId, catalog.getMarketValue(requireRow(playerId)));
+    }
+
+    /**
+     * Vende un jugador del equipo de un mánager, recuperando su valor de mercado actual.
+     *
+     * @param managerId el identificador del mánager.
+     * @param playerId  el id del jugador.
+     * @return {@code true} si se ha vendido, {@code false} si no estaba en el equipo.
+     * @throws IllegalArgumentException si el mánager no está en la liga o el jugador no está en el catálogo.
+     */
+    public boolean sellPlayer(int managerId, int playerId) {
+        return requireTeam(managerId).remove(playerId, catalog.getMarketValue(requireRow(playerId)));
+    }
+
+    /**
+     * Crea los objetos {@link Player} del equipo de un mánager a partir del catálogo.
+     *
+     * @param managerId el identificador del mánager.
+     * @return los jugadores del equipo, ordenados por id.
+     * @throws IllegalArgumentException si el mánager no está en la liga.
+     */
+    public List<Player> getPlayers(int managerId) {
+        int[] playerIds = requireTeam(managerId).getPlayerIds();
+        List<Player> players = new ArrayList<>(playerIds.length);
+        for (int playerId : playerIds) {
+            int row = catalog.findRow(playerId);
+            if (row >= 0) players.add(catalog.getPlayer(row));
+        }
+        return players;
+    }
+
+    /**
+     * Calcula el valor de mercado actual de todos los jugadores del equipo de un mánager.
+     *
+     * @param managerId el identificador del mánager.
+     * @return la suma de los valores de mercado.
+     * @throws IllegalArgumentException si el mánager no está en la liga.
+     */
+    public long getSquadValue(int managerId) {
+        long value = 0;
+        for (int playerId : requireTeam(managerId).getPlayerIds()) {
+            int row = catalog.findRow(playerId);
+            if (row >= 0) value += catalog.getMarketValue(row);
+        }
+        return value;
+    }
+
+    /**
+     * Obtiene el equipo de un mánager que debe estar en la liga.
+     *
+     * @param managerId el identificador del mánager.
+     * @return el equipo del mánager.
+     * @throws IllegalArgumentException si el mánager no está en la liga.
+     */
+    private Team requireTeam(int managerId) {
+        Team team = teams.get(managerId);
+        if (team == null) throw new IllegalArgumentException("El mánager " + managerId + " no está en la liga");
+        return team;
+    }
+
+    /**
+     * Obtiene la fila del catálogo de un jugador que debe existir.
+     *
+     * @param playerId el id del jugador.
+     * @return la fila del jugador.
+     * @throws IllegalArgumentException si el jugador no está en el catálogo.
+     */
+    private int requireRow(int playerId) {
+        int row = catalog.findRow(playerId);
+        if (row < 0) throw new IllegalArgumentException("El jugador " + playerId + " no está en el catálogo");
+        return row;
+    }
+}
@@ -0,0 +1,338 @@
+package org.marcosjfx.marcosfx.backend;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jdk.jfr.FlightRecorder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Métricas de la aplicación: contadores, tiempos de las operaciones y indicadores.
+ * <p>
+ * Los contadores y los tiempos se crean una vez por nombre y se guardan en constantes de las clases que los
+ * usan, así que registrar un valor no busca nada en ningún mapa: un contador es un {@link LongAdder} y un
+ * tiempo es un {@link LatencyHistogram}, y ninguno bloquea ni crea objetos. Los indicadores, como el
+ * tamaño del catálogo, se calculan solo al consultarlos.
+ * <p>
+ * Las métricas se publican de dos formas: como eventos de JFR ({@link OperationEvent} por cada operación y
+ * {@link GaugeEvent} periódicamente por cada indicador), que solo cuestan algo si hay una grabación activa,
+ * y como un archivo JSON que se reescribe cada cierto tiempo con {@link #startPeriodicDump(Path, Duration)}.
+ */
+public final class Metrics {
+
+    /**
+     * Contadores por nombre.
+     */
+    private static final Map<String, Counter> COUNTERS = new ConcurrentHashMap<>();
+
+    /**
+     * Tiempos por nombre.
+     */
+    private static final Map<String, Timer> TIMERS = new ConcurrentHashMap<>();
+
+    /**
+     * Indicadores por nombre.
+     */
+    private static final Map<String, DoubleSupplier> GAUGES = new ConcurrentHashMap<>();
+
+    /**
+     * Escritor del archivo de métricas.
+     */
+    private static final ObjectWriter JSON_WRITER = new ObjectMapper().writerWithDefaultPrettyPrinter();
+
+    /**
+     * Instante en el que se empezaron a recoger las métricas.
+     */
+    private static final Instant STARTED = Instant.now();
+
+    /**
+     * Hilo que escribe periódicamente el archivo de métricas, creado la primera vez que se pide.
+     */
+    private static ScheduledExecutorService dumper;
+
+    static {
+        FlightRecorder.addPeriodicEvent(GaugeEvent.class, Metrics::emitGauges);
+    }
+
+    /**
+     * Clase de utilidades, no se instancia.
+     */
+    private Metrics() {
+    }
+
+    /**
+     * Contador de sucesos, por ejemplo errores o descargas.
+     */
+    public static final class Counter {
+
+        /**
+         * Valor del contador.
+         */
+        private final LongAdder value = new LongAdder();
+
+        /**
+         * Crea un contador a cero.
+         */
+        private Counter() {
+        }
+
+        /**
+         * Suma uno al contador.
+         */
+        public void increment() {
+            value.increment();
+        }
+
+        /**
+         * Suma una cantidad al contador.
+         *
+         * @param amount el número de sucesos.
+         */
+        public void add(long amount) {
+            value.add(amount);
+        }
+
+        /**
+         * Obtiene el valor del contador.
+         *
+         * @return el número de sucesos contados.
+         */
+        public long get() {
+            return value.sum();
+        }
+    }
+
+    /**
+     * Tiempo de una operación: cuenta cada ejecución y guarda su duración en un histograma.
+     * <p>
+     * Se usa guardando el instante de inicio de {@link #start()} y pasándolo a {@link #stop(long)} en un
+     * bloque {@code finally}.
+     */
+    public static final class Timer {
+
+        /**
+         * Nombre de la operación.
+         */
+        private final String name;
+
+        /**
+         * Duraciones de la operación.
+         */
+        private final LatencyHistogram histogram = new LatencyHistogram();
+
+        /**
+         * Crea el tiempo de una operación.
+         *
+         * @param name el nombre de la operación.
+         */
+        private Timer(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Marca el inicio de una ejecución de la operación.
+         *
+         * @return el instante de inicio, para pasarlo a {@link #stop(long)}.
+         */
+        public long start() {
+            return System.nanoTime();
+        }
+
+        /**
+         * Marca el final de una ejecución de la operación y registra su duración.
+         *
+         * @param start el instante de inicio devuelto por {@link #start()}.
+         */
+        public void stop(long start) {
+            long duration = System.nanoTime() - start;
+            histogram.record(duration);
+            OperationEvent event = new OperationEvent();
+            if (event.isEnabled()) {
+                event.operation = name;
+                event.elapsed = duration;
+                event.commit();
+            }
+        }
+
+        /**
+         * Obtiene el número de ejecuciones registradas.
+         *
+         * @return el número de ejecuciones.
+         */
+        public long getCount() {
+            return histogram.getCount();
+        }
+
+        /**
+         * Obtiene un percentil de la duración de la operación.
+         *
+         * @param percentile el percentil, de 0 a 100.
+         * @return la duración en nanosegundos, con un error menor del 12,5 %, o 0 si no hay ejecuciones.
+         */
+        public long getPercentile(double percentile) {
+            return histogram.getPercentile(percentile);
+        }
+    }
+
+    /**
+     * Obtiene el contador con un nombre, creándolo la primera vez.
+     *
+     * @param name el nombre del contador, por ejemplo "images.downloads".
+     * @return el contador.
+     */
+    public static Counter counter(String name) {
+        return COUNTERS.computeIfAbsent(name, ignored -> new Counter());
+    }
+
+    /**
+     * Obtiene el tiempo de una operación, creándolo la primera vez.
+     *
+     * @param name el nombre de la operación, por ejemplo "team.write".
+     * @return el tiempo de la operación.
+     */
+    public static Timer timer(String name) {
+        return TIMERS.computeIfAbsent(name, Timer::new);
+    }
+
+    /**
+     * Registra un indicador, que se calcula cada vez que se consultan las métricas. Si ya había uno con
+     * el mismo nombre se sustituye.
+     *
+     * @param name  el nombre del indicador, por ejemplo "catalog.players".
+     * @param value la función que calcula el valor; se llama desde otros hilos.
+     */
+    public static void gauge(String name, DoubleSupplier value) {
+        GAUGES.put(name, value);
+    }
+
+    /**
+     * Cuenta un error de una parte de la aplicación, en el contador "errors." seguido de su nombre. Los
+     * errores siguen mostrándose por consola donde se producen; esto solo permite saber cuántos hay.
+     *
+     * @param source la parte de la aplicación, por ejemplo "team".
+     */
+    public static void error(String source) {
+        counter("errors." + source).increment();
+    }
+
+    /**
+     * Obtiene el valor actual de todas las métricas, ordenadas por nombre. Los tiempos se expresan en
+     * microsegundos.
+     *
+     * @return un mapa con la fecha actual, la fecha de inicio, los contadores, los indicadores y los tiempos.
+     */
+    public static Map<String, Object> snapshot() {
+        Map<String, Object> counters = new TreeMap<>();
+        COUNTERS.forEach((name, counter) -> counters.put(name, counter.get()));
+
+        Map<String, Object> gauges = new TreeMap<>();
+        GAUGES.forEach((name, gauge) -> gauges.put(name, readGauge(gauge)));
+
+        Map<String, Object> timers = new TreeMap<>();
+        TIMERS.forEach((name, timer) -> {
+            LatencyHistogram histogram = timer.histogram;
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("count", histogram.getCount());
+            values.put("meanUs", histogram.getMean() / 1_000);
+            values.put("p50Us", histogram.getPercentile(50) / 1_000.0);
+            values.put("p90Us", histogram.getPercentile(90) / 1_000.0);
+            values.put("p99Us", histogram.getPercentile(99) / 1_000.0);
+            values.put("maxUs", histogram.getMax() / 1_000.0);
+            timers.put(name, values);
+        });
+
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("timestamp", Instant.now().toString());
+        snapshot.put("startedAt", STARTED.toString());
+        snapshot.put("counters", counters);
+        snapshot.put("gauges", gauges);
+        snapshot.put("timers", timers);
+        return snapshot;
+    }
+
+    /**
+     * Escribe el valor actual de las métricas en un archivo JSON. Se escribe primero en un archivo
+     * temporal y después se mueve, para que el archivo nunca quede a medias.
+     *
+     * @param path el archivo de destino.
+     * @throws IOException si no se puede escribir el archivo.
+     */
+    public static void dump(Path path) throws IOException {
+        Path directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, "metrics", ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                JSON_WRITER.writeValue(out, snapshot());
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Empieza a escribir las métricas en un archivo JSON cada cierto tiempo, en un hilo en segundo plano.
+     * Las llamadas siguientes no hacen nada.
+     *
+     * @param path     el archivo de destino.
+     * @param interval el tiempo entre dos escrituras.
+     */
+    public static synchronized void startPeriodicDump(Path path, Duration interval) {
+        if (dumper != null) return;
+        dumper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-dump");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long millis = interval.toMillis();
+        dumper.scheduleWithFixedDelay(() -> {
+            try {
+                dump(path);
+            } catch (IOException e) {
+                System.out.printf("Error guardando las métricas: %s\n", e.getMessage());
+            }
+        }, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Calcula un indicador sin dejar que sus errores impidan leer el resto de métricas.
+     *
+     * @param gauge el indicador.
+     * @return su valor, o {@link Double#NaN} si falla.
+     */
+    private static double readGauge(DoubleSupplier gauge) {
+        try {
+            return gauge.getAsDouble();
+        } catch (RuntimeException e) {
+            return Double.NaN;
+        }
+    }
+
+    /**
+     * Guarda en JFR un evento por cada indicador. Lo llama JFR en cada periodo de {@link GaugeEvent}.
+     */
+    private static void emitGauges() {
+        GAUGES.forEach((name, gauge) -> {
+            GaugeEvent event = new GaugeEvent();
+            event.gauge = name;
+            event.value = readGauge(gauge);
+            event.commit();
+        });
+    }
+}
@@ -0,0 +1,268 @@
+package org.marcosjfx.marcosfx.backend;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Índice de prefijos sobre las palabras del nombre y del club de cada jugador.
+ * <p>
+ * Los textos se normalizan en minúsculas y sin tildes ni diacríticos ("L. Suárez" se indexa como las
+ * palabras "l" y "suarez"), así que se encuentran escribiendo con o sin tildes. Las palabras distintas
+ * se guardan ordenadas y, para cada una, las filas de los jugadores que la contienen; las palabras que
+ * empiezan por un prefijo forman un rango contiguo que se encuentra con una búsqueda binaria. Además,
+ * para cada fila se guardan las posiciones de sus palabras, de forma que refinar un resultado pequeño
+ * solo tiene que mirar las palabras de sus filas.
+ * El índice no cambia después de crearse, porque los nombres y clubes del catálogo no cambian.
+ */
+class NameIndex {
+
+    /**
+     * Marcas diacríticas que quedan separadas de su letra al descomponer un texto.
+     */
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    /**
+     * Número de filas del catálogo indexado.
+     */
+    private final int size;
+
+    /**
+     * Palabras distintas, normalizadas y ordenadas.
+     */
+    private final String[] words;
+
+    /**
+     * Posición en {@link #rows} donde empiezan las filas de cada palabra; tiene una posición más que
+     * {@link #words} para marcar el final de la última.
+     */
+    private final int[] starts;
+
+    /**
+     * Filas de cada palabra, ordenadas de menor a mayor dentro de cada palabra.
+     */
+    private final int[] rows;
+
+    /**
+     * Posición en {@link #rowWords} donde empiezan las palabras de cada fila; tiene una posición más
+     * que el número de filas.
+     */
+    private final int[] rowStarts;
+
+    /**
+     * Posición en {@link #words} de las palabras de cada fila.
+     */
+    private final int[] rowWords;
+
+    /**
+     * Crea el índice de un almacén. Debe llamarse con el bloqueo del almacén adquirido.
+     *
+     * @param store el almacén a indexar.
+     */
+    NameIndex(PlayerStore store) {
+        size = store.size();
+        Map<String, Integer> wordIds = new HashMap<>();
+        List<String> wordList = new ArrayList<>();
+
+        int[][] clubWordIds = new int[store.getClubCount()][];
+        for (int code = 0; code < clubWordIds.length; code++) {
+            clubWordIds[code] = wordIds(tokens(fold(store.getClubNameByCode(code))), wordIds, wordList);
+        }
+
+        String[] names = store.nameColumn();
+        int[] clubCodes = store.clubCodeColumn();
+        long[] pairs = new long[size * 4];
+        int pairCount = 0;
+        for (int row = 0; row < size; row++) {
+            int[] nameWordIds = wordIds(tokens(fold(names[row])), wordIds, wordList);
+            int[] clubWords = clubWordIds[clubCodes[row]];
+            if (pairCount + nameWordIds.length + clubWords.length > pairs.length) {
+                pairs = Arrays.copyOf(pairs, Math.max(pairs.length * 2, pairCount + nameWordIds.length + clubWords.length));
+            }
+            for (int wordId : nameWordIds) {
+                pairs[pairCount++] = ((long) wordId << 32) | row;
+            }
+            for (int wordId : clubWords) {
+                pairs[pairCount++] = ((long) wordId << 32) | row;
+            }
+        }
+
+        Integer[] order = new Integer[wordList.size()];
+        for (int id = 0; id < order.length; id++) {
+            order[id] = id;
+        }
+        Arrays.sort(order, (a, b) -> wordList.get(a).compareTo(wordList.get(b)));
+        words = new String[order.length];
+        int[] rank = new int[order.length];
+        for (int position = 0; position < order.length; position++) {
+            words[position] = wordList.get(order[position]);
+            rank[order[position]] = position;
+        }
+
+        for (int i = 0; i < pairCount; i++) {
+            pairs[i] = ((long) rank[(int) (pairs[i] >>> 32)] << 32) | (pairs[i] & 0xFFFFFFFFL);
+        }
+        Arrays.sort(pairs, 0, pairCount);
+
+        starts = new int[words.length + 1];
+        int[] postings = new int[pairCount];
+        int postingCount = 0;
+        long previous = -1;
+        for (int i = 0; i < pairCount; i++) {
+            if (pairs[i] == previous) continue;
+            previous = pairs[i];
+            starts[(int) (pairs[i] >>> 32) + 1]++;
+            postings[postingCount++] = (int) pairs[i];
+        }
+        for (int word = 0; word < words.length; word++) {
+            starts[word + 1] += starts[word];
+        }
+        rows = Arrays.copyOf(postings, postingCount);
+
+        rowStarts = new int[size + 1];
+        for (int row : rows) {
+            rowStarts[row + 1]++;
+        }
+        for (int row = 0; row < size; row++) {
+            rowStarts[row + 1] += rowStarts[row];
+        }
+        rowWords = new int[rows.length];
+        int[] filled = Arrays.copyOf(rowStarts, size);
+        for (int word = 0; word < words.length; word++) {
+            for (int i = starts[word]; i < starts[word + 1]; i++) {
+                rowWords[filled[rows[i]]++] = word;
+            }
+        }
+    }
+
+    /**
+     * Normaliza un texto para buscar: minúsculas y sin tildes ni otros diacríticos.
+     *
+     * @param text el texto original.
+     * @return el texto normalizado.
+     */
+    static String fold(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) >= 0x80) {
+                return DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                        .toLowerCase(Locale.ROOT);
+            }
+        }
+        return text.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Separa un texto normalizado en palabras: las separan todos los caracteres que no son letras
+     * ni dígitos.
+     *
+     * @param folded el texto normalizado.
+     * @return las palabras, sin vacías.
+     */
+    static String[] tokens(String folded) {
+        List<String> tokens = new ArrayList<>(4);
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            boolean wordChar = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(folded.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens.toArray(new String[0]);
+    }
+
+    /**
+     * Cuenta cuántas veces aparecen en total las palabras que empiezan por un prefijo, como medida
+     * del coste de buscarlo.
+     *
+     * @param prefix el prefijo, ya normalizado.
+     * @return el número de pares palabra-fila del prefijo.
+     */
+    int countPrefix(String prefix) {
+        return starts[lowerBound(prefix + Character.MAX_VALUE)] - starts[lowerBound(prefix)];
+    }
+
+    /**
+     * Busca las filas que tienen alguna palabra que empieza por un prefijo.
+     *
+     * @param prefix el prefijo, ya normalizado.
+     * @return las filas encontradas.
+     */
+    BitSet rowsWithPrefix(String prefix) {
+        int from = lowerBound(prefix);
+        int to = lowerBound(prefix + Character.MAX_VALUE);
+        BitSet found = new BitSet(size);
+        for (int i = starts[from]; i < starts[to]; i++) {
+            found.set(rows[i]);
+        }
+        return found;
+    }
+
+    /**
+     * Deja en un conjunto de filas solo las que tienen alguna palabra que empieza por un prefijo.
+     * Si mirar las palabras de cada una de sus filas es más barato que recorrer las filas del prefijo,
+     * se filtra fila a fila; si no, se cruza con las filas del prefijo.
+     *
+     * @param found  las filas a filtrar, que se modifican.
+     * @param prefix el prefijo, ya normalizado.
+     */
+    void retainRowsWithPrefix(BitSet found, String prefix) {
+        int from = lowerBound(prefix);
+        int to = lowerBound(prefix + Character.MAX_VALUE);
+        if ((long) found.cardinality() * rowWords.length > (long) (starts[to] - starts[from]) * size) {
+            found.and(rowsWithPrefix(prefix));
+            return;
+        }
+        for (int row = found.nextSetBit(0); row >= 0; row = found.nextSetBit(row + 1)) {
+            boolean matches = false;
+            for (int i = rowStarts[row]; i < rowStarts[row + 1] && !matches; i++) {
+                matches = rowWords[i] >= from && rowWords[i] < to;
+            }
+            if (!matches) found.clear(row);
+        }
+    }
+
+    /**
+     * Busca la primera palabra mayor o igual que un texto.
+     *
+     * @param text el texto.
+     * @return la posición de la palabra, o el número de palabras si todas son menores.
+     */
+    private int lowerBound(String text) {
+        int low = 0;
+        int high = words.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (words[middle].compareTo(text) < 0) low = middle + 1;
+            else high = middle;
+        }
+        return low;
+    }
+
+    /**
+     * Obtiene el identificador de cada palabra, asignando uno nuevo a las que no lo tenían.
+     *
+     * @param tokens   las palabras.
+     * @param wordIds  los identificadores ya asignados.
+     * @param wordList las palabras indexadas por su identificador.
+     * @return los identificadores de las palabras.
+     */
+    private static int[] wordIds(String[] tokens, Map<String, Integer> wordIds, List<String> wordList) {
+        int[] ids = new int[tokens.length];
+        for (int i = 0; i < tokens.length; i++) {
+            ids[i] = wordIds.computeIfAbsent(tokens[i], token -> {
+                wordList.add(token);
+                return wordList.size() - 1;
+            });
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,33 @@
+package org.marcosjfx.marcosfx.backend;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Evento de JFR que registra la duración de una operación medida con un {@link Metrics.Timer}. Solo se
+ * crea y se guarda si hay una grabación de JFR con el evento activado.
+ */
+@Name("org.marcosjfx.marcosfx.Operation")
+@Label("Operación")
+@Category("MarcosFX")
+@Description("Duración de una operación instrumentada de la aplicación")
+@StackTrace(false)
+final class OperationEvent extends jdk.jfr.Event {
+
+    /**
+     * Nombre de la operación.
+     */
+    @Label("Operación")
+    String operation;
+
+    /**
+     * Duración de la operación.
+     */
+    @Label("Duración")
+    @Timespan(Timespan.NANOSECONDS)
+    long elapsed;
+}
@@ -3,61 +3,82 @@ package org.marcosjfx.marcosfx.backend;
 /**
  * Clase que representa un jugador, incluyendo datos como su nombre, edad, equipo, posición,
  * estadísticas (goles, asistencias, atajadas) y otros detalles relevantes.
+ * <p>
+ * Es inmutable: cada {@link PlayerStore#getPlayer(int)} crea una foto de la fila en ese momento. Para que
+ * ocupe poco, el club y la imagen del club son las cadenas compartidas de los diccionarios del catálogo, la
+ * posición es una constante de {@link Position} y la URL de la imagen del jugador solo se guarda si no
+ * sigue el formato habitual a partir de su id; si lo sigue, se construye al pedirla. El código de la
+ * posición tal y como se leyó se conserva aparte, para volver a guardarlo igual aunque no sea una posición
+ * conocida.
  */
 public class Player {
 
+   /**
+    * Principio de la URL habitual de la imagen de un jugador.
+    */
+   private static final String PLAYER_IMAGE_URL_PREFIX = "https://cdn.sofifa.net/players/";
+
+   /**
+    * Final de la URL habitual de la imagen de un jugador.
+    */
+   private static final String PLAYER_IMAGE_URL_SUFFIX = "/15_120.png";
+
    /**
     * Identificador único del jugador.
     */
-   private int id;
+   private final int id;
    /**
     * Nombre del jugador.
     */
-   private String name;
+   private final String name;
    /**
     * Calificación general del jugador.
     */
-   private int rating;
+   private final int rating;
    /**
     * Valor de mercado del jugador.
     */
-   private int marketValue;
+   private final int marketValue;
    /**
     * Edad del jugador.
     */
-   private int age;
+   private final int age;
    /**
     * ID del equipo del jugador.
     */
-   private int teamID;
+   private final int teamID;
    /**
     * Goles metidos por el jugador.
     */
-   private int goals;
+   private final int goals;
    /**
     * Asistencias metidas por el jugador.
     */
-   private int assists;
+   private final int assists;
    /**
     * Paradas del jugador.
     */
-   private int saves;
+   private final int saves;
    /**
     * Nombre del club del jugador.
     */
-   private String clubName;
+   private final String clubName;
    /**
     * Posicion en la que juega el jugador.
     */
-   private String position;
+   private final Position position;
+   /**
+    * Código de la posición tal y como está en el CSV o en team.json.
+    */
+   private final String positionCode;
    /**
-    * URL de una imagen del jugador.
+    * URL de una imagen del jugador, o {@code null} si es la habitual según su id.
     */
-   private String playerImageURL;
+   private final String playerImageURL;
    /**
     * URL de una imagen del equipo del jugador.
     */
-   private String clubImageURL;
+   private final String clubImageURL;
 
    /**
     * Constructor que inicializa todos los atributos del jugador.
@@ -73,10 +94,33 @@ public class Player {
     * @param saves          Número de atajadas del jugador.
     * @param clubName       Nombre del club del jugador.
     * @param position       Posición del jugador en el campo.
-    * @param playerImageURL Enlace a la imagen del jugador.
+    * @param playerImageURL Enlace a la imagen del jugador, o {@code null} si es el habitual según su id.
+    * @param clubImageURL   Enlace a la imagen del club.
+    */
+   public Player(int id, String name, int rating, int marketValue, int age, int teamID, int goals, int assists, int saves, String clubName, Position position, String playerImageURL, String clubImageURL) {
+      this(id, name, rating, marketValue, age, teamID, goals, assists, saves, clubName, position, position.name(), playerImageURL, clubImageURL);
+   }
+
+   /**
+    * Constructor que inicializa todos los atributos del jugador, con el código de la posición tal y como
+    * se ha leído.
+    *
+    * @param id             Identificador del jugador.
+    * @param name           Nombre del jugador.
+    * @param rating         Calificación general del jugador.
+    * @param marketValue    Valor de mercado del jugador.
+    * @param age            Edad del jugador.
+    * @param teamID         Identificador del equipo del jugador.
+    * @param goals          Número de goles del jugador.
+    * @param assists        Número de asistencias del jugador.
+    * @param saves          Número de atajadas del jugador.
+    * @param clubName       Nombre del club del jugador.
+    * @param position       Posición del jugador en el campo.
+    * @param positionCode   Código de la posición leído, {@link Position#UNKNOWN} incluido.
+    * @param playerImageURL Enlace a la imagen del jugador, o {@code null} si es el habitual según su id.
     * @param clubImageURL   Enlace a la imagen del club.
     */
-   public Player(int id, String name, int rating, int marketValue, int age, int teamID, int goals, int assists, int saves, String clubName, String position, String playerImageURL, String clubImageURL) {
+   Player(int id, String name, int rating, int marketValue, int age, int teamID, int goals, int assists, int saves, String clubName, Position position, String positionCode, String playerImageURL, String clubImageURL) {
       this.id = id;
       this.name = name;
       this.rating = rating;
@@ -88,12 +132,14 @@ public class Player {
       this.saves = saves;
       this.clubName = clubName;
       this.position = position;
+      this.positionCode = positionCode;
       this.playerImageURL = playerImageURL;
       this.clubImageURL = clubImageURL;
    }
 
    /**
-    * Constructor que inicializa atributos básicos del jugador.
+    * Constructor que inicializa atributos básicos del jugador; la calificación, el valor, la edad, el club
+    * y las estadísticas quedan a cero.
     *
     * @param id             Identificador del jugador.
     * @param name           Nombre del jugador.
@@ -102,13 +148,8 @@ public class Player {
     * @param playerImageURL Enlace a la imagen del jugador.
     * @param clubImageURL   Enlace a la imagen del club.
     */
-   public Player(int id, String name, String clubName, String position, String playerImageURL, String clubImageURL) {
-      this.id = id;
-      this.name = name;
-      this.clubName = clubName;
-      this.position = position;
-      this.playerImageURL = playerImageURL;
-      this.clubImageURL = clubImageURL;
+   public Player(int id, String name, String clubName, Position position, String playerImageURL, String clubImageURL) {
+      this(id, name, 0, 0, 0, 0, 0, 0, 0, clubName, position, playerImageURL, clubImageURL);
    }
 
    /**
@@ -120,15 +161,6 @@ public class Player {
       return goals;
    }
 
-   /**
-    * Establece el número de goles marcados por el jugador.
-    *
-    * @param goals Número de goles a asignar.
-    */
-   public void setGoals(int goals) {
-      this.goals = goals;
-   }
-
    /**
     * Obtiene el número de asistencias del jugador.
     *
@@ -138,15 +170,6 @@ public class Player {
       return assists;
    }
 
-   /**
-    * Establece el número de asistencias del jugador.
-    *
-    * @param assists Número de asistencias a asignar.
-    */
-   public void setAssists(int assists) {
-      this.assists = assists;
-   }
-
    /**
     * Obtiene el número de paradas realizadas por el jugador.
     *
@@ -156,15 +179,6 @@ public class Player {
       return saves;
    }
 
-   /**
-    * Establece el número de paradas realizadas por el jugador.
-    *
-    * @param saves Número de paradas a asignar.
-    */
-   public void setSaves(int saves) {
-      this.saves = saves;
-   }
-
    /**
     * Obtiene el identificador único del jugador.
     *
@@ -174,15 +188,6 @@ public class Player {
       return id;
    }
 
-   /**
-    * Establece el identificador único del jugador.
-    *
-    * @param id Identificador único del jugador.
-    */
-   public void setId(int id) {
-      this.id = id;
-   }
-
    /**
     * Obtiene el nombre del jugador.
     *
@@ -192,15 +197,6 @@ public class Player {
       return name;
    }
 
-   /**
-    * Establece el nombre del jugador.
-    *
-    * @param name Nombre del jugador.
-    */
-   public void setName(String name) {
-      this.name = name;
-   }
-
    /**
     * Obtiene la calificación general del jugador.
     *
@@ -210,15 +206,6 @@ public class Player {
       return rating;
    }
 
-   /**
-    * Establece la calificación general del jugador.
-    *
-    * @param rating Calificación general a asignar.
-    */
-   public void setRating(int rating) {
-      this.rating = rating;
-   }
-
    /**
     * Obtiene el valor de mercado del jugador.
     *
@@ -228,15 +215,6 @@ public class Player {
       return marketValue;
    }
 
-   /**
-    * Establece el valor de mercado del jugador.
-    *
-    * @param marketValue Valor de mercado a asignar.
-    */
-   public void setMarketValue(int marketValue) {
-      this.marketValue = marketValue;
-   }
-
    /**
     * Obtiene la edad del jugador.
     *
@@ -246,15 +224,6 @@ public class Player {
       return age;
    }
 
-   /**
-    * Establece la edad del jugador.
-    *
-    * @param age Edad a asignar.
-    */
-   public void setAge(int age) {
-      this.age = age;
-   }
-
    /**
     * Obtiene el ID del equipo del jugador.
     *
@@ -264,15 +233,6 @@ public class Player {
       return teamID;
    }
 
-   /**
-    * Establece el ID del equipo del jugador.
-    *
-    * @param teamID ID del equipo a asignar.
-    */
-   public void setTeamID(int teamID) {
-      this.teamID = teamID;
-   }
-
    /**
     * Obtiene el nombre del club al que pertenece el jugador.
     *
@@ -282,31 +242,23 @@ public class Player {
       return clubName;
    }
 
-   /**
-    * Establece el nombre del club al que pertenece el jugador.
-    *
-    * @param clubName Nombre del club del jugador a asignar.
-    */
-   public void setClubName(String clubName) {
-      this.clubName = clubName;
-   }
-
    /**
     * Obtiene la posición del jugador en el campo.
     *
     * @return Posición del jugador.
     */
-   public String getPosition() {
+   public Position getPosition() {
       return position;
    }
 
    /**
-    * Establece la posición del jugador en el campo.
+    * Obtiene el código de la posición tal y como está en el CSV o en team.json. Coincide con el nombre de
+    * {@link #getPosition()} salvo en las posiciones desconocidas, que conservan su código original.
     *
-    * @param position Posición a asignar.
+    * @return Código de la posición del jugador.
     */
-   public void setPosition(String position) {
-      this.position = position;
+   public String getPositionCode() {
+      return positionCode;
    }
 
    /**
@@ -315,16 +267,7 @@ public class Player {
     * @return URL de la imagen del jugador.
     */
    public String getPlayerImageURL() {
-      return playerImageURL;
-   }
-
-   /**
-    * Establece la URL de la imagen del jugador.
-    *
-    * @param playerImageURL URL de la imagen a asignar.
-    */
-   public void setPlayerImageURL(String playerImageURL) {
-      this.playerImageURL = playerImageURL;
+      return playerImageURL != null ? playerImageURL : defaultPlayerImageURL(id);
    }
 
    /**
@@ -337,12 +280,68 @@ public class Player {
    }
 
    /**
-    * Establece la URL de la imagen del club del jugador.
+    * Construye la URL habitual de la imagen de un jugador: el id con al menos seis cifras, separado en
+    * dos grupos por una barra.
     *
-    * @param clubImageURL URL de la imagen del club a asignar.
+    * @param id Identificador del jugador.
+    * @return La URL de la imagen.
+    */
+   static String defaultPlayerImageURL(int id) {
+      StringBuilder url = new StringBuilder(PLAYER_IMAGE_URL_PREFIX.length() + 8 + PLAYER_IMAGE_URL_SUFFIX.length());
+      url.append(PLAYER_IMAGE_URL_PREFIX);
+      appendPadded(url, id / 1000);
+      url.append('/');
+      appendPadded(url, id % 1000);
+      return url.append(PLAYER_IMAGE_URL_SUFFIX).toString();
+   }
+
+   /**
+    * Comprueba, sin crear cadenas, si una URL es la imagen habitual de un jugador.
+    *
+    * @param url URL a comprobar.
+    * @param id  Identificador del jugador.
+    * @return {@code true} si la URL es igual a {@link #defaultPlayerImageURL(int)}.
+    */
+   static boolean isDefaultPlayerImageURL(String url, int id) {
+      if (id < 0 || !url.startsWith(PLAYER_IMAGE_URL_PREFIX) || !url.endsWith(PLAYER_IMAGE_URL_SUFFIX)) return false;
+      int thousands = id / 1000;
+      int thousandsDigits = 3;
+      for (int rest = thousands / 1000; rest > 0; rest /= 10) {
+         thousandsDigits++;
+      }
+      int start = PLAYER_IMAGE_URL_PREFIX.length();
+      return url.length() == start + thousandsDigits + 4 + PLAYER_IMAGE_URL_SUFFIX.length()
+              && matchesNumber(url, start, thousandsDigits, thousands)
+              && url.charAt(start + thousandsDigits) == '/'
+              && matchesNumber(url, start + thousandsDigits + 1, 3, id % 1000);
+   }
+
+   /**
+    * Añade un número no negativo con al menos tres cifras, rellenando con ceros a la izquierda.
+    *
+    * @param text   Texto al que se añade.
+    * @param number Número a añadir.
     */
-   public void setClubImageURL(String clubImageURL) {
-      this.clubImageURL = clubImageURL;
+   private static void appendPadded(StringBuilder text, int number) {
+      if (number < 100) text.append('0');
+      if (number < 10) text.append('0');
+      text.append(number);
    }
 
+   /**
+    * Comprueba si un trozo de un texto son las cifras de un número, con ceros a la izquierda.
+    *
+    * @param text   Texto a comprobar.
+    * @param start  Posición donde empiezan las cifras.
+    * @param length Número de cifras.
+    * @param number Número esperado.
+    * @return {@code true} si las cifras coinciden con el número.
+    */
+   private static boolean matchesNumber(String text, int start, int length, int number) {
+      for (int i = start + length - 1; i >= start; i--) {
+         if (text.charAt(i) != '0' + number % 10) return false;
+         number /= 10;
+      }
+      return number == 0;
+   }
 }
@@ -0,0 +1,337 @@
+package org.marcosjfx.marcosfx.backend;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Índices secundarios sobre las columnas de un {@link PlayerStore} para resolver {@link PlayerQuery
+ * consultas} sin recorrer todo el catálogo.
+ * <ul>
+ *   <li>Un mapa de bits por posición y otro por club con las filas de sus jugadores, indexados por el
+ *   código de la posición y por el código del club.</li>
+ *   <li>Las filas ordenadas por calificación, valor de mercado y edad, junto con los valores ordenados,
+ *   para encontrar con una búsqueda binaria las filas dentro de un rango.</li>
+ * </ul>
+ * Cada consulta calcula cuántas filas deja pasar cada criterio por separado, recorre solo las del criterio
+ * más selectivo y comprueba el resto directamente sobre las columnas. El índice de valor de mercado se
+ * reconstruye cuando el simulador cambia los valores; el resto de columnas no cambian.
+ */
+class PlayerIndex {
+
+    /**
+     * Almacén indexado.
+     */
+    private final PlayerStore store;
+
+    /**
+     * Filas de cada posición, indexadas por el código de la posición.
+     */
+    private final BitSet[] rowsByPosition;
+
+    /**
+     * Número de filas de cada posición, indexado por el código de la posición.
+     */
+    private final int[] positionCounts;
+
+    /**
+     * Valor de {@link #clubOfTeam(int)} cuando ningún club tiene el id buscado.
+     */
+    private static final int NO_CLUB = -1;
+
+    /**
+     * Valor de {@link #clubOfTeam(int)} cuando las filas del id buscado pueden estar en varios clubes.
+     */
+    private static final int SEVERAL_CLUBS = -2;
+
+    /**
+     * Filas de cada club, indexadas por el código del club. Cada mapa de bits solo ocupa hasta la última
+     * fila de su club.
+     */
+    private final BitSet[] rowsByClub;
+
+    /**
+     * Número de filas de cada club, indexado por el código del club.
+     */
+    private final int[] clubCounts;
+
+    /**
+     * Id de club ({@code teamID}) de los jugadores de cada club, indexado por el código del club. En los
+     * clubes de {@link #mixedClubs} es el de su primer jugador.
+     */
+    private final int[] clubTeamIDs;
+
+    /**
+     * Códigos de los clubes cuyos jugadores no tienen todos el mismo id de club. En el catálogo real no hay
+     * ninguno, pero el CSV no lo garantiza.
+     */
+    private final BitSet mixedClubs = new BitSet();
+
+    /**
+     * Filas ordenadas por calificación.
+     */
+    private final SortedColumn ratings;
+
+    /**
+     * Filas ordenadas por edad.
+     */
+    private final SortedColumn ages;
+
+    /**
+     * Filas ordenadas por valor de mercado.
+     */
+    private SortedColumn marketValues;
+
+    /**
+     * Crea los índices de un almacén. Debe llamarse con el bloqueo del almacén adquirido.
+     *
+     * @param store el almacén a indexar.
+     */
+    PlayerIndex(PlayerStore store) {
+        this.store = store;
+        int size = store.size();
+        int[] positionCodes = store.positionCodeColumn();
+        int[] clubCodes = store.clubCodeColumn();
+        int[] teamIDs = store.teamIDColumn();
+
+        rowsByPosition = new BitSet[Position.count()];
+        positionCounts = new int[rowsByPosition.length];
+        for (int code = 0; code < rowsByPosition.length; code++) {
+            rowsByPosition[code] = new BitSet(size);
+        }
+        rowsByClub = new BitSet[store.getClubCount()];
+        clubCounts = new int[rowsByClub.length];
+        clubTeamIDs = new int[rowsByClub.length];
+        for (int code = 0; code < rowsByClub.length; code++) {
+            rowsByClub[code] = new BitSet();
+        }
+        for (int row = 0; row < size; row++) {
+            rowsByPosition[positionCodes[row]].set(row);
+            positionCounts[positionCodes[row]]++;
+
+            int club = clubCodes[row];
+            if (clubCounts[club] == 0) clubTeamIDs[club] = teamIDs[row];
+            else if (clubTeamIDs[club] != teamIDs[row]) mixedClubs.set(club);
+            rowsByClub[club].set(row);
+            clubCounts[club]++;
+        }
+
+        ratings = new SortedColumn(store.ratingColumn(), size);
+        ages = new SortedColumn(store.ageColumn(), size);
+        marketValues = new SortedColumn(store.marketValueColumn(), size);
+    }
+
+    /**
+     * Reconstruye el índice de valor de mercado después de que cambien los valores. Debe llamarse con el
+     * bloqueo del almacén adquirido.
+     */
+    void refreshMarketValues() {
+        marketValues = new SortedColumn(store.marketValueColumn(), store.size());
+    }
+
+    /**
+     * Busca las filas de los jugadores que cumplen una consulta. Debe llamarse con el bloqueo del almacén
+     * adquirido.
+     *
+     * @param query los criterios de búsqueda.
+     * @return las filas que cumplen todos los criterios, de menor a mayor.
+     */
+    int[] query(PlayerQuery query) {
+        BitSet positionRows = null;
+        int positionCount = Integer.MAX_VALUE;
+        if (query.getPosition() != null) {
+            int code = query.getPosition().ordinal();
+            positionRows = rowsByPosition[code];
+            positionCount = positionCounts[code];
+        }
+
+        BitSet teamRows = null;
+        int teamCount = Integer.MAX_VALUE;
+        if (query.getTeamID() != null) {
+            int club = clubOfTeam(query.getTeamID());
+            if (club == NO_CLUB) return new int[0];
+            if (club == SEVERAL_CLUBS) {
+                teamRows = rowsOfTeam(query.getTeamID());
+                teamCount = teamRows.cardinality();
+            } else {
+                teamRows = rowsByClub[club];
+                teamCount = clubCounts[club];
+            }
+        }
+
+        int ratingFrom = ratings.lowerBound(query.getMinRating());
+        int ratingTo = ratings.upperBound(query.getMaxRating());
+        int valueFrom = marketValues.lowerBound(query.getMinMarketValue());
+        int valueTo = marketValues.upperBound(query.getMaxMarketValue());
+        int ageFrom = ages.lowerBound(query.getMinAge());
+        int ageTo = ages.upperBound(query.getMaxAge());
+
+        int smallest = Math.min(Math.min(positionCount, teamCount),
+                Math.min(ratingTo - ratingFrom, Math.min(valueTo - valueFrom, ageTo - ageFrom)));
+        if (smallest <= 0) return new int[0];
+
+        int[] matches = new int[smallest];
+        int count = 0;
+        if (smallest == positionCount || smallest == teamCount) {
+            BitSet source = smallest == positionCount ? positionRows : teamRows;
+            BitSet other = source == positionRows ? teamRows : positionRows;
+            for (int row = source.nextSetBit(0); row >= 0; row = source.nextSetBit(row + 1)) {
+                if ((other == null || other.get(row)) && inRanges(row, query)) matches[count++] = row;
+            }
+            return Arrays.copyOf(matches, count);
+        }
+
+        SortedColumn source;
+        int from;
+        int to;
+        if (smallest == ratingTo - ratingFrom) {
+            source = ratings;
+            from = ratingFrom;
+            to = ratingTo;
+        } else if (smallest == valueTo - valueFrom) {
+            source = marketValues;
+            from = valueFrom;
+            to = valueTo;
+        } else {
+            source = ages;
+            from = ageFrom;
+            to = ageTo;
+        }
+        for (int i = from; i < to; i++) {
+            int row = source.rows[i];
+            if ((positionRows == null || positionRows.get(row)) && (teamRows == null || teamRows.get(row))
+                    && inRanges(row, query)) {
+                matches[count++] = row;
+            }
+        }
+        int[] result = Arrays.copyOf(matches, count);
+        Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     * Busca el club de un id de club.
+     *
+     * @param teamID el id de club.
+     * @return el código del único club cuyos jugadores tienen ese id, {@link #NO_CLUB} si no lo tiene
+     * ninguno o {@link #SEVERAL_CLUBS} si hay que buscar sus filas en varios clubes.
+     */
+    private int clubOfTeam(int teamID) {
+        if (!mixedClubs.isEmpty()) return SEVERAL_CLUBS;
+        int found = NO_CLUB;
+        for (int code = 0; code < clubTeamIDs.length; code++) {
+            if (clubTeamIDs[code] != teamID) continue;
+            if (found != NO_CLUB) return SEVERAL_CLUBS;
+            found = code;
+        }
+        return found;
+    }
+
+    /**
+     * Reúne en un mapa de bits nuevo las filas de un id de club repartidas entre varios clubes.
+     *
+     * @param teamID el id de club.
+     * @return las filas de los jugadores con ese id.
+     */
+    private BitSet rowsOfTeam(int teamID) {
+        BitSet rows = new BitSet();
+        int[] teamIDs = store.teamIDColumn();
+        for (int code = 0; code < rowsByClub.length; code++) {
+            BitSet clubRows = rowsByClub[code];
+            if (mixedClubs.get(code)) {
+                for (int row = clubRows.nextSetBit(0); row >= 0; row = clubRows.nextSetBit(row + 1)) {
+                    if (teamIDs[row] == teamID) rows.set(row);
+                }
+            } else if (clubTeamIDs[code] == teamID) {
+                rows.or(clubRows);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Comprueba los criterios de rango de una consulta sobre las columnas del almacén.
+     *
+     * @param row   la fila del jugador.
+     * @param query los criterios de búsqueda.
+     * @return {@code true} si la fila cumple los rangos de calificación, valor y edad.
+     */
+    private boolean inRanges(int row, PlayerQuery query) {
+        int rating = store.ratingColumn()[row];
+        int marketValue = store.marketValueColumn()[row];
+        int age = store.ageColumn()[row];
+        return rating >= query.getMinRating() && rating <= query.getMaxRating()
+                && marketValue >= query.getMinMarketValue() && marketValue <= query.getMaxMarketValue()
+                && age >= query.getMinAge() && age <= query.getMaxAge();
+    }
+
+    /**
+     * Filas de una columna ordenadas por su valor, junto con los valores ya ordenados para poder
+     * buscar rangos con una búsqueda binaria.
+     */
+    private static class SortedColumn {
+
+        /**
+         * Filas ordenadas por valor.
+         */
+        private final int[] rows;
+
+        /**
+         * Valores de la columna en el mismo orden que {@link #rows}.
+         */
+        private final int[] values;
+
+        /**
+         * Ordena las filas de una columna por su valor.
+         *
+         * @param column la columna.
+         * @param size   el número de filas.
+         */
+        SortedColumn(int[] column, int size) {
+            long[] valueRows = new long[size];
+            for (int row = 0; row < size; row++) {
+                valueRows[row] = ((long) column[row] << 32) | row;
+            }
+            Arrays.sort(valueRows);
+            rows = new int[size];
+            values = new int[size];
+            for (int i = 0; i < size; i++) {
+                rows[i] = (int) valueRows[i];
+                values[i] = (int) (valueRows[i] >> 32);
+            }
+        }
+
+        /**
+         * Busca la primera posición con un valor mayor o igual que el indicado.
+         *
+         * @param min el valor mínimo.
+         * @return la posición, o el número de filas si todos los valores son menores.
+         */
+        int lowerBound(int min) {
+            int low = 0;
+            int high = values.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (values[middle] < min) low = middle + 1;
+                else high = middle;
+            }
+            return low;
+        }
+
+        /**
+         * Busca la primera posición con un valor mayor que el indicado.
+         *
+         * @param max el valor máximo.
+         * @return la posición, o el número de filas si todos los valores son menores o iguales.
+         */
+        int upperBound(int max) {
+            int low = 0;
+            int high = values.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (values[middle] <= max) low = middle + 1;
+                else high = middle;
+            }
+            return low;
+        }
+    }
+}
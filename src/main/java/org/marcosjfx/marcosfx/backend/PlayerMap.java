@@ -0,0 +1,241 @@
+package org.marcosjfx.marcosfx.backend;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Mapa de jugadores indexado por su id.
+ * <p>
+ * Sustituye a {@code HashMap<Integer, Player>} sin crear un {@link Integer} ni un nodo por cada entrada:
+ * los ids y los jugadores se guardan en dos arrays paralelos con direccionamiento abierto y sondeo
+ * lineal, y al borrar se desplazan las entradas siguientes en lugar de dejar marcas. Una posición está
+ * libre cuando no tiene jugador, así que no admite valores {@code null}. No es seguro para varios hilos.
+ */
+public class PlayerMap implements Iterable<Player> {
+
+    /**
+     * Capacidad mínima de los arrays.
+     */
+    private static final int MIN_CAPACITY = 16;
+
+    /**
+     * Id de cada posición; solo es válido si la posición tiene jugador.
+     */
+    private int[] keys;
+
+    /**
+     * Jugador de cada posición, o {@code null} si está libre.
+     */
+    private Player[] values;
+
+    /**
+     * Número de jugadores del mapa.
+     */
+    private int size;
+
+    /**
+     * Crea un mapa vacío.
+     */
+    public PlayerMap() {
+        this(0);
+    }
+
+    /**
+     * Crea un mapa vacío con sitio para un número de jugadores sin tener que crecer.
+     *
+     * @param expectedSize el número de jugadores previsto.
+     */
+    public PlayerMap(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < expectedSize * 2) {
+            capacity <<= 1;
+        }
+        keys = new int[capacity];
+        values = new Player[capacity];
+    }
+
+    /**
+     * Obtiene el número de jugadores del mapa.
+     *
+     * @return el número de jugadores.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Comprueba si el mapa está vacío.
+     *
+     * @return {@code true} si no tiene jugadores.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Busca un jugador por su id.
+     *
+     * @param id el id del jugador.
+     * @return el jugador, o {@code null} si no está en el mapa.
+     */
+    public Player get(int id) {
+        int slot = find(id);
+        return slot < 0 ? null : values[slot];
+    }
+
+    /**
+     * Comprueba si un id está en el mapa.
+     *
+     * @param id el id del jugador.
+     * @return {@code true} si hay un jugador con ese id.
+     */
+    public boolean containsKey(int id) {
+        return find(id) >= 0;
+    }
+
+    /**
+     * Guarda un jugador con un id, sustituyendo al que hubiera.
+     *
+     * @param id     el id del jugador.
+     * @param player el jugador, que no puede ser {@code null}.
+     * @return el jugador que había con ese id, o {@code null} si no había ninguno.
+     */
+    public Player put(int id, Player player) {
+        if (player == null) throw new NullPointerException("El mapa no admite jugadores null");
+        int mask = values.length - 1;
+        int slot = hash(id) & mask;
+        while (values[slot] != null) {
+            if (keys[slot] == id) {
+                Player previous = values[slot];
+                values[slot] = player;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = id;
+        values[slot] = player;
+        if (++size * 2 > values.length) grow();
+        return null;
+    }
+
+    /**
+     * Quita un jugador del mapa.
+     *
+     * @param id el id del jugador.
+     * @return el jugador quitado, o {@code null} si no estaba.
+     */
+    public Player remove(int id) {
+        int slot = find(id);
+        if (slot < 0) return null;
+        Player removed = values[slot];
+        int mask = values.length - 1;
+        int free = slot;
+        int next = (slot + 1) & mask;
+        while (values[next] != null) {
+            int home = hash(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - free) & mask)) {
+                keys[free] = keys[next];
+                values[free] = values[next];
+                free = next;
+            }
+            next = (next + 1) & mask;
+        }
+        values[free] = null;
+        size--;
+        return removed;
+    }
+
+    /**
+     * Vacía el mapa.
+     */
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    /**
+     * Recorre los jugadores del mapa, sin un orden definido.
+     *
+     * @return un iterador sobre los jugadores.
+     */
+    @Override
+    public Iterator<Player> iterator() {
+        return new Iterator<>() {
+            private int slot = advance(0);
+
+            @Override
+            public boolean hasNext() {
+                return slot < values.length;
+            }
+
+            @Override
+            public Player next() {
+                if (slot >= values.length) throw new NoSuchElementException();
+                Player player = values[slot];
+                slot = advance(slot + 1);
+                return player;
+            }
+        };
+    }
+
+    /**
+     * Busca la siguiente posición ocupada.
+     *
+     * @param from la posición desde la que buscar.
+     * @return la posición ocupada, o la capacidad si no quedan.
+     */
+    private int advance(int from) {
+        while (from < values.length && values[from] == null) {
+            from++;
+        }
+        return from;
+    }
+
+    /**
+     * Busca la posición de un id.
+     *
+     * @param id el id del jugador.
+     * @return la posición, o -1 si no está en el mapa.
+     */
+    private int find(int id) {
+        int mask = values.length - 1;
+        int slot = hash(id) & mask;
+        while (values[slot] != null) {
+            if (keys[slot] == id) return slot;
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Duplica la capacidad y vuelve a colocar todos los jugadores.
+     */
+    private void grow() {
+        int[] oldKeys = keys;
+        Player[] oldValues = values;
+        keys = new int[oldKeys.length * 2];
+        values = new Player[oldValues.length * 2];
+        int mask = values.length - 1;
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] == null) continue;
+            int slot = hash(oldKeys[i]) & mask;
+            while (values[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = oldKeys[i];
+            values[slot] = oldValues[i];
+        }
+    }
+
+    /**
+     * Mezcla los bits de un id para repartir por igual los ids consecutivos o con patrones.
+     *
+     * @param id el id.
+     * @return el id mezclado.
+     */
+    static int hash(int id) {
+        int h = id * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,212 @@
+package org.marcosjfx.marcosfx.backend;
+
+/**
+ * Criterios de búsqueda de jugadores en el catálogo, por ejemplo "porteros con calificación de al menos
+ * 80 y valor de hasta 20 millones":
+ * <pre>{@code
+ * new PlayerQuery().position(Position.GK).minRating(80).maxMarketValue(20_000_000)
+ * }</pre>
+ * Los criterios que no se indican no filtran. Se resuelve con {@link PlayerStore#query(PlayerQuery)}.
+ */
+public class PlayerQuery {
+
+    /**
+     * Posición exigida, o {@code null} para cualquiera.
+     */
+    private Position position;
+
+    /**
+     * Id del club exigido, o {@code null} para cualquiera.
+     */
+    private Integer teamID;
+
+    /**
+     * Calificación mínima.
+     */
+    private int minRating = Integer.MIN_VALUE;
+
+    /**
+     * Calificación máxima.
+     */
+    private int maxRating = Integer.MAX_VALUE;
+
+    /**
+     * Valor de mercado mínimo.
+     */
+    private int minMarketValue = Integer.MIN_VALUE;
+
+    /**
+     * Valor de mercado máximo.
+     */
+    private int maxMarketValue = Integer.MAX_VALUE;
+
+    /**
+     * Edad mínima.
+     */
+    private int minAge = Integer.MIN_VALUE;
+
+    /**
+     * Edad máxima.
+     */
+    private int maxAge = Integer.MAX_VALUE;
+
+    /**
+     * Exige una posición.
+     *
+     * @param position la posición.
+     * @return esta consulta.
+     */
+    public PlayerQuery position(Position position) {
+        this.position = position;
+        return this;
+    }
+
+    /**
+     * Exige un club.
+     *
+     * @param teamID el id del club.
+     * @return esta consulta.
+     */
+    public PlayerQuery teamID(int teamID) {
+        this.teamID = teamID;
+        return this;
+    }
+
+    /**
+     * Exige una calificación mínima.
+     *
+     * @param minRating la calificación mínima, incluida.
+     * @return esta consulta.
+     */
+    public PlayerQuery minRating(int minRating) {
+        this.minRating = minRating;
+        return this;
+    }
+
+    /**
+     * Exige una calificación máxima.
+     *
+     * @param maxRating la calificación máxima, incluida.
+     * @return esta consulta.
+     */
+    public PlayerQuery maxRating(int maxRating) {
+        this.maxRating = maxRating;
+        return this;
+    }
+
+    /**
+     * Exige un valor de mercado mínimo.
+     *
+     * @param minMarketValue el valor mínimo, incluido.
+     * @return esta consulta.
+     */
+    public PlayerQuery minMarketValue(int minMarketValue) {
+        this.minMarketValue = minMarketValue;
+        return this;
+    }
+
+    /**
+     * Exige un valor de mercado máximo.
+     *
+     * @param maxMarketValue el valor máximo, incluido.
+     * @return esta consulta.
+     */
+    public PlayerQuery maxMarketValue(int maxMarketValue) {
+        this.maxMarketValue = maxMarketValue;
+        return this;
+    }
+
+    /**
+     * Exige una edad mínima.
+     *
+     * @param minAge la edad mínima, incluida.
+     * @return esta consulta.
+     */
+    public PlayerQuery minAge(int minAge) {
+        this.minAge = minAge;
+        return this;
+    }
+
+    /**
+     * Exige una edad máxima.
+     *
+     * @param maxAge la edad máxima, incluida.
+     * @return esta consulta.
+     */
+    public PlayerQuery maxAge(int maxAge) {
+        this.maxAge = maxAge;
+        return this;
+    }
+
+    /**
+     * Obtiene la posición exigida.
+     *
+     * @return la posición, o {@code null} si no se filtra por posición.
+     */
+    Position getPosition() {
+        return position;
+    }
+
+    /**
+     * Obtiene el club exigido.
+     *
+     * @return el id del club, o {@code null} si no se filtra por club.
+     */
+    Integer getTeamID() {
+        return teamID;
+    }
+
+    /**
+     * Obtiene la calificación mínima.
+     *
+     * @return la calificación mínima.
+     */
+    int getMinRating() {
+        return minRating;
+    }
+
+    /**
+     * Obtiene la calificación máxima.
+     *
+     * @return la calificación máxima.
+     */
+    int getMaxRating() {
+        return maxRating;
+    }
+
+    /**
+     * Obtiene el valor de mercado mínimo.
+     *
+     * @return el valor mínimo.
+     */
+    int getMinMarketValue() {
+        return minMarketValue;
+    }
+
+    /**
+     * Obtiene el valor de mercado máximo.
+     *
+     * @return el valor máximo.
+     */
+    int getMaxMarketValue() {
+        return maxMarketValue;
+    }
+
+    /**
+     * Obtiene la edad mínima.
+     *
+     * @return la edad mínima.
+     */
+    int getMinAge() {
+        return minAge;
+    }
+
+    /**
+     * Obtiene la edad máxima.
+     *
+     * @return la edad máxima.
+     */
+    int getMaxAge() {
+        return maxAge;
+    }
+}
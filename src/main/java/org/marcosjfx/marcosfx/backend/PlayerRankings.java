@@ -0,0 +1,318 @@
+package org.marcosjfx.marcosfx.backend;
+
+import java.io.Serial;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Clasificaciones de los mejores jugadores del catálogo según distintos criterios.
+ * <p>
+ * Cada clasificación se calcula en una sola pasada sobre las columnas de un {@link PlayerStore}: las
+ * filas se reparten en bloques que se procesan en paralelo con fork-join, cada bloque guarda sus mejores
+ * jugadores en un montículo acotado al tamaño de la clasificación y los montículos se combinan al final,
+ * así que nunca se ordena el catálogo entero.
+ * <p>
+ * Después de cada jornada las clasificaciones se actualizan a partir de las anteriores: los jugadores que
+ * estaban en la clasificación se vuelven a puntuar y el peor de ellos marca el mínimo que necesita
+ * cualquier otro jugador para entrar, de modo que la gran mayoría de filas se descartan con una sola
+ * comparación sin tocar el montículo. La clasificación por calificación no cambia con las jornadas y no se
+ * vuelve a calcular.
+ */
+public class PlayerRankings {
+
+    /**
+     * Número de jugadores de cada clasificación.
+     */
+    public static final int SIZE = 10;
+
+    /**
+     * Número de filas a partir del cual un bloque se divide en dos tareas.
+     */
+    private static final int SPLIT_THRESHOLD = 8192;
+
+    /**
+     * Criterios por los que se clasifica a los jugadores.
+     */
+    public enum Ranking {
+        /**
+         * Calificación del jugador.
+         */
+        RATING,
+        /**
+         * Suma de goles y asistencias.
+         */
+        GOAL_CONTRIBUTIONS,
+        /**
+         * Paradas, solo entre los porteros.
+         */
+        SAVES,
+        /**
+         * Calificación por cada millón de valor de mercado, entre los jugadores con valor positivo.
+         */
+        VALUE_FOR_MONEY
+    }
+
+    /**
+     * Almacén clasificado.
+     */
+    private final PlayerStore store;
+
+    /**
+     * Clasificación actual de cada criterio.
+     */
+    private final Map<Ranking, TopRows> tops = new EnumMap<>(Ranking.class);
+
+    /**
+     * Calcula todas las clasificaciones de un almacén. Debe llamarse con el bloqueo del almacén adquirido.
+     *
+     * @param store el almacén a clasificar.
+     */
+    PlayerRankings(PlayerStore store) {
+        this.store = store;
+        for (Ranking ranking : Ranking.values()) {
+            tops.put(ranking, select(ranking, Double.NEGATIVE_INFINITY));
+        }
+    }
+
+    /**
+     * Actualiza las clasificaciones después de que cambien las estadísticas o los valores de mercado.
+     * Debe llamarse con el bloqueo del almacén adquirido.
+     */
+    void refresh() {
+        for (Ranking ranking : Ranking.values()) {
+            if (ranking == Ranking.RATING) continue;
+            TopRows previous = tops.get(ranking);
+            double cutoff = Double.NEGATIVE_INFINITY;
+            if (previous.size == SIZE) {
+                cutoff = Double.POSITIVE_INFINITY;
+                for (int i = 0; i < previous.size; i++) {
+                    double score = score(store, ranking, previous.rows[i]);
+                    if (Double.isNaN(score)) {
+                        cutoff = Double.NEGATIVE_INFINITY;
+                        break;
+                    }
+                    cutoff = Math.min(cutoff, score);
+                }
+            }
+            tops.put(ranking, select(ranking, cutoff));
+        }
+    }
+
+    /**
+     * Obtiene las filas de los mejores jugadores de un criterio. A igual puntuación va antes la fila menor.
+     *
+     * @param ranking el criterio.
+     * @return como mucho {@link #SIZE} filas, de mejor a peor.
+     */
+    int[] top(Ranking ranking) {
+        return tops.get(ranking).sorted();
+    }
+
+    /**
+     * Busca los mejores jugadores de un criterio repartiendo el catálogo entre varios hilos.
+     *
+     * @param ranking el criterio.
+     * @param cutoff  la puntuación mínima que necesita una fila para entrar; los jugadores que la alcanzan
+     *                tienen que ser al menos {@link #SIZE} si no es infinito negativo.
+     * @return los mejores jugadores.
+     */
+    private TopRows select(Ranking ranking, double cutoff) {
+        return ForkJoinPool.commonPool().invoke(new Selection(store, ranking, cutoff, 0, store.size()));
+    }
+
+    /**
+     * Calcula la puntuación de una fila en un criterio.
+     *
+     * @param store   el almacén clasificado.
+     * @param ranking el criterio.
+     * @param row     la fila del jugador.
+     * @return la puntuación, mayor cuanto mejor, o {@code NaN} si el jugador no entra en la clasificación.
+     */
+    private static double score(PlayerStore store, Ranking ranking, int row) {
+        return switch (ranking) {
+            case RATING -> store.ratingColumn()[row];
+            case GOAL_CONTRIBUTIONS -> store.goalsColumn()[row] + store.assistsColumn()[row];
+            case SAVES -> store.positionCodeColumn()[row] == Position.GK.ordinal() ? store.savesColumn()[row] : Double.NaN;
+            case VALUE_FOR_MONEY -> {
+                int marketValue = store.marketValueColumn()[row];
+                yield marketValue > 0 ? store.ratingColumn()[row] * 1_000_000.0 / marketValue : Double.NaN;
+            }
+        };
+    }
+
+    /**
+     * Tarea que busca los mejores jugadores de un rango de filas, dividiéndolo en dos mitades si es grande.
+     */
+    private static class Selection extends RecursiveTask<TopRows> {
+
+        /**
+         * Versión de la forma serializada; las tareas nunca se serializan, pero {@link RecursiveTask} es
+         * serializable.
+         */
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Almacén clasificado.
+         */
+        private final transient PlayerStore store;
+
+        /**
+         * Criterio de la clasificación.
+         */
+        private final Ranking ranking;
+
+        /**
+         * Puntuación mínima para entrar.
+         */
+        private final double cutoff;
+
+        /**
+         * Primera fila del rango.
+         */
+        private final int from;
+
+        /**
+         * Fila siguiente a la última del rango.
+         */
+        private final int to;
+
+        /**
+         * Crea la tarea de un rango de filas.
+         *
+         * @param store   el almacén clasificado.
+         * @param ranking el criterio.
+         * @param cutoff  la puntuación mínima para entrar.
+         * @param from    la primera fila, incluida.
+         * @param to      la última fila, excluida.
+         */
+        Selection(PlayerStore store, Ranking ranking, double cutoff, int from, int to) {
+            this.store = store;
+            this.ranking = ranking;
+            this.cutoff = cutoff;
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * Recorre el rango o lo divide en dos tareas y combina sus resultados.
+         *
+         * @return los mejores jugadores del rango.
+         */
+        @Override
+        protected TopRows compute() {
+            if (to - from > SPLIT_THRESHOLD) {
+                int middle = (from + to) >>> 1;
+                Selection left = new Selection(store, ranking, cutoff, from, middle);
+                left.fork();
+                TopRows right = new Selection(store, ranking, cutoff, middle, to).compute();
+                TopRows merged = left.join();
+                for (int i = 0; i < right.size; i++) {
+                    merged.offer(right.rows[i], right.scores[i]);
+                }
+                return merged;
+            }
+
+            TopRows top = new TopRows();
+            for (int row = from; row < to; row++) {
+                double score = score(store, ranking, row);
+                if (score >= cutoff) top.offer(row, score);
+            }
+            return top;
+        }
+    }
+
+    /**
+     * Montículo de mínimos acotado a {@link #SIZE} filas: en la raíz está la peor de las guardadas, que es
+     * la que sale cuando llega una mejor.
+     */
+    private static class TopRows {
+
+        /**
+         * Filas guardadas, en orden de montículo.
+         */
+        private final int[] rows = new int[SIZE];
+
+        /**
+         * Puntuación de cada fila guardada, en el mismo orden que {@link #rows}.
+         */
+        private final double[] scores = new double[SIZE];
+
+        /**
+         * Número de filas guardadas.
+         */
+        private int size;
+
+        /**
+         * Propone una fila: se guarda si todavía hay sitio o si es mejor que la peor guardada.
+         *
+         * @param row   la fila.
+         * @param score su puntuación.
+         */
+        void offer(int row, double score) {
+            if (size < SIZE) {
+                int child = size++;
+                while (child > 0) {
+                    int parent = (child - 1) >>> 1;
+                    if (!worse(score, row, scores[parent], rows[parent])) break;
+                    rows[child] = rows[parent];
+                    scores[child] = scores[parent];
+                    child = parent;
+                }
+                rows[child] = row;
+                scores[child] = score;
+            } else if (worse(scores[0], rows[0], score, row)) {
+                int parent = 0;
+                while (true) {
+                    int child = 2 * parent + 1;
+                    if (child >= size) break;
+                    if (child + 1 < size && worse(scores[child + 1], rows[child + 1], scores[child], rows[child])) {
+                        child++;
+                    }
+                    if (!worse(scores[child], rows[child], score, row)) break;
+                    rows[parent] = rows[child];
+                    scores[parent] = scores[child];
+                    parent = child;
+                }
+                rows[parent] = row;
+                scores[parent] = score;
+            }
+        }
+
+        /**
+         * Obtiene las filas guardadas de mejor a peor. Solo ordena las filas del montículo.
+         *
+         * @return las filas ordenadas.
+         */
+        int[] sorted() {
+            int[] result = new int[size];
+            double[] resultScores = new double[size];
+            for (int i = 0; i < size; i++) {
+                int position = i;
+                while (position > 0 && worse(resultScores[position - 1], result[position - 1], scores[i], rows[i])) {
+                    result[position] = result[position - 1];
+                    resultScores[position] = resultScores[position - 1];
+                    position--;
+                }
+                result[position] = rows[i];
+                resultScores[position] = scores[i];
+            }
+            return result;
+        }
+
+        /**
+         * Compara dos filas puntuadas.
+         *
+         * @param score      la puntuación de la primera fila.
+         * @param row        la primera fila.
+         * @param otherScore la puntuación de la segunda fila.
+         * @param otherRow   la segunda fila.
+         * @return {@code true} si la primera va detrás de la segunda en la clasificación.
+         */
+        private static boolean worse(double score, int row, double otherScore, int otherRow) {
+            return score < otherScore || (score == otherScore && row > otherRow);
+        }
+    }
+}
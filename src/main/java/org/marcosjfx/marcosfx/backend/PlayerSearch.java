@@ -0,0 +1,84 @@
+package org.marcosjfx.marcosfx.backend;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+
+/**
+ * Búsqueda de jugadores por nombre o club mientras se escribe, sin distinguir mayúsculas ni tildes.
+ * <p>
+ * Cada palabra escrita debe ser el principio de alguna palabra del nombre o del club del jugador; por
+ * ejemplo "l. sua" encuentra a "L. Suárez" y "real" a todos los jugadores del Real Madrid. La búsqueda
+ * recuerda el resultado anterior: si el texto nuevo solo añade letras o palabras al anterior, el resultado
+ * nuevo se obtiene refinando el anterior en lugar de empezar de cero.
+ * <p>
+ * Se obtiene con {@link PlayerStore#newSearch()}; cada cuadro de búsqueda debe usar su propia instancia.
+ */
+public class PlayerSearch {
+
+    /**
+     * Índice de palabras del catálogo.
+     */
+    private final NameIndex index;
+
+    /**
+     * Palabras de la búsqueda anterior.
+     */
+    private String[] previousTokens = new String[0];
+
+    /**
+     * Resultado de la búsqueda anterior, o {@code null} si no había ninguna.
+     */
+    private BitSet previousResult;
+
+    /**
+     * Crea una búsqueda sobre un índice.
+     *
+     * @param index el índice de palabras del catálogo.
+     */
+    PlayerSearch(NameIndex index) {
+        this.index = index;
+    }
+
+    /**
+     * Busca los jugadores cuyo nombre o club contiene palabras que empiezan por las palabras del texto.
+     *
+     * @param text el texto escrito.
+     * @return las filas de los jugadores encontrados, de menor a mayor, o {@code null} si el texto no
+     * tiene ninguna palabra y por tanto no filtra.
+     */
+    public synchronized int[] search(String text) {
+        String[] tokens = NameIndex.tokens(NameIndex.fold(text));
+        if (tokens.length == 0) {
+            previousTokens = tokens;
+            previousResult = null;
+            return null;
+        }
+
+        boolean refines = previousResult != null && tokens.length >= previousTokens.length;
+        for (int i = 0; i < previousTokens.length && refines; i++) {
+            refines = tokens[i].startsWith(previousTokens[i]);
+        }
+
+        BitSet result;
+        if (refines) {
+            result = (BitSet) previousResult.clone();
+            for (int i = 0; i < tokens.length; i++) {
+                if (i >= previousTokens.length || !tokens[i].equals(previousTokens[i])) {
+                    index.retainRowsWithPrefix(result, tokens[i]);
+                }
+            }
+        } else {
+            String[] sorted = tokens.clone();
+            Arrays.sort(sorted, Comparator.comparingInt(index::countPrefix));
+            result = index.rowsWithPrefix(sorted[0]);
+            for (int i = 1; i < sorted.length; i++) {
+                index.retainRowsWithPrefix(result, sorted[i]);
+            }
+        }
+
+        previousTokens = tokens;
+        previousResult = result;
+        return result.stream().toArray();
+    }
+}
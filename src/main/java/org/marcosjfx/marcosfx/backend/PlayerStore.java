@@ -0,0 +1,968 @@
+package org.marcosjfx.marcosfx.backend;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Almacén columnar con la información de todos los jugadores del archivo CSV.
+ * <p>
+ * En lugar de guardar un objeto {@link Player} por fila, cada atributo se guarda en su propio
+ * array de primitivos. Los clubes y sus escudos se codifican con un {@link StringDictionary} y las
+ * posiciones con el ordinal de {@link Position}, así que las comparaciones y agrupaciones por club o
+ * posición se hacen con enteros. Los objetos {@link Player} solo se crean cuando se piden.
+ * El archivo se lee una única vez por ejecución y se reutiliza cada vez que se abre el mercado.
+ * <p>
+ * Cada vez que se lee o se guarda el CSV también se guarda una {@link CatalogSnapshot copia binaria}
+ * del catálogo, y las siguientes ejecuciones la cargan directamente mientras el CSV no cambie.
+ * <p>
+ * Las estadísticas que cambian en cada jornada (valor de mercado, goles, asistencias y paradas) se
+ * guardan aparte en un {@link StatsFile archivo de estadísticas} con {@link #saveStats(Path)}, que solo
+ * escribe los jugadores modificados; al cargar el catálogo, sus valores sustituyen a los del CSV.
+ */
+public class PlayerStore {
+
+    /**
+     * Almacenes ya cargados, uno por cada archivo CSV.
+     */
+    private static final Map<Path, PlayerStore> STORES = new HashMap<>();
+
+    /**
+     * Tiempo de la carga de un catálogo, desde la copia binaria o desde el CSV.
+     */
+    private static final Metrics.Timer LOAD_TIMER = Metrics.timer("catalog.load");
+
+    /**
+     * Tiempo del guardado de las estadísticas modificadas.
+     */
+    private static final Metrics.Timer SAVE_STATS_TIMER = Metrics.timer("catalog.saveStats");
+
+    /**
+     * Número de registros escritos en el archivo de estadísticas.
+     */
+    private static final Metrics.Counter STATS_RECORDS_WRITTEN = Metrics.counter("catalog.statsRecordsWritten");
+
+    static {
+        Metrics.gauge("catalog.players", PlayerStore::loadedPlayerCount);
+    }
+
+    /**
+     * Cabecera del archivo CSV, se conserva para reescribirla tal cual.
+     */
+    private final String header;
+
+    /**
+     * Número de jugadores almacenados.
+     */
+    private final int size;
+
+    /**
+     * Identificadores de los jugadores.
+     */
+    private final int[] ids;
+
+    /**
+     * Nombres de los jugadores.
+     */
+    private final String[] names;
+
+    /**
+     * Calificaciones generales.
+     */
+    private final int[] ratings;
+
+    /**
+     * Valores de mercado.
+     */
+    private final int[] marketValues;
+
+    /**
+     * Edades.
+     */
+    private final int[] ages;
+
+    /**
+     * Identificadores de equipo.
+     */
+    private final int[] teamIDs;
+
+    /**
+     * Códigos del nombre del club dentro de {@link #clubNames}.
+     */
+    private final int[] clubCodes;
+
+    /**
+     * Ordinal de la {@link Position} de cada jugador.
+     */
+    private final int[] positionCodes;
+
+    /**
+     * Código original de la posición de las filas con {@link Position#UNKNOWN}, indexado por la fila, para
+     * volver a guardarlo igual. Las demás filas no aparecen.
+     */
+    private final Map<Integer, String> unknownPositionCodes;
+
+    /**
+     * Goles.
+     */
+    private final int[] goals;
+
+    /**
+     * Asistencias.
+     */
+    private final int[] assists;
+
+    /**
+     * Paradas.
+     */
+    private final int[] saves;
+
+    /**
+     * URLs de las imágenes de los jugadores, o {@code null} en las filas cuya URL es la habitual según
+     * su id, que se construye solo cuando se pide.
+     */
+    private final String[] playerImageURLs;
+
+    /**
+     * Códigos de la URL del escudo dentro de {@link #clubImageURLs}.
+     */
+    private final int[] clubImageCodes;
+
+    /**
+     * Diccionario de nombres de club.
+     */
+    private final StringDictionary clubNames = new StringDictionary();
+
+    /**
+     * Diccionario de URLs de escudos.
+     */
+    private final StringDictionary clubImageURLs = new StringDictionary();
+
+    /**
+     * Suma de los valores de mercado de los jugadores de cada club, indexada por el código del club.
+     * Se mantiene al día cada vez que cambia un valor de mercado, sin volver a recorrer los jugadores.
+     */
+    private final long[] clubMarketValues;
+
+    /**
+     * Filas de los jugadores ordenadas por id, para buscar la fila de un id con una búsqueda binaria.
+     */
+    private final int[] rowsById;
+
+    /**
+     * Un bit por fila, a 1 en las filas cuyas estadísticas han cambiado desde la última vez que se
+     * guardaron. Cada {@code long} agrupa 64 filas consecutivas.
+     */
+    private final long[] changedStats;
+
+    /**
+     * Bloqueo que ordena las escrituras del archivo de estadísticas. Se adquiere antes que el del almacén,
+     * para que las copias de las estadísticas se escriban en el mismo orden en que se tomaron.
+     */
+    private final Object statsFileLock = new Object();
+
+    /**
+     * Índices secundarios para las consultas, o {@code null} si todavía no se han creado.
+     */
+    private PlayerIndex index;
+
+    /**
+     * Indica si los valores de mercado han cambiado desde que se creó el índice de valor de mercado.
+     */
+    private boolean marketValuesChanged;
+
+    /**
+     * Índice de palabras de nombres y clubes, o {@code null} si todavía no se ha creado.
+     */
+    private NameIndex nameIndex;
+
+    /**
+     * Clasificaciones de los mejores jugadores, o {@code null} si todavía no se han calculado.
+     */
+    private PlayerRankings rankings;
+
+    /**
+     * Indica si las estadísticas han cambiado desde la última vez que se actualizaron las clasificaciones.
+     */
+    private boolean rankingsChanged;
+
+    /**
+     * Suma de los valores de mercado de los jugadores de cada club. Los dos arrays están indexados por el
+     * código del club, que no cambia mientras el almacén está abierto, así que quien los muestra puede
+     * identificar cada club por su código en lugar de por su nombre.
+     *
+     * @param clubNames    el nombre de cada club.
+     * @param marketValues la suma de los valores de mercado de los jugadores de cada club.
+     */
+    public record ClubMarketValues(String[] clubNames, long[] marketValues) {
+    }
+
+    /**
+     * Crea el almacén leyendo todas las filas de un archivo CSV.
+     *
+     * @param parser el lector del archivo, situado antes de la cabecera.
+     */
+    private PlayerStore(CsvParser parser) {
+        header = parser.nextRow() ? parser.getRow() : "";
+        size = parser.countRemainingRows();
+        ids = new int[size];
+        names = new String[size];
+        ratings = new int[size];
+        marketValues = new int[size];
+        ages = new int[size];
+        teamIDs = new int[size];
+        clubCodes = new int[size];
+        positionCodes = new int[size];
+        goals = new int[size];
+        assists = new int[size];
+        saves = new int[size];
+        playerImageURLs = new String[size];
+        clubImageCodes = new int[size];
+        unknownPositionCodes = new HashMap<>();
+
+        for (int row = 0; row < size && parser.nextRow(); row++) {
+            ids[row] = parser.getInt(0);
+            names[row] = parser.getString(1);
+            ratings[row] = parser.getInt(2);
+            marketValues[row] = parser.getInt(3);
+            ages[row] = parser.getInt(4);
+            teamIDs[row] = parser.getInt(5);
+            clubCodes[row] = clubNames.encode(parser.getString(6));
+            String positionCode = parser.getString(7);
+            Position position = Position.parse(positionCode);
+            positionCodes[row] = position.ordinal();
+            if (position == Position.UNKNOWN) unknownPositionCodes.put(row, positionCode);
+            goals[row] = parser.getInt(8);
+            assists[row] = parser.getInt(9);
+            saves[row] = parser.getInt(10);
+            String playerImageURL = parser.getString(11);
+            playerImageURLs[row] = Player.isDefaultPlayerImageURL(playerImageURL, ids[row]) ? null : playerImageURL;
+            clubImageCodes[row] = clubImageURLs.encode(parser.getString(12));
+        }
+
+        clubMarketValues = sumClubMarketValues();
+        rowsById = sortRowsById();
+        changedStats = new long[(size + 63) >>> 6];
+    }
+
+    /**
+     * Crea el almacén a partir de la copia binaria del catálogo. Los datos se leen en el mismo orden
+     * en el que los escribe {@link #saveSnapshot(Path)}.
+     *
+     * @param snapshot la copia binaria, situada después de su cabecera.
+     */
+    private PlayerStore(CatalogSnapshot snapshot) {
+        header = snapshot.readString();
+        size = snapshot.getRowCount();
+        snapshot.readDictionary(clubNames);
+        snapshot.readDictionary(clubImageURLs);
+        ids = snapshot.readIntColumn();
+        ratings = snapshot.readIntColumn();
+        marketValues = snapshot.readIntColumn();
+        ages = snapshot.readIntColumn();
+        teamIDs = snapshot.readIntColumn();
+        clubCodes = snapshot.readIntColumn();
+        positionCodes = snapshot.readIntColumn();
+        goals = snapshot.readIntColumn();
+        assists = snapshot.readIntColumn();
+        saves = snapshot.readIntColumn();
+        clubImageCodes = snapshot.readIntColumn();
+        names = snapshot.readStringColumn();
+        playerImageURLs = snapshot.readStringColumn();
+        unknownPositionCodes = snapshot.readRowStrings();
+
+        clubMarketValues = sumClubMarketValues();
+        rowsById = sortRowsById();
+        changedStats = new long[(size + 63) >>> 6];
+    }
+
+    /**
+     * Calcula la suma de los valores de mercado de los jugadores de cada club.
+     *
+     * @return las sumas, indexadas por el código del club.
+     */
+    private long[] sumClubMarketValues() {
+        long[] sums = new long[clubNames.size()];
+        for (int row = 0; row < size; row++) {
+            sums[clubCodes[row]] += marketValues[row];
+        }
+        return sums;
+    }
+
+    /**
+     * Ordena las filas por el id de su jugador.
+     *
+     * @return las filas ordenadas por id.
+     */
+    private int[] sortRowsById() {
+        long[] idRows = new long[size];
+        for (int row = 0; row < size; row++) {
+            idRows[row] = ((long) ids[row] << 32) | row;
+        }
+        Arrays.sort(idRows);
+        int[] rows = new int[size];
+        for (int i = 0; i < size; i++) {
+            rows[i] = (int) idRows[i];
+        }
+        return rows;
+    }
+
+    /**
+     * Devuelve el almacén del archivo CSV indicado, leyéndolo solo la primera vez.
+     *
+     * @param csvPath ruta al archivo CSV de jugadores.
+     * @return el almacén con los jugadores del archivo.
+     * @throws IOException si no se puede leer el archivo.
+     */
+    public static synchronized PlayerStore open(Path csvPath) throws IOException {
+        Path key = csvPath.toAbsolutePath().normalize();
+        PlayerStore store = STORES.get(key);
+        if (store == null) {
+            store = load(key);
+            STORES.put(key, store);
+        }
+        return store;
+    }
+
+    /**
+     * Obtiene el número total de jugadores de los almacenes cargados con {@link #open(Path)}.
+     *
+     * @return el número de jugadores.
+     */
+    private static synchronized int loadedPlayerCount() {
+        int players = 0;
+        for (PlayerStore store : STORES.values()) {
+            players += store.size;
+        }
+        return players;
+    }
+
+    /**
+     * Crea un almacén nuevo con los jugadores de un archivo CSV, sin usar ni guardar nada en la caché
+     * de {@link #open(Path)}. Si hay una copia binaria que corresponde al CSV actual se carga esa copia;
+     * si no, se lee el CSV completo y se genera la copia para la próxima vez. Después se aplican las
+     * estadísticas del archivo de estadísticas, si corresponde al CSV actual.
+     *
+     * @param csvPath ruta al archivo CSV de jugadores.
+     * @return un almacén nuevo con los jugadores del archivo.
+     * @throws IOException si no se puede leer el archivo.
+     */
+    public static PlayerStore load(Path csvPath) throws IOException {
+        long start = LOAD_TIMER.start();
+        try {
+            return loadUntimed(csvPath);
+        } finally {
+            LOAD_TIMER.stop(start);
+        }
+    }
+
+    /**
+     * Carga un almacén nuevo como {@link #load(Path)}, sin medir el tiempo.
+     *
+     * @param csvPath ruta al archivo CSV de jugadores.
+     * @return un almacén nuevo con los jugadores del archivo.
+     * @throws IOException si no se puede leer el archivo.
+     */
+    private static PlayerStore loadUntimed(Path csvPath) throws IOException {
+        PlayerStore store = readSnapshot(csvPath);
+        if (store == null) {
+            try (CsvParser parser = CsvParser.open(csvPath)) {
+                store = new PlayerStore(parser);
+            }
+            store.saveSnapshot(csvPath);
+        }
+        store.readStats(csvPath);
+        return store;
+    }
+
+    /**
+     * Crea un almacén desde la copia binaria del catálogo, si corresponde al CSV actual.
+     *
+     * @param csvPath ruta al archivo CSV de jugadores.
+     * @return el almacén, o {@code null} si no hay una copia válida.
+     */
+    private static PlayerStore readSnapshot(Path csvPath) {
+        try (CatalogSnapshot snapshot = CatalogSnapshot.openIfCurrent(csvPath)) {
+            if (snapshot != null) return new PlayerStore(snapshot);
+        } catch (IOException | RuntimeException e) {
+            System.out.printf("Error leyendo la copia binaria del catálogo: %s\n", e.getMessage());
+            Metrics.error("catalog");
+        }
+        return null;
+    }
+
+    /**
+     * Sustituye las estadísticas leídas del CSV por las del archivo de estadísticas, si hay uno que
+     * corresponde al CSV actual, y vuelve a sumar los valores de mercado de cada club. Si no se puede
+     * leer, el error se muestra por consola y se mantienen las estadísticas del CSV.
+     *
+     * @param csvPath ruta al archivo CSV de jugadores.
+     */
+    private void readStats(Path csvPath) {
+        try {
+            if (!StatsFile.read(csvPath, statsColumns())) return;
+        } catch (IOException e) {
+            System.out.printf("Error leyendo las estadísticas del catálogo: %s\n", e.getMessage());
+            Metrics.error("catalog");
+            return;
+        }
+        long[] sums = sumClubMarketValues();
+        System.arraycopy(sums, 0, clubMarketValues, 0, sums.length);
+    }
+
+    /**
+     * Guarda en el archivo de estadísticas las de los jugadores que han cambiado desde la última vez,
+     * escribiendo solo sus registros en su posición del archivo. El CSV y su copia binaria no se tocan.
+     * <p>
+     * Las estadísticas cambiadas se copian con el bloqueo del almacén adquirido y se escriben después de
+     * soltarlo, así que las consultas no esperan al disco. Si la escritura falla, las filas copiadas se
+     * vuelven a marcar como cambiadas para que se guarden la próxima vez.
+     *
+     * @param csvPath ruta al archivo CSV de jugadores.
+     * @throws IOException si no se puede escribir el archivo de estadísticas.
+     */
+    public void saveStats(Path csvPath) throws IOException {
+        long start = SAVE_STATS_TIMER.start();
+        try {
+            synchronized (statsFileLock) {
+                StatsFile.Changes changes;
+                synchronized (this) {
+                    changes = StatsFile.copyChanged(statsColumns(), changedStats);
+                    Arrays.fill(changedStats, 0);
+                }
+                try {
+                    writeStats(csvPath, changes);
+                } catch (IOException e) {
+                    synchronized (this) {
+                        for (int row : changes.rows()) {
+                            changedStats[row >>> 6] |= 1L << row;
+                        }
+                    }
+                    throw e;
+                }
+            }
+        } finally {
+            SAVE_STATS_TIMER.stop(start);
+        }
+    }
+
+    /**
+     * Escribe en el archivo de estadísticas las filas copiadas por {@link #saveStats(Path)}. Si el archivo
+     * no existe o no corresponde al CSV actual, se copian todas las estadísticas y se escribe completo.
+     * Debe llamarse con {@link #statsFileLock} adquirido y sin el bloqueo del almacén.
+     *
+     * @param csvPath ruta al archivo CSV de jugadores.
+     * @param changes las filas cambiadas y sus estadísticas.
+     * @throws IOException si no se puede escribir el archivo de estadísticas.
+     */
+    private void writeStats(Path csvPath, StatsFile.Changes changes) throws IOException {
+        if (StatsFile.writeChanged(csvPath, size, changes)) {
+            STATS_RECORDS_WRITTEN.add(changes.rows().length);
+            return;
+        }
+        StatsFile.Columns columns;
+        synchronized (this) {
+            columns = statsColumns().copy();
+        }
+        StatsFile.writeAll(csvPath, columns);
+        STATS_RECORDS_WRITTEN.add(size);
+    }
+
+    /**
+     * Agrupa las columnas que se guardan en el archivo de estadísticas.
+     *
+     * @return las columnas del almacén, sin copiarlas.
+     */
+    private StatsFile.Columns statsColumns() {
+        return new StatsFile.Columns(ids, marketValues, goals, assists, saves);
+    }
+
+    /**
+     * Escribe el contenido actual del almacén en un archivo CSV.
+     * <p>
+     * Las filas se codifican directamente en bytes: los enteros se escriben dígito a dígito y los
+     * textos de los diccionarios se codifican una sola vez, sin crear una cadena por fila. Solo se
+     * construyen las URLs de las imágenes de los jugadores que siguen el formato habitual. Después se
+     * regeneran la copia binaria y el archivo de estadísticas, que dependen del contenido del CSV.
+     *
+     * @param csvPath ruta del archivo de destino.
+     * @throws IOException si no se puede escribir el archivo.
+     */
+    public void save(Path csvPath) throws IOException {
+        synchronized (statsFileLock) {
+            writeFiles(csvPath);
+        }
+    }
+
+    /**
+     * Escribe el CSV, su copia binaria y el archivo de estadísticas como {@link #save(Path)}. Debe llamarse
+     * con {@link #statsFileLock} adquirido, para no mezclarse con una escritura de {@link #saveStats(Path)}.
+     *
+     * @param csvPath ruta del archivo de destino.
+     * @throws IOException si no se puede escribir el archivo.
+     */
+    private synchronized void writeFiles(Path csvPath) throws IOException {
+        byte[][] clubBytes = clubNames.encodedValues();
+        byte[][] positionBytes = positionBytes();
+        byte[][] clubImageBytes = clubImageURLs.encodedValues();
+        byte[] lineSeparator = System.lineSeparator().getBytes(StandardCharsets.UTF_8);
+        byte[] digits = new byte[11];
+
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(csvPath), 1 << 16)) {
+            out.write(header.getBytes(StandardCharsets.UTF_8));
+            out.write(lineSeparator);
+            for (int row = 0; row < size; row++) {
+                writeInt(out, ids[row], digits);
+                out.write(',');
+                out.write(names[row].getBytes(StandardCharsets.UTF_8));
+                out.write(',');
+                writeInt(out, ratings[row], digits);
+                out.write(',');
+                writeInt(out, marketValues[row], digits);
+                out.write(',');
+                writeInt(out, ages[row], digits);
+                out.write(',');
+                writeInt(out, teamIDs[row], digits);
+                out.write(',');
+                out.write(clubBytes[clubCodes[row]]);
+                out.write(',');
+                if (positionCodes[row] == Position.UNKNOWN.ordinal()) {
+                    out.write(unknownPositionCodes.get(row).getBytes(StandardCharsets.UTF_8));
+                } else {
+                    out.write(positionBytes[positionCodes[row]]);
+                }
+                out.write(',');
+                writeInt(out, goals[row], digits);
+                out.write(',');
+                writeInt(out, assists[row], digits);
+                out.write(',');
+                writeInt(out, saves[row], digits);
+                out.write(',');
+                if (playerImageURLs[row] != null) {
+                    out.write(playerImageURLs[row].getBytes(StandardCharsets.UTF_8));
+                } else {
+                    out.write(Player.defaultPlayerImageURL(ids[row]).getBytes(StandardCharsets.UTF_8));
+                }
+                out.write(',');
+                out.write(clubImageBytes[clubImageCodes[row]]);
+                out.write(lineSeparator);
+            }
+        }
+        saveSnapshot(csvPath);
+        try {
+            StatsFile.writeAll(csvPath, statsColumns());
+            Arrays.fill(changedStats, 0);
+        } catch (IOException e) {
+            System.out.printf("Error guardando las estadísticas del catálogo: %s\n", e.getMessage());
+            Metrics.error("catalog");
+        }
+    }
+
+    /**
+     * Guarda la copia binaria del catálogo correspondiente al contenido actual del CSV. Si no se puede
+     * guardar, el error se muestra por consola y la próxima carga leerá el CSV.
+     *
+     * @param csvPath ruta al archivo CSV, que ya debe tener el contenido actual del almacén.
+     */
+    private synchronized void saveSnapshot(Path csvPath) {
+        try (CatalogSnapshot.Writer writer = new CatalogSnapshot.Writer(csvPath, size)) {
+            writer.writeString(header);
+            writer.writeDictionary(clubNames);
+            writer.writeDictionary(clubImageURLs);
+            writer.writeIntColumn(ids);
+            writer.writeIntColumn(ratings);
+            writer.writeIntColumn(marketValues);
+            writer.writeIntColumn(ages);
+            writer.writeIntColumn(teamIDs);
+            writer.writeIntColumn(clubCodes);
+            writer.writeIntColumn(positionCodes);
+            writer.writeIntColumn(goals);
+            writer.writeIntColumn(assists);
+            writer.writeIntColumn(saves);
+            writer.writeIntColumn(clubImageCodes);
+            writer.writeStringColumn(names);
+            writer.writeStringColumn(playerImageURLs);
+            writer.writeRowStrings(unknownPositionCodes);
+            writer.commit();
+        } catch (IOException e) {
+            System.out.printf("Error guardando la copia binaria del catálogo: %s\n", e.getMessage());
+            Metrics.error("catalog");
+        }
+    }
+
+    /**
+     * Codifica en UTF-8 el código de cada posición.
+     *
+     * @return los bytes de cada posición, indexados por su ordinal.
+     */
+    private static byte[][] positionBytes() {
+        byte[][] encoded = new byte[Position.count()][];
+        for (int code = 0; code < encoded.length; code++) {
+            encoded[code] = Position.fromCode(code).name().getBytes(StandardCharsets.UTF_8);
+        }
+        return encoded;
+    }
+
+    /**
+     * Escribe un entero en decimal sin crear ninguna cadena.
+     *
+     * @param out    el flujo de salida.
+     * @param value  el entero a escribir.
+     * @param digits buffer auxiliar de al menos 11 bytes.
+     * @throws IOException si no se puede escribir.
+     */
+    private static void writeInt(OutputStream out, int value, byte[] digits) throws IOException {
+        if (value == Integer.MIN_VALUE) {
+            out.write(Integer.toString(value).getBytes(StandardCharsets.US_ASCII));
+            return;
+        }
+        if (value < 0) {
+            out.write('-');
+            value = -value;
+        }
+        int position = digits.length;
+        do {
+            digits[--position] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        out.write(digits, position, digits.length - position);
+    }
+
+    /**
+     * Obtiene el número de jugadores del almacén.
+     *
+     * @return el número de jugadores.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Crea un objeto {@link Player} con los datos actuales de una fila.
+     *
+     * @param row la fila del jugador, entre 0 y {@link #size()} - 1.
+     * @return un nuevo jugador con la información de la fila.
+     */
+    public synchronized Player getPlayer(int row) {
+        return new Player(ids[row], names[row], ratings[row], marketValues[row], ages[row], teamIDs[row],
+                goals[row], assists[row], saves[row], clubNames.decode(clubCodes[row]),
+                Position.fromCode(positionCodes[row]), positionCode(row), playerImageURLs[row],
+                clubImageURLs.decode(clubImageCodes[row]));
+    }
+
+    /**
+     * Obtiene el código de la posición de una fila tal y como estaba en el CSV.
+     *
+     * @param row la fila del jugador.
+     * @return el nombre de la posición, o el código original si es {@link Position#UNKNOWN}.
+     */
+    private String positionCode(int row) {
+        if (positionCodes[row] == Position.UNKNOWN.ordinal()) return unknownPositionCodes.get(row);
+        return Position.fromCode(positionCodes[row]).name();
+    }
+
+    /**
+     * Obtiene el identificador del jugador de una fila.
+     *
+     * @param row la fila del jugador.
+     * @return el identificador del jugador.
+     */
+    public int getId(int row) {
+        return ids[row];
+    }
+
+    /**
+     * Busca la fila de un jugador a partir de su id.
+     *
+     * @param id el identificador del jugador.
+     * @return la fila del jugador, o -1 si no está en el almacén.
+     */
+    public int findRow(int id) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int middleId = ids[rowsById[middle]];
+            if (middleId < id) low = middle + 1;
+            else if (middleId > id) high = middle - 1;
+            else return rowsById[middle];
+        }
+        return -1;
+    }
+
+    /**
+     * Busca los jugadores que cumplen una consulta usando índices sobre la posición, el club, la
+     * calificación, el valor de mercado y la edad, sin recorrer todo el catálogo. Los índices se crean
+     * la primera vez que se consulta.
+     *
+     * @param query los criterios de búsqueda.
+     * @return las filas de los jugadores que cumplen todos los criterios, de menor a mayor.
+     */
+    public synchronized int[] query(PlayerQuery query) {
+        if (index == null) {
+            index = new PlayerIndex(this);
+        } else if (marketValuesChanged) {
+            index.refreshMarketValues();
+        }
+        marketValuesChanged = false;
+        return index.query(query);
+    }
+
+    /**
+     * Crea una búsqueda por nombre o club sobre el catálogo. El índice de palabras se crea la primera
+     * vez y lo comparten todas las búsquedas.
+     *
+     * @return una búsqueda nueva, sin resultados anteriores.
+     */
+    public synchronized PlayerSearch newSearch() {
+        if (nameIndex == null) nameIndex = new NameIndex(this);
+        return new PlayerSearch(nameIndex);
+    }
+
+    /**
+     * Obtiene los mejores jugadores de un criterio. Las clasificaciones se calculan la primera vez y,
+     * después de cada jornada, se actualizan a partir de las anteriores en lugar de ordenar el catálogo.
+     *
+     * @param ranking el criterio de la clasificación.
+     * @return como mucho {@link PlayerRankings#SIZE} filas, de mejor a peor.
+     */
+    public synchronized int[] topRows(PlayerRankings.Ranking ranking) {
+        if (rankings == null) {
+            rankings = new PlayerRankings(this);
+        } else if (rankingsChanged) {
+            rankings.refresh();
+        }
+        rankingsChanged = false;
+        return rankings.top(ranking);
+    }
+
+    /**
+     * Obtiene el valor de mercado del jugador de una fila.
+     *
+     * @param row la fila del jugador.
+     * @return el valor de mercado.
+     */
+    public int getMarketValue(int row) {
+        return marketValues[row];
+    }
+
+    /**
+     * Obtiene el nombre del club del jugador de una fila.
+     *
+     * @param row la fila del jugador.
+     * @return el nombre del club.
+     */
+    public String getClubName(int row) {
+        return clubNames.decode(clubCodes[row]);
+    }
+
+    /**
+     * Obtiene la posición del jugador de una fila.
+     *
+     * @param row la fila del jugador.
+     * @return la posición del jugador.
+     */
+    public Position getPosition(int row) {
+        return Position.fromCode(positionCodes[row]);
+    }
+
+    /**
+     * Obtiene la suma de los valores de mercado de los jugadores de cada club. Las sumas ya están
+     * calculadas, así que no se recorre ningún jugador.
+     *
+     * @return los nombres y las sumas de todos los clubes, indexados por el código del club.
+     */
+    public synchronized ClubMarketValues getMarketValueByClub() {
+        String[] clubNameValues = new String[clubMarketValues.length];
+        for (int code = 0; code < clubNameValues.length; code++) {
+            clubNameValues[code] = clubNames.decode(code);
+        }
+        return new ClubMarketValues(clubNameValues, clubMarketValues.clone());
+    }
+
+    /**
+     * Obtiene los goles del jugador de una fila.
+     *
+     * @param row la fila del jugador.
+     * @return el número de goles.
+     */
+    public int getGoals(int row) {
+        return goals[row];
+    }
+
+    /**
+     * Obtiene las asistencias del jugador de una fila.
+     *
+     * @param row la fila del jugador.
+     * @return el número de asistencias.
+     */
+    public int getAssists(int row) {
+        return assists[row];
+    }
+
+    /**
+     * Obtiene las paradas del jugador de una fila.
+     *
+     * @param row la fila del jugador.
+     * @return el número de paradas.
+     */
+    public int getSaves(int row) {
+        return saves[row];
+    }
+
+    /**
+     * Obtiene el nombre de un club a partir de su código. Los códigos van de 0 a
+     * {@link #getClubCount()} - 1 en el orden en el que aparecen los clubes en el archivo y no cambian.
+     *
+     * @param code el código del club.
+     * @return el nombre del club.
+     */
+    public String getClubNameByCode(int code) {
+        return clubNames.decode(code);
+    }
+
+    /**
+     * Obtiene el número de clubes distintos del almacén.
+     *
+     * @return el número de clubes.
+     */
+    public int getClubCount() {
+        return clubNames.size();
+    }
+
+    /**
+     * Obtiene el código del club del jugador de una fila.
+     *
+     * @param row la fila del jugador.
+     * @return el código del club.
+     */
+    public int getClubCode(int row) {
+        return clubCodes[row];
+    }
+
+    /**
+     * Suma a cada club un cambio en el valor de mercado total de sus jugadores y marca el índice de
+     * valor de mercado y las clasificaciones para actualizarlos en la próxima consulta.
+     * Debe llamarse con el bloqueo del almacén adquirido.
+     *
+     * @param deltas el cambio de cada club, indexado por su código.
+     */
+    void addClubMarketValues(long[] deltas) {
+        for (int code = 0; code < deltas.length; code++) {
+            clubMarketValues[code] += deltas[code];
+        }
+        marketValuesChanged = true;
+        rankingsChanged = true;
+    }
+
+    /**
+     * Columna de valores de mercado, para que el simulador la modifique directamente.
+     * Debe usarse con el bloqueo del almacén adquirido.
+     *
+     * @return el array de valores de mercado.
+     */
+    int[] marketValueColumn() {
+        return marketValues;
+    }
+
+    /**
+     * Columna de nombres de los jugadores.
+     *
+     * @return el array de nombres.
+     */
+    String[] nameColumn() {
+        return names;
+    }
+
+    /**
+     * Columna de calificaciones.
+     *
+     * @return el array de calificaciones.
+     */
+    int[] ratingColumn() {
+        return ratings;
+    }
+
+    /**
+     * Columna de edades.
+     *
+     * @return el array de edades.
+     */
+    int[] ageColumn() {
+        return ages;
+    }
+
+    /**
+     * Columna con el id del club de cada jugador.
+     *
+     * @return el array de ids de club.
+     */
+    int[] teamIDColumn() {
+        return teamIDs;
+    }
+
+    /**
+     * Columna de goles, para que el simulador la modifique directamente.
+     * Debe usarse con el bloqueo del almacén adquirido.
+     *
+     * @return el array de goles.
+     */
+    int[] goalsColumn() {
+        return goals;
+    }
+
+    /**
+     * Columna de asistencias, para que el simulador la modifique directamente.
+     * Debe usarse con el bloqueo del almacén adquirido.
+     *
+     * @return el array de asistencias.
+     */
+    int[] assistsColumn() {
+        return assists;
+    }
+
+    /**
+     * Columna de paradas, para que el simulador la modifique directamente.
+     * Debe usarse con el bloqueo del almacén adquirido.
+     *
+     * @return el array de paradas.
+     */
+    int[] savesColumn() {
+        return saves;
+    }
+
+    /**
+     * Bits de las filas con estadísticas cambiadas, para que el simulador marque las que modifica.
+     * Debe usarse con el bloqueo del almacén adquirido.
+     *
+     * @return un bit por fila; la fila {@code row} está en el bit {@code row % 64} de la posición
+     * {@code row / 64}.
+     */
+    long[] changedStatsColumn() {
+        return changedStats;
+    }
+
+    /**
+     * Columna con el ordinal de la {@link Position} de cada jugador.
+     *
+     * @return el array de ordinales de posición.
+     */
+    int[] positionCodeColumn() {
+        return positionCodes;
+    }
+
+    /**
+     * Columna con el código del club de cada jugador.
+     *
+     * @return el array de códigos de club.
+     */
+    int[] clubCodeColumn() {
+        return clubCodes;
+    }
+}
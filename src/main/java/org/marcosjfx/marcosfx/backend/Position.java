@@ -0,0 +1,201 @@
+package org.marcosjfx.marcosfx.backend;
+
+/**
+ * Posiciones en las que puede jugar un jugador, con los mismos códigos que la columna club_position del
+ * archivo CSV.
+ * <p>
+ * El catálogo guarda la posición de cada fila como el ordinal de la constante, así que comparar o agrupar
+ * posiciones es comparar enteros. Ese ordinal también se guarda en la {@link CatalogSnapshot copia binaria},
+ * por lo que las posiciones nuevas deben añadirse siempre al final. Los códigos que no corresponden a
+ * ninguna posición se leen como {@link #UNKNOWN}; el código original se conserva aparte y es el que se
+ * vuelve a guardar (véase {@link Player#getPositionCode()}).
+ */
+public enum Position {
+
+    /**
+     * Portero.
+     */
+    GK(0),
+    /**
+     * Defensa central.
+     */
+    CB(1),
+    /**
+     * Defensa central izquierdo.
+     */
+    LCB(1),
+    /**
+     * Defensa central derecho.
+     */
+    RCB(1),
+    /**
+     * Lateral izquierdo.
+     */
+    LB(1),
+    /**
+     * Lateral derecho.
+     */
+    RB(1),
+    /**
+     * Carrilero izquierdo.
+     */
+    LWB(1),
+    /**
+     * Carrilero derecho.
+     */
+    RWB(1),
+    /**
+     * Mediocentro defensivo.
+     */
+    CDM(2),
+    /**
+     * Mediocentro defensivo izquierdo.
+     */
+    LDM(2),
+    /**
+     * Mediocentro defensivo derecho.
+     */
+    RDM(2),
+    /**
+     * Mediocentro.
+     */
+    CM(2),
+    /**
+     * Mediocentro izquierdo.
+     */
+    LCM(2),
+    /**
+     * Mediocentro derecho.
+     */
+    RCM(2),
+    /**
+     * Interior izquierdo.
+     */
+    LM(2),
+    /**
+     * Interior derecho.
+     */
+    RM(2),
+    /**
+     * Mediapunta.
+     */
+    CAM(2),
+    /**
+     * Mediapunta izquierdo.
+     */
+    LAM(2),
+    /**
+     * Mediapunta derecho.
+     */
+    RAM(2),
+    /**
+     * Segundo delantero.
+     */
+    CF(3),
+    /**
+     * Delantero centro.
+     */
+    ST(3),
+    /**
+     * Delantero izquierdo.
+     */
+    LS(3),
+    /**
+     * Delantero derecho.
+     */
+    RS(3),
+    /**
+     * Segundo delantero izquierdo.
+     */
+    LF(3),
+    /**
+     * Segundo delantero derecho.
+     */
+    RF(3),
+    /**
+     * Extremo izquierdo.
+     */
+    LW(3),
+    /**
+     * Extremo derecho.
+     */
+    RW(3),
+    /**
+     * Suplente.
+     */
+    SUB(-1),
+    /**
+     * Reserva.
+     */
+    RES(-1),
+    /**
+     * Posición desconocida, la de cualquier código que no es una de las anteriores. No juega en la
+     * alineación titular.
+     */
+    UNKNOWN(-1);
+
+    /**
+     * Todas las posiciones, indexadas por su ordinal, para no copiar el array de {@link #values()} en cada
+     * conversión.
+     */
+    private static final Position[] BY_CODE = values();
+
+    /**
+     * Línea de la alineación en la que juega la posición.
+     */
+    private final int line;
+
+    /**
+     * Crea una posición.
+     *
+     * @param line la línea: 0 porteros, 1 defensas, 2 centrocampistas, 3 delanteros y -1 si no es de
+     *             la alineación titular.
+     */
+    Position(int line) {
+        this.line = line;
+    }
+
+    /**
+     * Obtiene la línea de la alineación en la que juega la posición.
+     *
+     * @return 0 porteros, 1 defensas, 2 centrocampistas, 3 delanteros y -1 para suplentes, reservas y
+     * posiciones desconocidas.
+     */
+    public int line() {
+        return line;
+    }
+
+    /**
+     * Obtiene la posición de un código del archivo CSV.
+     *
+     * @param code el código, por ejemplo "GK".
+     * @return la posición, o {@link #UNKNOWN} si el código no es una posición conocida.
+     */
+    public static Position parse(String code) {
+        if (code == null) return UNKNOWN;
+        try {
+            return valueOf(code.trim());
+        } catch (IllegalArgumentException e) {
+            return UNKNOWN;
+        }
+    }
+
+    /**
+     * Obtiene la posición de un ordinal guardado en el catálogo.
+     *
+     * @param code el ordinal de la posición.
+     * @return la posición.
+     */
+    static Position fromCode(int code) {
+        return BY_CODE[code];
+    }
+
+    /**
+     * Obtiene el número de posiciones.
+     *
+     * @return el número de constantes del enumerado.
+     */
+    static int count() {
+        return BY_CODE.length;
+    }
+}
@@ -0,0 +1,45 @@
+package org.marcosjfx.marcosfx.backend;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Jugador de la plantilla tal y como se guarda en team.json. Los nombres de las propiedades son los que
+ * ya tenía el archivo, así que los equipos guardados antes se siguen leyendo.
+ *
+ * @param id             el id del jugador.
+ * @param name           el nombre del jugador.
+ * @param clubName       el club del jugador.
+ * @param position       el código de la posición del jugador, que se guarda tal cual aunque no sea una
+ *                       {@link Position} conocida.
+ * @param playerImageURL la URL del retrato.
+ * @param clubImageURL   la URL del escudo.
+ */
+record RosterEntry(@JsonProperty("ID") int id,
+                   @JsonProperty("Name") String name,
+                   @JsonProperty("ClubName") String clubName,
+                   @JsonProperty("Position") String position,
+                   @JsonProperty("PlayerImageURL") String playerImageURL,
+                   @JsonProperty("ClubImageURL") String clubImageURL) {
+
+    /**
+     * Crea la entrada de un jugador.
+     *
+     * @param player el jugador.
+     * @return la entrada con los datos del jugador.
+     */
+    static RosterEntry of(Player player) {
+        return new RosterEntry(player.getId(), player.getName(), player.getClubName(), player.getPositionCode(),
+                player.getPlayerImageURL(), player.getClubImageURL());
+    }
+
+    /**
+     * Crea el jugador de la entrada, con la calificación, el valor y las estadísticas a cero. El código de
+     * la posición solo se convierte aquí en una {@link Position}.
+     *
+     * @return el jugador.
+     */
+    Player toPlayer() {
+        return new Player(id, name, 0, 0, 0, 0, 0, 0, 0, clubName, Position.parse(position), position,
+                playerImageURL, clubImageURL);
+    }
+}
@@ -0,0 +1,427 @@
+package org.marcosjfx.marcosfx.backend;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Busca la alineación que más puntúa sin pasarse de un presupuesto.
+ * <p>
+ * Cada {@link Position} pertenece a una línea (portero, defensa, centrocampista o delantero); los
+ * suplentes ({@code SUB}) y reservas ({@code RES}) no indican en qué línea juegan y no se alinean.
+ * La búsqueda es exacta y se hace en tres pasos:
+ * <ol>
+ *   <li>Poda: de una línea con {@code k} huecos solo interesan los jugadores que no tienen por delante
+ *   a {@code k} compañeros de línea que puntúan lo mismo o más y cuestan lo mismo o menos, porque
+ *   siempre se podría cambiar por uno de ellos. El catálogo se recorre una sola vez, en bloques
+ *   paralelos, guardando para cada puntuación los {@code k} jugadores más baratos, y después se
+ *   descartan los dominados.</li>
+ *   <li>Programación dinámica por línea, en paralelo: el coste mínimo de elegir los {@code k} jugadores
+ *   de la línea para cada puntuación total posible.</li>
+ *   <li>Combinación de las líneas: el coste mínimo de cada puntuación total del equipo, de la que se
+ *   elige la mayor que cabe en el presupuesto.</li>
+ * </ol>
+ * Como las puntuaciones son enteros pequeños, el coste depende de la suma de puntuaciones de la
+ * alineación y del número de jugadores que sobreviven a la poda, no del tamaño del catálogo.
+ */
+public final class SquadOptimizer {
+
+    /**
+     * Número de líneas de una alineación.
+     */
+    private static final int LINES = 4;
+
+    /**
+     * Puntos de fantasía de cada gol.
+     */
+    private static final int POINTS_PER_GOAL = 4;
+
+    /**
+     * Puntos de fantasía de cada asistencia.
+     */
+    private static final int POINTS_PER_ASSIST = 3;
+
+    /**
+     * Puntos de fantasía de cada parada.
+     */
+    private static final int POINTS_PER_SAVE = 1;
+
+    /**
+     * Número mínimo de jugadores de cada bloque del recorrido paralelo del catálogo.
+     */
+    private static final int CHUNK_SIZE = 16384;
+
+    /**
+     * Coste de las combinaciones imposibles.
+     */
+    private static final long IMPOSSIBLE = Long.MAX_VALUE / 4;
+
+    /**
+     * Número máximo de bits de la tabla con los candidatos elegidos de una línea (256 MB). Con puntos de
+     * fantasía la tabla crece con el número de candidatos y con la suma de puntuaciones, que aumentan con
+     * cada jornada simulada.
+     */
+    static final long MAX_TAKEN_BITS = 1L << 31;
+
+    /**
+     * Criterio que se maximiza.
+     */
+    public enum Objective {
+        /**
+         * Suma de las calificaciones.
+         */
+        RATING,
+        /**
+         * Suma de los puntos de fantasía acumulados: 4 por gol, 3 por asistencia y 1 por parada.
+         */
+        POINTS;
+
+        /**
+         * Calcula la puntuación de un jugador en este criterio.
+         *
+         * @param player el jugador.
+         * @return la puntuación del jugador.
+         */
+        public int score(Player player) {
+            return score(player.getRating(), player.getGoals(), player.getAssists(), player.getSaves());
+        }
+
+        /**
+         * Calcula la puntuación de un jugador en este criterio a partir de sus estadísticas.
+         *
+         * @param rating  la calificación.
+         * @param goals   los goles.
+         * @param assists las asistencias.
+         * @param saves   las paradas.
+         * @return la puntuación del jugador.
+         */
+        int score(int rating, int goals, int assists, int saves) {
+            return this == RATING ? rating
+                    : goals * POINTS_PER_GOAL + assists * POINTS_PER_ASSIST + saves * POINTS_PER_SAVE;
+        }
+    }
+
+    /**
+     * Alineación encontrada.
+     *
+     * @param rows  las filas de los jugadores, ordenadas por línea: porteros, defensas, centrocampistas y
+     *              delanteros.
+     * @param score la puntuación total de la alineación.
+     * @param cost  la suma de los valores de mercado de los jugadores.
+     */
+    public record Squad(int[] rows, long score, long cost) {
+    }
+
+    /**
+     * Clase de utilidades, no se instancia.
+     */
+    private SquadOptimizer() {
+    }
+
+    /**
+     * Busca la alineación con mayor puntuación cuyo coste no supera el presupuesto. Solo se bloquea el
+     * almacén mientras se recorre el catálogo.
+     *
+     * @param store     el catálogo de jugadores.
+     * @param formation el número de jugadores de cada línea.
+     * @param objective el criterio que se maximiza.
+     * @param budget    el dinero disponible.
+     * @return la mejor alineación, o {@code null} si no hay jugadores suficientes o ninguna alineación cabe
+     * en el presupuesto.
+     * @throws IllegalStateException si la búsqueda exacta de una línea necesita más de
+     *                               {@link #MAX_TAKEN_BITS} bits de memoria.
+     */
+    public static Squad optimize(PlayerStore store, Formation formation, Objective objective, long budget) {
+        List<Map<Integer, Cheapest>> bestByValue = collect(store, formation, objective);
+
+        LineSolution[] solutions = IntStream.range(0, LINES).parallel()
+                .mapToObj(line -> new LineSolution(prune(bestByValue.get(line), formation.slots(line)),
+                        formation.slots(line)))
+                .toArray(LineSolution[]::new);
+
+        long[] costs = {0};
+        int[][] lineScores = new int[LINES][];
+        for (int line = 0; line < LINES; line++) {
+            long[] lineCosts = solutions[line].costs;
+            long[] combined = new long[costs.length + lineCosts.length - 1];
+            Arrays.fill(combined, IMPOSSIBLE);
+            lineScores[line] = new int[combined.length];
+            for (int score = 0; score < costs.length; score++) {
+                if (costs[score] >= IMPOSSIBLE) continue;
+                for (int lineScore = 0; lineScore < lineCosts.length; lineScore++) {
+                    if (lineCosts[lineScore] >= IMPOSSIBLE) continue;
+                    long cost = costs[score] + lineCosts[lineScore];
+                    if (cost < combined[score + lineScore]) {
+                        combined[score + lineScore] = cost;
+                        lineScores[line][score + lineScore] = lineScore;
+                    }
+                }
+            }
+            costs = combined;
+        }
+
+        int best = costs.length - 1;
+        while (best >= 0 && costs[best] > budget) {
+            best--;
+        }
+        if (best < 0) return null;
+
+        int[] rows = new int[formation.size()];
+        int filled = rows.length;
+        int remaining = best;
+        for (int line = LINES - 1; line >= 0; line--) {
+            int lineScore = lineScores[line][remaining];
+            int[] lineRows = solutions[line].rows(lineScore);
+            filled -= lineRows.length;
+            System.arraycopy(lineRows, 0, rows, filled, lineRows.length);
+            remaining -= lineScore;
+        }
+        return new Squad(rows, best, costs[best]);
+    }
+
+    /**
+     * Recorre el catálogo en bloques paralelos y guarda, para cada línea y cada puntuación, los jugadores
+     * más baratos que podrían entrar en la alineación.
+     *
+     * @param store     el catálogo.
+     * @param formation el número de jugadores de cada línea.
+     * @param objective el criterio que se maximiza.
+     * @return para cada línea, los jugadores más baratos de cada puntuación.
+     */
+    private static List<Map<Integer, Cheapest>> collect(PlayerStore store, Formation formation, Objective objective) {
+        synchronized (store) {
+            int size = store.size();
+            int[] lineByCode = new int[Position.count()];
+            for (int code = 0; code < lineByCode.length; code++) {
+                lineByCode[code] = Position.fromCode(code).line();
+            }
+            int[] positionCodes = store.positionCodeColumn();
+            int[] marketValues = store.marketValueColumn();
+            int[] ratings = store.ratingColumn();
+            int[] goals = store.goalsColumn();
+            int[] assists = store.assistsColumn();
+            int[] saves = store.savesColumn();
+
+            int chunks = Math.max(1, Math.min(ForkJoinPool.getCommonPoolParallelism() * 4, size / CHUNK_SIZE));
+            return IntStream.range(0, chunks).parallel().mapToObj(chunk -> {
+                List<Map<Integer, Cheapest>> found = newLines();
+                int end = (int) ((long) size * (chunk + 1) / chunks);
+                for (int row = (int) ((long) size * chunk / chunks); row < end; row++) {
+                    int line = lineByCode[positionCodes[row]];
+                    if (line < 0 || formation.slots(line) == 0) continue;
+                    int value = objective.score(ratings[row], goals[row], assists[row], saves[row]);
+                    found.get(line).computeIfAbsent(Math.max(0, value), v -> new Cheapest(formation.slots(line)))
+                            .offer(((long) marketValues[row] << 32) | row);
+                }
+                return found;
+            }).reduce((left, right) -> {
+                for (int line = 0; line < LINES; line++) {
+                    Map<Integer, Cheapest> merged = left.get(line);
+                    right.get(line).forEach((value, cheapest) -> merged.merge(value, cheapest, Cheapest::merge));
+                }
+                return left;
+            }).orElseGet(SquadOptimizer::newLines);
+        }
+    }
+
+    /**
+     * Crea un mapa vacío de jugadores por puntuación para cada línea.
+     *
+     * @return la lista de mapas, uno por línea.
+     */
+    private static List<Map<Integer, Cheapest>> newLines() {
+        List<Map<Integer, Cheapest>> lines = new ArrayList<>(LINES);
+        for (int line = 0; line < LINES; line++) {
+            lines.add(new HashMap<>());
+        }
+        return lines;
+    }
+
+    /**
+     * Descarta los jugadores de una línea que tienen por delante a tantos compañeros al menos igual de
+     * buenos y de baratos como huecos tiene la línea.
+     *
+     * @param bestByValue los jugadores más baratos de cada puntuación.
+     * @param slots       el número de huecos de la línea.
+     * @return los candidatos que quedan: puntuación, valor de mercado y fila de cada uno.
+     */
+    private static int[][] prune(Map<Integer, Cheapest> bestByValue, int slots) {
+        List<int[]> candidates = new ArrayList<>();
+        bestByValue.forEach((value, cheapest) -> {
+            for (int i = 0; i < cheapest.count; i++) {
+                candidates.add(new int[]{value, (int) (cheapest.entries[i] >> 32), (int) cheapest.entries[i]});
+            }
+        });
+        candidates.sort((a, b) -> a[1] != b[1] ? Integer.compare(a[1], b[1])
+                : a[0] != b[0] ? Integer.compare(b[0], a[0]) : Integer.compare(a[2], b[2]));
+
+        List<int[]> kept = new ArrayList<>();
+        PriorityQueue<Integer> bestValues = new PriorityQueue<>();
+        for (int[] candidate : candidates) {
+            if (bestValues.size() < slots) {
+                kept.add(candidate);
+                bestValues.add(candidate[0]);
+            } else if (candidate[0] > bestValues.peek()) {
+                kept.add(candidate);
+                bestValues.poll();
+                bestValues.add(candidate[0]);
+            }
+        }
+        return kept.toArray(new int[0][]);
+    }
+
+    /**
+     * Jugadores más baratos de una línea con una misma puntuación, hasta tantos como huecos tiene la línea.
+     */
+    private static class Cheapest {
+
+        /**
+         * Valor de mercado en los 32 bits altos y fila en los bajos, de menor a mayor.
+         */
+        private final long[] entries;
+
+        /**
+         * Número de jugadores guardados.
+         */
+        private int count;
+
+        /**
+         * Crea la lista vacía.
+         *
+         * @param capacity el número máximo de jugadores.
+         */
+        Cheapest(int capacity) {
+            entries = new long[capacity];
+        }
+
+        /**
+         * Propone un jugador: se guarda si hay sitio o si es más barato que el más caro guardado.
+         *
+         * @param entry el valor de mercado y la fila del jugador.
+         */
+        void offer(long entry) {
+            if (count == entries.length && entry >= entries[count - 1]) return;
+            int position = count == entries.length ? count - 1 : count++;
+            while (position > 0 && entries[position - 1] > entry) {
+                entries[position] = entries[position - 1];
+                position--;
+            }
+            entries[position] = entry;
+        }
+
+        /**
+         * Añade a esta lista los jugadores de otra.
+         *
+         * @param other la otra lista.
+         * @return esta lista.
+         */
+        Cheapest merge(Cheapest other) {
+            for (int i = 0; i < other.count; i++) {
+                offer(other.entries[i]);
+            }
+            return this;
+        }
+    }
+
+    /**
+     * Costes mínimos de una línea para cada puntuación, con lo necesario para saber qué jugadores los dan.
+     */
+    private static class LineSolution {
+
+        /**
+         * Coste mínimo de llenar la línea con cada puntuación total, o {@link #IMPOSSIBLE} si no se puede.
+         */
+        private final long[] costs;
+
+        /**
+         * Candidatos de la línea: puntuación, valor de mercado y fila.
+         */
+        private final int[][] candidates;
+
+        /**
+         * Número de huecos de la línea.
+         */
+        private final int slots;
+
+        /**
+         * Un bit por candidato, número de jugadores y puntuación que indica si el candidato mejoró ese
+         * coste al procesarlo.
+         */
+        private final long[] taken;
+
+        /**
+         * Calcula con programación dinámica el coste mínimo de elegir exactamente {@code slots} candidatos
+         * para cada puntuación total.
+         *
+         * @param candidates los candidatos que quedan tras la poda.
+         * @param slots      el número de huecos de la línea.
+         * @throws IllegalStateException si la tabla de candidatos elegidos supera {@link #MAX_TAKEN_BITS} bits.
+         */
+        LineSolution(int[][] candidates, int slots) {
+            this.candidates = candidates;
+            this.slots = slots;
+            int[] values = new int[candidates.length];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = candidates[i][0];
+            }
+            Arrays.sort(values);
+            long scoreSum = 0;
+            for (int i = values.length - 1; i >= Math.max(0, values.length - slots); i--) {
+                scoreSum += values[i];
+            }
+            long takenBits = (long) candidates.length * slots * (scoreSum + 1);
+            if (takenBits > MAX_TAKEN_BITS) {
+                throw new IllegalStateException(String.format("La búsqueda exacta de una línea con %d candidatos, "
+                        + "%d huecos y puntuación máxima %d necesita demasiada memoria", candidates.length, slots,
+                        scoreSum));
+            }
+
+            int maxScore = (int) scoreSum;
+            int width = maxScore + 1;
+            long[] table = new long[(slots + 1) * width];
+            Arrays.fill(table, IMPOSSIBLE);
+            table[0] = 0;
+            taken = new long[(int) ((takenBits + 63) >>> 6)];
+            for (int i = 0; i < candidates.length; i++) {
+                int value = candidates[i][0];
+                int price = candidates[i][1];
+                for (int count = Math.min(i + 1, slots); count >= 1; count--) {
+                    int previous = (count - 1) * width;
+                    int current = count * width;
+                    for (int score = maxScore; score >= value; score--) {
+                        long cost = table[previous + score - value];
+                        if (cost >= IMPOSSIBLE || cost + price >= table[current + score]) continue;
+                        table[current + score] = cost + price;
+                        long bit = ((long) i * slots + count - 1) * width + score;
+                        taken[(int) (bit >>> 6)] |= 1L << bit;
+                    }
+                }
+            }
+            costs = Arrays.copyOfRange(table, slots * width, (slots + 1) * width);
+        }
+
+        /**
+         * Reconstruye los jugadores que dan el coste mínimo de una puntuación.
+         *
+         * @param score la puntuación total de la línea.
+         * @return las filas de los jugadores elegidos.
+         */
+        int[] rows(int score) {
+            int width = costs.length;
+            int[] rows = new int[slots];
+            int count = slots;
+            for (int i = candidates.length - 1; i >= 0 && count > 0; i--) {
+                long bit = ((long) i * slots + count - 1) * width + score;
+                if ((taken[(int) (bit >>> 6)] & (1L << bit)) == 0) continue;
+                rows[--count] = candidates[i][2];
+                score -= candidates[i][0];
+            }
+            return rows;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package org.marcosjfx.marcosfx.backend;
+
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Simula una jornada sobre las columnas de un {@link PlayerStore}, aplicando cambios aleatorios
+ * al valor de mercado, goles, asistencias o paradas de cada jugador según su posición.
+ * <p>
+ * Los jugadores se reparten en bloques de tamaño fijo que se procesan en paralelo. Cada bloque
+ * usa su propio {@link SplittableRandom}, obtenido dividiendo el generador principal en el mismo
+ * orden en cada jornada, así que con la misma semilla el resultado es siempre el mismo sin
+ * importar cuántos hilos lo ejecuten.
+ * <p>
+ * Cada jugador modificado se marca en {@link PlayerStore#changedStatsColumn()} para que solo se guarden
+ * sus estadísticas. Como el tamaño de los bloques es múltiplo de 64, dos bloques nunca marcan filas del
+ * mismo {@code long}.
+ */
+public class StatSimulator {
+
+    /**
+     * Número de jugadores de cada bloque que se simula en un mismo hilo.
+     */
+    private static final int CHUNK_SIZE = 4096;
+
+    /**
+     * Cambio en el valor de mercado de un jugador en cada jornada.
+     */
+    private static final int MARKET_VALUE_STEP = 5000;
+
+    /**
+     * Generador principal, del que se obtiene el generador de cada bloque.
+     */
+    private final SplittableRandom random;
+
+    /**
+     * Crea un simulador reproducible: dos simuladores con la misma semilla producen las mismas jornadas.
+     *
+     * @param seed la semilla del generador.
+     */
+    public StatSimulator(long seed) {
+        this.random = new SplittableRandom(seed);
+    }
+
+    /**
+     * Crea un simulador con una semilla aleatoria.
+     */
+    public StatSimulator() {
+        this.random = new SplittableRandom();
+    }
+
+    /**
+     * Simula una jornada sobre todos los jugadores del almacén. Mientras dura la simulación
+     * nadie más puede leer ni modificar el almacén.
+     *
+     * @param store el almacén de jugadores.
+     */
+    public void simulate(PlayerStore store) {
+        synchronized (store) {
+            int size = store.size();
+            int chunks = (size + CHUNK_SIZE - 1) / CHUNK_SIZE;
+
+            SplittableRandom[] chunkRandoms = new SplittableRandom[chunks];
+            synchronized (this) {
+                for (int chunk = 0; chunk < chunks; chunk++) {
+                    chunkRandoms[chunk] = random.split();
+                }
+            }
+
+            int[] marketValues = store.marketValueColumn();
+            int[] goals = store.goalsColumn();
+            int[] assists = store.assistsColumn();
+            int[] saves = store.savesColumn();
+            int[] positionCodes = store.positionCodeColumn();
+            int[] clubCodes = store.clubCodeColumn();
+            long[] changedStats = store.changedStatsColumn();
+            int goalkeeperCode = Position.GK.ordinal();
+            int clubCount = store.getClubCount();
+            long[][] clubDeltas = new long[chunks][];
+
+            IntStream.range(0, chunks).parallel().forEach(chunk -> {
+                SplittableRandom chunkRandom = chunkRandoms[chunk];
+                long[] deltas = new long[clubCount];
+                int end = Math.min(size, (chunk + 1) * CHUNK_SIZE);
+
+                for (int row = chunk * CHUNK_SIZE; row < end; row++) {
+                    int randomNumber = generateRandom(chunkRandom);
+
+                    int marketDelta = randomNumber == 0 ? -MARKET_VALUE_STEP : MARKET_VALUE_STEP;
+                    marketValues[row] += marketDelta;
+                    deltas[clubCodes[row]] += marketDelta;
+                    changedStats[row >>> 6] |= 1L << row;
+
+                    if (positionCodes[row] == goalkeeperCode) {
+                        saves[row] += randomNumber * 2;
+                    } else {
+                        goals[row] += randomNumber;
+                        assists[row] += randomNumber * generateRandom(chunkRandom);
+                    }
+                }
+                clubDeltas[chunk] = deltas;
+            });
+
+            for (long[] deltas : clubDeltas) {
+                store.addClubMarketValues(deltas);
+            }
+        }
+    }
+
+    /**
+     * Genera un número aleatorio entre 0 y 3 con probabilidades definidas:
+     * 0 (40%), 1 (30%), 2 (20%) y 3 (10%).
+     *
+     * @param random el generador del bloque que se está simulando.
+     * @return un entero aleatorio entre 0 y 3.
+     */
+    private static int generateRandom(SplittableRandom random) {
+        double value = random.nextDouble();
+        if (value < 0.4) return 0;
+        else if (value < 0.7) return 1;
+        else if (value < 0.9) return 2;
+        else return 3;
+    }
+}
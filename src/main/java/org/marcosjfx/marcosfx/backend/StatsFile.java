@@ -0,0 +1,328 @@
+package org.marcosjfx.marcosfx.backend;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Archivo de estadísticas del catálogo (players.csv.stats), separado de los datos fijos de los jugadores.
+ * <p>
+ * Las jornadas simuladas solo cambian el valor de mercado, los goles, las asistencias y las paradas, así
+ * que esos valores se guardan aquí en registros de ancho fijo, uno por fila del CSV, en lugar de reescribir
+ * el CSV entero. Como cada registro está en una posición conocida, guardar una jornada solo escribe en su
+ * sitio los registros de las filas que han cambiado: el coste depende de los jugadores modificados, no del
+ * tamaño del catálogo.
+ * <p>
+ * El archivo empieza con una cabecera de {@value #HEADER_BYTES} bytes: número mágico, versión del formato,
+ * tamaño y fecha de modificación del CSV al que corresponde y número de filas. Cada registro guarda el id
+ * del jugador, para comprobar que las filas siguen en el mismo orden, y sus cuatro estadísticas. Los valores
+ * del archivo sustituyen a los del CSV (o a los de su {@link CatalogSnapshot copia binaria}) al cargar el
+ * catálogo; si el CSV ha cambiado por fuera de la aplicación, el archivo se descarta y se genera de nuevo.
+ */
+final class StatsFile {
+
+    /**
+     * Número mágico del archivo ("MFXD").
+     */
+    private static final int MAGIC = 0x4D465844;
+
+    /**
+     * Versión del formato; si cambia, los archivos antiguos se descartan y se regeneran.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * Tamaño de la cabecera del archivo.
+     */
+    static final int HEADER_BYTES = 32;
+
+    /**
+     * Tamaño de cada registro: id, valor de mercado, goles, asistencias y paradas.
+     */
+    static final int RECORD_BYTES = 5 * Integer.BYTES;
+
+    /**
+     * Tamaño del buffer con el que se escriben los registros consecutivos de una sola vez.
+     */
+    private static final int BUFFER_BYTES = RECORD_BYTES * 2048;
+
+    /**
+     * Clase de utilidades, no se instancia.
+     */
+    private StatsFile() {
+    }
+
+    /**
+     * Columnas del catálogo que se guardan en el archivo, todas con una posición por fila.
+     *
+     * @param ids          los ids de los jugadores.
+     * @param marketValues los valores de mercado.
+     * @param goals        los goles.
+     * @param assists      las asistencias.
+     * @param saves        las paradas.
+     */
+    record Columns(int[] ids, int[] marketValues, int[] goals, int[] assists, int[] saves) {
+
+        /**
+         * Copia las columnas, para poder escribirlas sin el bloqueo del almacén.
+         *
+         * @return columnas nuevas con los mismos valores.
+         */
+        Columns copy() {
+            return new Columns(ids.clone(), marketValues.clone(), goals.clone(), assists.clone(), saves.clone());
+        }
+    }
+
+    /**
+     * Estadísticas de las filas cambiadas, copiadas de las columnas del catálogo.
+     *
+     * @param rows    las filas cambiadas, en orden creciente.
+     * @param records sus estadísticas: las de la fila {@code rows[i]} están en la posición {@code i} de cada
+     *                columna.
+     */
+    record Changes(int[] rows, Columns records) {
+    }
+
+    /**
+     * Obtiene la ruta del archivo de estadísticas de un CSV.
+     *
+     * @param csvPath ruta al archivo CSV.
+     * @return la ruta del archivo de estadísticas.
+     */
+    static Path pathFor(Path csvPath) {
+        return csvPath.resolveSibling(csvPath.getFileName() + ".stats");
+    }
+
+    /**
+     * Sustituye las estadísticas de las columnas por las del archivo, si existe y corresponde al CSV actual
+     * y a las mismas filas.
+     *
+     * @param csvPath ruta al archivo CSV.
+     * @param columns las columnas del catálogo; solo se modifican si el archivo es válido.
+     * @return {@code true} si se han leído las estadísticas, {@code false} si no hay un archivo válido.
+     * @throws IOException si no se puede leer el archivo.
+     */
+    static boolean read(Path csvPath, Columns columns) throws IOException {
+        Path path = pathFor(csvPath);
+        if (!Files.exists(path)) return false;
+
+        int rows = columns.ids().length;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() != HEADER_BYTES + (long) rows * RECORD_BYTES) return false;
+            ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // Se sigue leyendo hasta llenar el buffer.
+            }
+            buffer.flip();
+            if (buffer.remaining() != buffer.capacity() || !matches(buffer, csvPath, rows)) return false;
+
+            int[] ids = columns.ids();
+            for (int row = 0; row < rows; row++) {
+                if (buffer.getInt(HEADER_BYTES + row * RECORD_BYTES) != ids[row]) return false;
+            }
+            buffer.position(HEADER_BYTES);
+            for (int row = 0; row < rows; row++) {
+                buffer.getInt();
+                columns.marketValues()[row] = buffer.getInt();
+                columns.goals()[row] = buffer.getInt();
+                columns.assists()[row] = buffer.getInt();
+                columns.saves()[row] = buffer.getInt();
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Escribe el archivo completo con las estadísticas actuales, asociado al CSV actual. Se escribe primero
+     * en un archivo temporal y después se mueve, para que nunca quede a medias.
+     *
+     * @param csvPath ruta al archivo CSV, que ya debe tener su contenido definitivo.
+     * @param columns las columnas del catálogo.
+     * @throws IOException si no se puede escribir el archivo.
+     */
+    static void writeAll(Path csvPath, Columns columns) throws IOException {
+        Path path = pathFor(csvPath).toAbsolutePath();
+        int rows = columns.ids().length;
+        Path temp = Files.createTempFile(path.getParent(), path.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+                header.putInt(MAGIC)
+                        .putInt(VERSION)
+                        .putLong(Files.size(csvPath))
+                        .putLong(Files.getLastModifiedTime(csvPath).toMillis())
+                        .putInt(rows);
+                header.clear();
+                writeFully(channel, header, 0);
+                writeRecords(channel, columns, 0, rows, 0, ByteBuffer.allocate(BUFFER_BYTES));
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Copia las estadísticas de las filas marcadas como cambiadas. Debe llamarse con el bloqueo del almacén
+     * adquirido; la copia se escribe después con {@link #writeChanged(Path, int, Changes)} sin él.
+     *
+     * @param columns las columnas del catálogo.
+     * @param changed un bit por fila, a 1 en las filas cambiadas.
+     * @return las filas cambiadas y sus estadísticas.
+     */
+    static Changes copyChanged(Columns columns, long[] changed) {
+        int rows = columns.ids().length;
+        int count = 0;
+        for (int row = nextChanged(changed, 0, rows); row < rows; row = nextChanged(changed, row + 1, rows)) {
+            count++;
+        }
+        int[] changedRows = new int[count];
+        Columns records = new Columns(new int[count], new int[count], new int[count], new int[count], new int[count]);
+        int copied = 0;
+        for (int row = nextChanged(changed, 0, rows); row < rows; row = nextChanged(changed, row + 1, rows)) {
+            changedRows[copied] = row;
+            records.ids()[copied] = columns.ids()[row];
+            records.marketValues()[copied] = columns.marketValues()[row];
+            records.goals()[copied] = columns.goals()[row];
+            records.assists()[copied] = columns.assists()[row];
+            records.saves()[copied] = columns.saves()[row];
+            copied++;
+        }
+        return new Changes(changedRows, records);
+    }
+
+    /**
+     * Escribe en su sitio los registros de las filas cambiadas; las filas consecutivas se escriben de una
+     * sola vez. Si el archivo no existe o no corresponde al CSV actual no se escribe nada, y hay que
+     * escribirlo completo con {@link #writeAll(Path, Columns)}.
+     *
+     * @param csvPath ruta al archivo CSV.
+     * @param rows    el número de filas del catálogo.
+     * @param changes las filas cambiadas y sus estadísticas.
+     * @return {@code true} si se han escrito los registros, {@code false} si no hay un archivo válido.
+     * @throws IOException si no se puede escribir el archivo.
+     */
+    static boolean writeChanged(Path csvPath, int rows, Changes changes) throws IOException {
+        Path path = pathFor(csvPath);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (header.hasRemaining() && channel.read(header, header.position()) >= 0) {
+                // Se sigue leyendo hasta llenar la cabecera.
+            }
+            header.flip();
+            if (channel.size() != HEADER_BYTES + (long) rows * RECORD_BYTES
+                    || header.remaining() != HEADER_BYTES || !matches(header, csvPath, rows)) {
+                return false;
+            }
+            writeRuns(channel, changes);
+            return true;
+        } catch (NoSuchFileException e) {
+            // No hay archivo todavía: se tiene que escribir completo.
+            return false;
+        }
+    }
+
+    /**
+     * Escribe los registros de las filas cambiadas, agrupando las filas consecutivas.
+     *
+     * @param channel el canal del archivo.
+     * @param changes las filas cambiadas y sus estadísticas.
+     * @throws IOException si no se puede escribir.
+     */
+    private static void writeRuns(FileChannel channel, Changes changes) throws IOException {
+        int[] rows = changes.rows();
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES);
+        int from = 0;
+        while (from < rows.length) {
+            int to = from + 1;
+            while (to < rows.length && rows[to] == rows[to - 1] + 1) to++;
+            writeRecords(channel, changes.records(), from, to, rows[from], buffer);
+            from = to;
+        }
+    }
+
+    /**
+     * Escribe los registros de un intervalo de posiciones de las columnas en filas consecutivas del archivo.
+     *
+     * @param channel  el canal del archivo.
+     * @param columns  las columnas con los registros.
+     * @param from     la primera posición de las columnas, incluida.
+     * @param to       la última posición de las columnas, excluida.
+     * @param firstRow la fila del archivo en la que se escribe la posición {@code from}.
+     * @param buffer   buffer auxiliar de {@value #BUFFER_BYTES} bytes.
+     * @throws IOException si no se puede escribir.
+     */
+    private static void writeRecords(FileChannel channel, Columns columns, int from, int to, int firstRow,
+                                     ByteBuffer buffer) throws IOException {
+        int index = from;
+        while (index < to) {
+            buffer.clear();
+            long offset = HEADER_BYTES + (long) (firstRow + index - from) * RECORD_BYTES;
+            while (index < to && buffer.remaining() >= RECORD_BYTES) {
+                buffer.putInt(columns.ids()[index])
+                        .putInt(columns.marketValues()[index])
+                        .putInt(columns.goals()[index])
+                        .putInt(columns.assists()[index])
+                        .putInt(columns.saves()[index]);
+                index++;
+            }
+            buffer.flip();
+            writeFully(channel, buffer, offset);
+        }
+    }
+
+    /**
+     * Escribe todo el contenido de un buffer a partir de una posición del archivo.
+     *
+     * @param channel  el canal del archivo.
+     * @param buffer   el contenido a escribir.
+     * @param position la posición del archivo.
+     * @throws IOException si no se puede escribir.
+     */
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    /**
+     * Comprueba si una cabecera corresponde al formato actual, al CSV actual y al número de filas.
+     *
+     * @param header  el contenido del archivo, con la cabecera al principio.
+     * @param csvPath ruta al archivo CSV.
+     * @param rows    el número de filas del catálogo.
+     * @return {@code true} si la cabecera es válida.
+     * @throws IOException si no se puede consultar el CSV.
+     */
+    private static boolean matches(ByteBuffer header, Path csvPath, int rows) throws IOException {
+        return header.getInt(0) == MAGIC
+                && header.getInt(4) == VERSION
+                && header.getLong(8) == Files.size(csvPath)
+                && header.getLong(16) == Files.getLastModifiedTime(csvPath).toMillis()
+                && header.getInt(24) == rows;
+    }
+
+    /**
+     * Busca la siguiente fila cambiada.
+     *
+     * @param changed un bit por fila, a 1 en las filas cambiadas.
+     * @param from    la primera fila a comprobar.
+     * @param rows    el número de filas.
+     * @return la fila, o {@code rows} si no hay más.
+     */
+    private static int nextChanged(long[] changed, int from, int rows) {
+        int word = from >>> 6;
+        if (word >= changed.length) return rows;
+        long bits = changed[word] & (-1L << (from & 63));
+        while (bits == 0) {
+            if (++word >= changed.length) return rows;
+            bits = changed[word];
+        }
+        return Math.min(rows, (word << 6) + Long.numberOfTrailingZeros(bits));
+    }
+}
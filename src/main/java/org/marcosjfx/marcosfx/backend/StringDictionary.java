@@ -0,0 +1,84 @@
+package org.marcosjfx.marcosfx.backend;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Diccionario que asigna un código entero denso a cada cadena distinta.
+ * Se utiliza para guardar columnas muy repetidas (club, posición...) como enteros
+ * y tener una única instancia de cada {@link String} en memoria.
+ */
+class StringDictionary {
+
+    /**
+     * Códigos asignados a cada valor.
+     */
+    private final Map<String, Integer> codes = new HashMap<>();
+
+    /**
+     * Valores indexados por su código.
+     */
+    private final List<String> values = new ArrayList<>();
+
+    /**
+     * Devuelve el código del valor indicado, añadiéndolo al diccionario si no existía.
+     *
+     * @param value la cadena a codificar.
+     * @return el código entero del valor.
+     */
+    int encode(String value) {
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = values.size();
+            codes.put(value, code);
+            values.add(value);
+        }
+        return code;
+    }
+
+    /**
+     * Busca el código de un valor sin añadirlo al diccionario.
+     *
+     * @param value la cadena a buscar.
+     * @return el código del valor, o -1 si no está en el diccionario.
+     */
+    int find(String value) {
+        Integer code = codes.get(value);
+        return code == null ? -1 : code;
+    }
+
+    /**
+     * Devuelve la cadena asociada a un código.
+     *
+     * @param code el código del valor.
+     * @return la cadena correspondiente.
+     */
+    String decode(int code) {
+        return values.get(code);
+    }
+
+    /**
+     * Codifica en UTF-8 todos los valores del diccionario.
+     *
+     * @return los bytes de cada valor, indexados por su código.
+     */
+    byte[][] encodedValues() {
+        byte[][] encoded = new byte[values.size()][];
+        for (int code = 0; code < encoded.length; code++) {
+            encoded[code] = values.get(code).getBytes(StandardCharsets.UTF_8);
+        }
+        return encoded;
+    }
+
+    /**
+     * Obtiene el número de valores distintos del diccionario.
+     *
+     * @return el número de valores.
+     */
+    int size() {
+        return values.size();
+    }
+}
@@ -1,12 +1,136 @@
 package org.marcosjfx.marcosfx.backend;
 
-import java.util.HashMap;
+import java.util.Arrays;
 
+/**
+ * Equipo de un mánager dentro de una {@link LeagueStore liga}.
+ * <p>
+ * Solo guarda los ids de sus jugadores, ordenados en un array de enteros, y el presupuesto; el resto
+ * de datos de cada jugador se consulta en el catálogo compartido de la liga. Así la memoria de cada
+ * equipo depende del número de jugadores que tiene y no del tamaño del catálogo.
+ */
 public class Team {
 
-    HashMap<Integer, Player> players = new DataBase().getTeam();
+    /**
+     * Capacidad inicial del array de jugadores al fichar el primero.
+     */
+    private static final int INITIAL_CAPACITY = 16;
 
+    /**
+     * Identificador del mánager dueño del equipo.
+     */
+    private final int managerId;
 
+    /**
+     * Ids de los jugadores del equipo, ordenados de menor a mayor en las primeras {@link #size} posiciones.
+     */
+    private int[] playerIds = new int[0];
 
+    /**
+     * Número de jugadores del equipo.
+     */
+    private int size;
 
+    /**
+     * Presupuesto disponible para compras.
+     */
+    private long budget;
+
+    /**
+     * Crea un equipo vacío.
+     *
+     * @param managerId el identificador del mánager.
+     * @param budget    el presupuesto inicial.
+     */
+    Team(int managerId, long budget) {
+        this.managerId = managerId;
+        this.budget = budget;
+    }
+
+    /**
+     * Obtiene el identificador del mánager dueño del equipo.
+     *
+     * @return el identificador del mánager.
+     */
+    public int getManagerId() {
+        return managerId;
+    }
+
+    /**
+     * Obtiene el presupuesto disponible para compras.
+     *
+     * @return el presupuesto actual.
+     */
+    public synchronized long getBudget() {
+        return budget;
+    }
+
+    /**
+     * Obtiene el número de jugadores del equipo.
+     *
+     * @return el número de jugadores.
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Comprueba si un jugador forma parte del equipo.
+     *
+     * @param playerId el id del jugador.
+     * @return {@code true} si está en el equipo.
+     */
+    public synchronized boolean contains(int playerId) {
+        return Arrays.binarySearch(playerIds, 0, size, playerId) >= 0;
+    }
+
+    /**
+     * Obtiene los ids de los jugadores del equipo.
+     *
+     * @return una copia con los ids, ordenados de menor a mayor.
+     */
+    public synchronized int[] getPlayerIds() {
+        return Arrays.copyOf(playerIds, size);
+    }
+
+    /**
+     * Añade un jugador al equipo y descuenta su precio del presupuesto.
+     *
+     * @param playerId el id del jugador.
+     * @param price    el valor de mercado del jugador.
+     * @return {@code true} si se ha añadido o ya estaba en el equipo, {@code false} si el presupuesto
+     * es insuficiente.
+     */
+    synchronized boolean add(int playerId, int price) {
+        int index = Arrays.binarySearch(playerIds, 0, size, playerId);
+        if (index >= 0) return true;
+        if (budget - price < 0) return false;
+
+        int insertion = -index - 1;
+        if (size == playerIds.length) {
+            playerIds = Arrays.copyOf(playerIds, Math.max(INITIAL_CAPACITY, size + (size >> 1)));
+        }
+        System.arraycopy(playerIds, insertion, playerIds, insertion + 1, size - insertion);
+        playerIds[insertion] = playerId;
+        size++;
+        budget -= price;
+        return true;
+    }
+
+    /**
+     * Quita un jugador del equipo y le devuelve al presupuesto su valor de mercado.
+     *
+     * @param playerId el id del jugador.
+     * @param price    el valor de mercado del jugador.
+     * @return {@code true} si se ha quitado, {@code false} si no estaba en el equipo.
+     */
+    synchronized boolean remove(int playerId, int price) {
+        int index = Arrays.binarySearch(playerIds, 0, size, playerId);
+        if (index < 0) return false;
+
+        System.arraycopy(playerIds, index + 1, playerIds, index, size - index - 1);
+        size--;
+        budget += price;
+        return true;
+    }
 }
@@ -0,0 +1,29 @@
+package org.marcosjfx.marcosfx.backend;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+/**
+ * Contenido completo de team.json: el presupuesto, la plantilla y hasta qué registro del
+ * {@link TradeJournal diario de operaciones} incluye la copia.
+ *
+ * @param budget          el presupuesto disponible para compras.
+ * @param team            los jugadores de la plantilla.
+ * @param journalSequence el número de secuencia del último registro del diario incluido en la copia, o 0
+ *                        si el archivo no lo indica.
+ */
+@JsonPropertyOrder({"budget", "team", "journalSequence"})
+record TeamDocument(int budget, List<RosterEntry> team, long journalSequence) {
+
+    /**
+     * Sustituye una plantilla ausente por una vacía.
+     *
+     * @param budget          el presupuesto disponible para compras.
+     * @param team            los jugadores de la plantilla, o {@code null} si el archivo no la tiene.
+     * @param journalSequence el número de secuencia del último registro del diario incluido en la copia.
+     */
+    TeamDocument {
+        if (team == null) team = List.of();
+    }
+}
@@ -0,0 +1,565 @@
+package org.marcosjfx.marcosfx.backend;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * Repositorio que mantiene en memoria la plantilla y el presupuesto guardados en team.json.
+ * <p>
+ * El archivo team.json es una copia completa del equipo y solo se lee al abrir el repositorio.
+ * Cada compra o venta se añade como un registro pequeño al {@link TradeJournal diario de operaciones}
+ * (team.json.journal) antes de aplicarse en memoria, y un hilo en segundo plano fuerza el diario al
+ * disco poco después, de forma que varias operaciones seguidas se confirman con un único {@code fsync}.
+ * <p>
+ * De vez en cuando (cuando el diario crece o pasa un tiempo desde la primera operación sin copiar) el
+ * equipo se compacta: se escribe una copia nueva de team.json en un archivo temporal que sustituye al
+ * anterior de forma atómica, y después se vacía el diario. Al abrir el repositorio se aplican sobre la
+ * copia las operaciones del diario que todavía no incluye, así que un cierre inesperado en cualquier
+ * momento no deja el equipo a medias.
+ * <p>
+ * La copia se lee y se escribe como un {@link TeamDocument} con lectores y escritores de Jackson creados
+ * una sola vez y compartidos por todos los repositorios, que leen directamente del archivo y escriben
+ * directamente en su canal sin pasar por una cadena intermedia. Si el nombre del archivo termina en
+ * {@code .smile} la copia se guarda en el formato binario Smile en lugar de JSON.
+ * <p>
+ * Se puede usar desde varios hilos a la vez. El presupuesto se actualiza con operaciones atómicas
+ * de comparar e intercambiar, de forma que dos compras simultáneas nunca gastan más de lo disponible,
+ * y las operaciones sobre un mismo jugador se serializan con un bloqueo elegido por su id entre un
+ * grupo fijo de bloqueos, así que compras de jugadores distintos no se esperan entre sí.
+ */
+public class TeamRepository {
+
+    /**
+     * Tiempo que se espera desde la primera operación sin confirmar hasta forzar el diario al disco.
+     */
+    private static final long SYNC_DELAY_MS = 50;
+
+    /**
+     * Tiempo máximo que pasa desde la primera operación sin copiar hasta compactar el equipo.
+     */
+    private static final long COMPACT_DELAY_MS = 30_000;
+
+    /**
+     * Número de registros del diario a partir del cual se compacta el equipo sin esperar.
+     */
+    private static final int COMPACT_THRESHOLD = 256;
+
+    /**
+     * Número de bloqueos entre los que se reparten los jugadores (potencia de dos).
+     */
+    private static final int LOCK_STRIPES = 64;
+
+    /**
+     * Extensión de los archivos de equipo que se guardan en formato Smile.
+     */
+    private static final String SMILE_EXTENSION = ".smile";
+
+    /**
+     * Lector de copias en JSON. Los lectores y escritores de Jackson son inmutables y seguros para varios
+     * hilos, y guardan los deserializadores ya construidos, así que se crean una sola vez.
+     */
+    private static final ObjectReader JSON_READER = reader(new ObjectMapper());
+
+    /**
+     * Escritor de copias en JSON.
+     */
+    private static final ObjectWriter JSON_WRITER = writer(new ObjectMapper());
+
+    /**
+     * Lector de copias en Smile.
+     */
+    private static final ObjectReader SMILE_READER = reader(new ObjectMapper(new SmileFactory()));
+
+    /**
+     * Escritor de copias en Smile.
+     */
+    private static final ObjectWriter SMILE_WRITER = writer(new ObjectMapper(new SmileFactory()));
+
+    /**
+     * Repositorios ya cargados, uno por cada archivo JSON.
+     */
+    private static final Map<Path, TeamRepository> REPOSITORIES = new HashMap<>();
+
+    /**
+     * Hilo que confirma el diario y compacta el equipo en segundo plano.
+     */
+    private static final ScheduledExecutorService FLUSHER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "team-journal-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Tiempo de la lectura de un equipo con su diario.
+     */
+    private static final Metrics.Timer LOAD_TIMER = Metrics.timer("team.load");
+
+    /**
+     * Tiempo de una compra.
+     */
+    private static final Metrics.Timer BUY_TIMER = Metrics.timer("team.buy");
+
+    /**
+     * Tiempo de una venta.
+     */
+    private static final Metrics.Timer SELL_TIMER = Metrics.timer("team.sell");
+
+    /**
+     * Tiempo de la confirmación del diario en el disco.
+     */
+    private static final Metrics.Timer JOURNAL_SYNC_TIMER = Metrics.timer("team.journalSync");
+
+    /**
+     * Tiempo de la escritura de la copia completa del equipo.
+     */
+    private static final Metrics.Timer WRITE_TIMER = Metrics.timer("team.write");
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(TeamRepository::flushAll, "team-json-shutdown"));
+        Metrics.gauge("team.roster", TeamRepository::loadedRosterSize);
+    }
+
+    /**
+     * Ruta al archivo JSON del equipo.
+     */
+    private final Path jsonPath;
+
+    /**
+     * Lector del formato del archivo del equipo.
+     */
+    private final ObjectReader documentReader;
+
+    /**
+     * Escritor del formato del archivo del equipo.
+     */
+    private final ObjectWriter documentWriter;
+
+    /**
+     * Diario con las operaciones posteriores a la última copia de team.json.
+     */
+    private final TradeJournal journal;
+
+    /**
+     * Presupuesto disponible para compras.
+     */
+    private final AtomicInteger budget = new AtomicInteger();
+
+    /**
+     * Jugadores del equipo indexados por su id.
+     */
+    private final ConcurrentHashMap<Integer, RosterEntry> roster = new ConcurrentHashMap<>();
+
+    /**
+     * Bloqueos que serializan las operaciones sobre un mismo jugador.
+     */
+    private final Object[] playerLocks = new Object[LOCK_STRIPES];
+
+    /**
+     * Bloqueo que las operaciones comparten y que la compactación toma en exclusiva, para copiar el
+     * presupuesto, la plantilla y el diario en un mismo instante.
+     */
+    private final ReentrantReadWriteLock snapshotLock = new ReentrantReadWriteLock();
+
+    /**
+     * Confirmación del diario programada que todavía no se ha realizado, o {@code null} si no hay ninguna.
+     */
+    private ScheduledFuture<?> pendingSync;
+
+    /**
+     * Compactación programada que todavía no se ha realizado, o {@code null} si no hay ninguna.
+     */
+    private ScheduledFuture<?> pendingCompaction;
+
+    /**
+     * Objeto usado para que dos compactaciones no se solapen.
+     */
+    private final Object writeLock = new Object();
+
+    /**
+     * Crea el repositorio leyendo la copia de team.json y aplicando encima las operaciones del diario.
+     *
+     * @param jsonPath ruta al archivo JSON.
+     * @throws IOException si no se puede leer el archivo o el diario.
+     */
+    private TeamRepository(Path jsonPath) throws IOException {
+        this.jsonPath = jsonPath;
+        for (int stripe = 0; stripe < LOCK_STRIPES; stripe++) {
+            playerLocks[stripe] = new Object();
+        }
+        boolean smile = jsonPath.getFileName().toString().endsWith(SMILE_EXTENSION);
+        documentReader = smile ? SMILE_READER : JSON_READER;
+        documentWriter = smile ? SMILE_WRITER : JSON_WRITER;
+
+        long start = LOAD_TIMER.start();
+        try {
+            TeamDocument document;
+            try (InputStream in = Files.newInputStream(jsonPath)) {
+                document = documentReader.readValue(in);
+            }
+            budget.set(document.budget());
+            for (RosterEntry entry : document.team()) {
+                roster.put(entry.id(), entry);
+            }
+
+            long sequence = document.journalSequence();
+            journal = new TradeJournal(jsonPath.resolveSibling(jsonPath.getFileName() + ".journal"), sequence);
+            journal.replay(sequence, this::apply);
+        } finally {
+            LOAD_TIMER.stop(start);
+        }
+    }
+
+    /**
+     * Devuelve el repositorio del archivo JSON indicado, leyéndolo solo la primera vez.
+     *
+     * @param jsonPath ruta al archivo JSON del equipo.
+     * @return el repositorio del equipo.
+     * @throws IOException si no se puede leer el archivo.
+     */
+    public static synchronized TeamRepository open(Path jsonPath) throws IOException {
+        Path key = jsonPath.toAbsolutePath().normalize();
+        TeamRepository repository = REPOSITORIES.get(key);
+        if (repository == null) {
+            repository = load(key);
+            REPOSITORIES.put(key, repository);
+        }
+        return repository;
+    }
+
+    /**
+     * Crea un repositorio nuevo con el equipo de un archivo JSON y su diario, sin usar ni guardar nada en
+     * la caché de {@link #open(Path)}. Sirve para comprobar qué se recupera al volver a abrir el equipo.
+     *
+     * @param jsonPath ruta al archivo JSON del equipo.
+     * @return un repositorio nuevo con el equipo del archivo.
+     * @throws IOException si no se puede leer el archivo o el diario.
+     */
+    static TeamRepository load(Path jsonPath) throws IOException {
+        return new TeamRepository(jsonPath);
+    }
+
+    /**
+     * Obtiene el número total de jugadores de los equipos abiertos.
+     *
+     * @return el número de jugadores.
+     */
+    private static synchronized int loadedRosterSize() {
+        int players = 0;
+        for (TeamRepository repository : REPOSITORIES.values()) {
+            players += repository.roster.size();
+        }
+        return players;
+    }
+
+    /**
+     * Confirma el diario y compacta el equipo de todos los repositorios abiertos.
+     */
+    public static void flushAll() {
+        List<TeamRepository> repositories;
+        synchronized (TeamRepository.class) {
+            repositories = new ArrayList<>(REPOSITORIES.values());
+        }
+        for (TeamRepository repository : repositories) {
+            try {
+                repository.flush();
+            } catch (IOException e) {
+                System.out.printf("Error guardando el team.json: %s\n", e.getMessage());
+                Metrics.error("team");
+            }
+        }
+    }
+
+    /**
+     * Añade un jugador al equipo si el presupuesto lo permite. La compra se guarda en el diario antes
+     * de aplicarse en memoria; si el jugador ya estaba en el equipo no se vuelve a cobrar.
+     *
+     * @param player el jugador que se desea añadir.
+     * @return {@code true} si se ha añadido, {@code false} si el presupuesto es insuficiente.
+     * @throws IOException si no se puede escribir en el diario; en ese caso el equipo no cambia.
+     */
+    public boolean addPlayer(Player player) throws IOException {
+        int price = player.getMarketValue();
+        long start = BUY_TIMER.start();
+        snapshotLock.readLock().lock();
+        try {
+            synchronized (lockFor(player.getId())) {
+                if (roster.containsKey(player.getId())) return true;
+                if (!withdraw(price)) return false;
+
+                try {
+                    journal.append(TradeJournal.BUY, player, -price);
+                } catch (IOException e) {
+                    budget.addAndGet(price);
+                    throw e;
+                }
+                roster.put(player.getId(), RosterEntry.of(player));
+            }
+        } finally {
+            snapshotLock.readLock().unlock();
+            BUY_TIMER.stop(start);
+        }
+        scheduleWrites();
+        return true;
+    }
+
+    /**
+     * Quita un jugador del equipo y le devuelve al presupuesto su valor de mercado. La venta se guarda
+     * en el diario antes de aplicarse en memoria; si el jugador no estaba en el equipo no se hace nada.
+     *
+     * @param player el jugador que se desea quitar.
+     * @throws IOException si no se puede escribir en el diario; en ese caso el equipo no cambia.
+     */
+    public void removePlayer(Player player) throws IOException {
+        int price = player.getMarketValue();
+        long start = SELL_TIMER.start();
+        snapshotLock.readLock().lock();
+        try {
+            synchronized (lockFor(player.getId())) {
+                if (!roster.containsKey(player.getId())) return;
+
+                journal.append(TradeJournal.SELL, player, price);
+                roster.remove(player.getId());
+                budget.addAndGet(price);
+            }
+        } finally {
+            snapshotLock.readLock().unlock();
+            SELL_TIMER.stop(start);
+        }
+        scheduleWrites();
+    }
+
+    /**
+     * Comprueba si un jugador forma parte del equipo.
+     *
+     * @param playerId el id del jugador.
+     * @return {@code true} si está en el equipo.
+     */
+    public boolean contains(int playerId) {
+        return roster.containsKey(playerId);
+    }
+
+    /**
+     * Obtiene los ids de todos los jugadores del equipo de una sola vez, para poder comprobar
+     * muchas pertenencias seguidas sin volver a consultar el repositorio.
+     *
+     * @return una copia con los ids de los jugadores del equipo.
+     */
+    public Set<Integer> getPlayerIds() {
+        return new HashSet<>(roster.keySet());
+    }
+
+    /**
+     * Obtiene el presupuesto disponible para compras.
+     *
+     * @return el presupuesto actual.
+     */
+    public int getBudget() {
+        return budget.get();
+    }
+
+    /**
+     * Crea un mapa con los jugadores del equipo.
+     *
+     * @return un mapa que asocia los ids de los jugadores del equipo con objetos {@link Player}.
+     */
+    public PlayerMap getPlayers() {
+        PlayerMap team = new PlayerMap(roster.size());
+        for (RosterEntry entry : roster.values()) {
+            team.put(entry.id(), entry.toPlayer());
+        }
+        return team;
+    }
+
+    /**
+     * Aplica en memoria una operación del diario al abrir el repositorio.
+     *
+     * @param trade la compra o venta.
+     */
+    private void apply(TradeJournal.Trade trade) {
+        budget.addAndGet(trade.budgetDelta());
+        if (trade.type() == TradeJournal.SELL) {
+            roster.remove(trade.playerId());
+        } else {
+            roster.put(trade.playerId(), new RosterEntry(trade.playerId(), trade.name(), trade.clubName(),
+                    trade.position(), trade.playerImageURL(), trade.clubImageURL()));
+        }
+    }
+
+    /**
+     * Resta una cantidad del presupuesto solo si no queda en negativo. Si otro hilo cambia el
+     * presupuesto entre la lectura y la escritura, se vuelve a intentar con el valor nuevo.
+     *
+     * @param amount la cantidad a restar.
+     * @return {@code true} si se ha restado, {@code false} si el presupuesto es insuficiente.
+     */
+    private boolean withdraw(int amount) {
+        int current;
+        do {
+            current = budget.get();
+            if (current - amount < 0) return false;
+        } while (!budget.compareAndSet(current, current - amount));
+        return true;
+    }
+
+    /**
+     * Obtiene el bloqueo que protege las operaciones sobre un jugador.
+     *
+     * @param playerId el id del jugador.
+     * @return el bloqueo del grupo al que pertenece el jugador.
+     */
+    private Object lockFor(int playerId) {
+        int hash = playerId * 0x9E3779B9;
+        return playerLocks[(hash ^ (hash >>> 16)) & (LOCK_STRIPES - 1)];
+    }
+
+    /**
+     * Crea el lector de copias del equipo de un conversor. Las propiedades desconocidas se ignoran, como
+     * hacía la lectura sin tipos, para poder abrir archivos con campos añadidos a mano.
+     *
+     * @param mapper el conversor del formato.
+     * @return el lector de {@link TeamDocument}.
+     */
+    private static ObjectReader reader(ObjectMapper mapper) {
+        return mapper.readerFor(TeamDocument.class).without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    }
+
+    /**
+     * Crea el escritor de copias del equipo de un conversor. No cierra el flujo al terminar, para poder
+     * forzar el canal al disco antes de cerrarlo.
+     *
+     * @param mapper el conversor del formato.
+     * @return el escritor de {@link TeamDocument}.
+     */
+    private static ObjectWriter writer(ObjectMapper mapper) {
+        return mapper.writerFor(TeamDocument.class).without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    /**
+     * Programa la confirmación del diario y, si hace falta, la compactación del equipo.
+     */
+    private synchronized void scheduleWrites() {
+        if (pendingSync == null) {
+            pendingSync = FLUSHER.schedule(this::syncJournal, SYNC_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+        if (pendingCompaction == null) {
+            pendingCompaction = FLUSHER.schedule(this::compactQuietly, COMPACT_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Fuerza el diario al disco y compacta el equipo si el diario ha crecido demasiado.
+     * Se ejecuta en el hilo en segundo plano.
+     */
+    private void syncJournal() {
+        synchronized (this) {
+            pendingSync = null;
+        }
+        long start = JOURNAL_SYNC_TIMER.start();
+        try {
+            journal.sync();
+        } catch (IOException e) {
+            System.out.printf("Error guardando el diario de operaciones: %s\n", e.getMessage());
+            Metrics.error("team");
+        } finally {
+            JOURNAL_SYNC_TIMER.stop(start);
+        }
+        if (journal.getRecordCount() >= COMPACT_THRESHOLD) compactQuietly();
+    }
+
+    /**
+     * Compacta el equipo mostrando por consola los errores. Se ejecuta en el hilo en segundo plano.
+     */
+    private void compactQuietly() {
+        try {
+            flush();
+        } catch (IOException e) {
+            System.out.printf("Error guardando el team.json: %s\n", e.getMessage());
+            Metrics.error("team");
+        }
+    }
+
+    /**
+     * Compacta el equipo inmediatamente: escribe una copia completa en team.json, sustituyendo el
+     * archivo de forma atómica, y vacía el diario. No hace nada si el diario está vacío.
+     *
+     * @throws IOException si no se puede escribir el archivo.
+     */
+    public void flush() throws IOException {
+        synchronized (writeLock) {
+            journal.sync();
+            TeamDocument document;
+            long sequence;
+            synchronized (this) {
+                if (pendingCompaction != null) {
+                    pendingCompaction.cancel(false);
+                    pendingCompaction = null;
+                }
+            }
+            snapshotLock.writeLock().lock();
+            try {
+                if (journal.getRecordCount() == 0) return;
+                sequence = journal.getLastSequence();
+                document = new TeamDocument(budget.get(), new ArrayList<>(roster.values()), sequence);
+            } finally {
+                snapshotLock.writeLock().unlock();
+            }
+
+            writeAtomically(document);
+
+            if (!journal.truncateIfCovered(sequence)) scheduleWrites();
+        }
+    }
+
+    /**
+     * Escribe la copia del equipo en un archivo temporal del mismo directorio, la fuerza al disco y la
+     * mueve sobre el archivo definitivo, para que nunca quede un team.json a medias. El documento se
+     * escribe directamente en el canal del archivo temporal a través de un buffer.
+     *
+     * @param document el contenido del archivo.
+     * @throws IOException si no se puede escribir o mover el archivo.
+     */
+    private void writeAtomically(TeamDocument document) throws IOException {
+        long start = WRITE_TIMER.start();
+        Path temp = Files.createTempFile(jsonPath.getParent(), "team", ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 13);
+                documentWriter.writeValue(out, document);
+                out.flush();
+                channel.force(true);
+            }
+            Files.move(temp, jsonPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+            WRITE_TIMER.stop(start);
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package org.marcosjfx.marcosfx.backend;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Diario de operaciones del equipo: cada compra o venta se añade al final del archivo como un
+ * registro pequeño, en lugar de volver a escribir todo el team.json.
+ * <p>
+ * Cada registro tiene la forma {@code [longitud][CRC32][datos]}, donde los datos son el número de
+ * secuencia, el tipo de operación, el id del jugador, el precio, el cambio de presupuesto y, en las
+ * compras, los datos del jugador necesarios para reconstruir la plantilla. Si la aplicación se cierra
+ * a mitad de una escritura, el último registro queda incompleto o con un CRC incorrecto; al leer el
+ * diario se descarta ese registro y se recorta el archivo.
+ */
+class TradeJournal implements Closeable {
+
+    /**
+     * Tipo de registro de una compra.
+     */
+    static final byte BUY = 0;
+
+    /**
+     * Tipo de registro de una venta.
+     */
+    static final byte SELL = 1;
+
+    /**
+     * Bytes de la cabecera de cada registro (longitud y CRC32).
+     */
+    private static final int HEADER_BYTES = 8;
+
+    /**
+     * Canal del archivo del diario.
+     */
+    private final FileChannel channel;
+
+    /**
+     * Número de secuencia del último registro escrito o leído.
+     */
+    private long lastSequence;
+
+    /**
+     * Número de registros que contiene el archivo.
+     */
+    private int recordCount;
+
+    /**
+     * Indica si hay registros escritos que todavía no se han forzado al disco.
+     */
+    private boolean unsynced;
+
+    /**
+     * Operación guardada en el diario.
+     *
+     * @param sequence       número de secuencia del registro.
+     * @param type           {@link #BUY} o {@link #SELL}.
+     * @param playerId       id del jugador.
+     * @param price          valor de mercado del jugador en el momento de la operación.
+     * @param budgetDelta    cambio del presupuesto (negativo en las compras).
+     * @param name           nombre del jugador, o {@code null} en las ventas.
+     * @param clubName       club del jugador, o {@code null} en las ventas.
+     * @param position       código de la posición del jugador, o {@code null} en las ventas.
+     * @param playerImageURL URL del retrato, o {@code null} en las ventas.
+     * @param clubImageURL   URL del escudo, o {@code null} en las ventas.
+     */
+    record Trade(long sequence, byte type, int playerId, int price, int budgetDelta, String name,
+                 String clubName, String position, String playerImageURL, String clubImageURL) {
+    }
+
+    /**
+     * Abre el diario, creándolo si no existe.
+     *
+     * @param path             ruta al archivo del diario.
+     * @param snapshotSequence número de secuencia que ya incluye la última copia de team.json; los
+     *                         nuevos registros continuarán a partir de él si el diario está vacío.
+     * @throws IOException si no se puede abrir el archivo.
+     */
+    TradeJournal(Path path, long snapshotSequence) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        this.lastSequence = snapshotSequence;
+    }
+
+    /**
+     * Lee todo el diario y entrega, en orden, las operaciones posteriores a la copia de team.json.
+     * Si el final del archivo está dañado, se recorta para que los nuevos registros se escriban a
+     * continuación del último registro válido.
+     *
+     * @param afterSequence número de secuencia incluido en la copia de team.json; los registros con
+     *                      una secuencia menor o igual ya están aplicados y se saltan.
+     * @param consumer      acción que aplica cada operación.
+     * @throws IOException si no se puede leer el archivo.
+     */
+    synchronized void replay(long afterSequence, Consumer<Trade> consumer) throws IOException {
+        long size = channel.size();
+        ByteBuffer buffer = ByteBuffer.allocate((int) size);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, buffer.position()) < 0) break;
+        }
+        buffer.flip();
+
+        CRC32 crc = new CRC32();
+        int validEnd = 0;
+        recordCount = 0;
+        while (buffer.remaining() >= HEADER_BYTES) {
+            int length = buffer.getInt();
+            int checksum = buffer.getInt();
+            if (length <= 0 || length > buffer.remaining()) break;
+
+            byte[] payload = new byte[length];
+            buffer.get(payload);
+            crc.reset();
+            crc.update(payload);
+            if ((int) crc.getValue() != checksum) break;
+
+            Trade trade = decode(payload);
+            lastSequence = Math.max(lastSequence, trade.sequence());
+            if (trade.sequence() > afterSequence) consumer.accept(trade);
+            validEnd = buffer.position();
+            recordCount++;
+        }
+
+        if (validEnd < size) {
+            System.out.printf("Error en el diario de operaciones: se descartan %d bytes dañados\n", size - validEnd);
+            Metrics.error("team");
+            channel.truncate(validEnd);
+            channel.force(false);
+        }
+        channel.position(validEnd);
+    }
+
+    /**
+     * Añade una operación al final del diario. El registro llega al sistema operativo en el momento,
+     * así que sobrevive a un cierre inesperado de la aplicación; para que sobreviva también a un corte
+     * de luz hay que llamar después a {@link #sync()}.
+     *
+     * @param type        {@link #BUY} o {@link #SELL}.
+     * @param player      el jugador comprado o vendido.
+     * @param budgetDelta cambio del presupuesto.
+     * @return el número de secuencia del registro.
+     * @throws IOException si no se puede escribir el registro; en ese caso el diario queda como estaba.
+     */
+    synchronized long append(byte type, Player player, int budgetDelta) throws IOException {
+        long sequence = lastSequence + 1;
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0);
+        out.writeInt(0);
+        out.writeLong(sequence);
+        out.writeByte(type);
+        out.writeInt(player.getId());
+        out.writeInt(player.getMarketValue());
+        out.writeInt(budgetDelta);
+        if (type == BUY) {
+            out.writeUTF(player.getName());
+            out.writeUTF(player.getClubName());
+            out.writeUTF(Objects.requireNonNullElse(player.getPositionCode(), ""));
+            out.writeUTF(player.getPlayerImageURL());
+            out.writeUTF(player.getClubImageURL());
+        }
+
+        ByteBuffer record = ByteBuffer.wrap(bytes.toByteArray());
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), HEADER_BYTES, record.limit() - HEADER_BYTES);
+        record.putInt(0, record.limit() - HEADER_BYTES);
+        record.putInt(4, (int) crc.getValue());
+
+        long start = channel.position();
+        try {
+            while (record.hasRemaining()) {
+                channel.write(record);
+            }
+        } catch (IOException e) {
+            channel.truncate(start);
+            channel.position(start);
+            throw e;
+        }
+
+        lastSequence = sequence;
+        recordCount++;
+        unsynced = true;
+        return sequence;
+    }
+
+    /**
+     * Fuerza al disco los registros escritos desde la última llamada. Varias operaciones seguidas
+     * se confirman así con un único {@code fsync}.
+     *
+     * @throws IOException si no se puede forzar la escritura.
+     */
+    synchronized void sync() throws IOException {
+        if (!unsynced) return;
+        channel.force(false);
+        unsynced = false;
+    }
+
+    /**
+     * Vacía el diario si su último registro ya está incluido en la copia de team.json.
+     *
+     * @param snapshotSequence número de secuencia incluido en la copia de team.json.
+     * @return {@code true} si se ha vaciado, {@code false} si hay registros posteriores a la copia.
+     * @throws IOException si no se puede recortar el archivo.
+     */
+    synchronized boolean truncateIfCovered(long snapshotSequence) throws IOException {
+        if (lastSequence != snapshotSequence) return false;
+        channel.truncate(0);
+        channel.position(0);
+        channel.force(false);
+        recordCount = 0;
+        unsynced = false;
+        return true;
+    }
+
+    /**
+     * Obtiene el número de secuencia del último registro.
+     *
+     * @return el último número de secuencia.
+     */
+    synchronized long getLastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * Obtiene el número de registros que contiene el diario.
+     *
+     * @return el número de registros.
+     */
+    synchronized int getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Fuerza al disco los registros pendientes y cierra el archivo.
+     *
+     * @throws IOException si no se puede cerrar el archivo.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        sync();
+        channel.close();
+    }
+
+    /**
+     * Lee una operación a partir de los datos de un registro.
+     *
+     * @param payload los datos del registro, sin la cabecera.
+     * @return la operación leída.
+     * @throws IOException si los datos no tienen el formato esperado.
+     */
+    private static Trade decode(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        long sequence = in.readLong();
+        byte type = in.readByte();
+        int playerId = in.readInt();
+        int price = in.readInt();
+        int budgetDelta = in.readInt();
+        if (type != BUY) {
+            return new Trade(sequence, type, playerId, price, budgetDelta, null, null, null, null, null);
+        }
+        return new Trade(sequence, type, playerId, price, budgetDelta, in.readUTF(), in.readUTF(),
+                in.readUTF(), in.readUTF(), in.readUTF());
+    }
+}
@@ -0,0 +1,158 @@
+package org.marcosjfx.marcosfx;
+
+import javafx.scene.image.Image;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import java.util.zip.DeflaterOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Pruebas de {@link ImageCache}: la caché en disco funciona sin acceso al origen de las imágenes y la
+ * caché en memoria descarta las imágenes menos usadas según el tamaño de sus píxeles. Las imágenes se
+ * sirven desde archivos locales con URLs {@code file://}, así que no hace falta conexión.
+ */
+class ImageCacheTest {
+
+    /**
+     * Tiempo máximo de espera de cada carga.
+     */
+    private static final long TIMEOUT_SECONDS = 10;
+
+    /**
+     * Bytes de píxeles de una imagen de 10 x 10.
+     */
+    private static final long IMAGE_BYTES = 10 * 10 * 4;
+
+    /**
+     * Directorio con las imágenes de origen.
+     */
+    @TempDir
+    Path sourceDirectory;
+
+    /**
+     * Directorio de la caché en disco.
+     */
+    @TempDir
+    Path cacheDirectory;
+
+    @Test
+    void readsFromDiskAfterSourceIsDeleted() throws Exception {
+        Path source = writePng("portrait.png", 10, 10);
+        String url = source.toUri().toString();
+
+        Image downloaded = new ImageCache(cacheDirectory, 1 << 20, 1).load(url).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        assertEquals(10, downloaded.getWidth());
+        Files.delete(source);
+
+        ImageCache freshCache = new ImageCache(cacheDirectory, 1 << 20, 1);
+        assertNull(freshCache.getIfPresent(url));
+        Image fromDisk = freshCache.load(url).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        assertEquals(10, fromDisk.getWidth());
+        assertEquals(10, fromDisk.getHeight());
+    }
+
+    @Test
+    void failsWhenSourceAndDiskCopyAreMissing() {
+        String url = sourceDirectory.resolve("missing.png").toUri().toString();
+        ImageCache cache = new ImageCache(cacheDirectory, 1 << 20, 1);
+
+        assertThrows(ExecutionException.class, () -> cache.load(url).get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(0, cache.getCachedCount());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedByPixelBytes() throws Exception {
+        ImageCache cache = new ImageCache(cacheDirectory, 2 * IMAGE_BYTES + IMAGE_BYTES / 2, 1);
+        String first = writePng("first.png", 10, 10).toUri().toString();
+        String second = writePng("second.png", 10, 10).toUri().toString();
+        String third = writePng("third.png", 10, 10).toUri().toString();
+
+        cache.load(first).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        cache.load(second).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        assertNotNull(cache.getIfPresent(first));
+        cache.load(third).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        assertEquals(2, cache.getCachedCount());
+        assertNotNull(cache.getIfPresent(first));
+        assertNull(cache.getIfPresent(second));
+        assertNotNull(cache.getIfPresent(third));
+    }
+
+    @Test
+    void keepsLatestImageLargerThanLimit() throws Exception {
+        ImageCache cache = new ImageCache(cacheDirectory, IMAGE_BYTES, 1);
+        String small = writePng("small.png", 10, 10).toUri().toString();
+        String large = writePng("large.png", 20, 20).toUri().toString();
+
+        cache.load(small).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        cache.load(large).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        assertEquals(1, cache.getCachedCount());
+        assertNull(cache.getIfPresent(small));
+        assertNotNull(cache.getIfPresent(large));
+    }
+
+    /**
+     * Escribe una imagen PNG de un solo color en el directorio de origen.
+     *
+     * @param name   el nombre del archivo.
+     * @param width  el ancho en píxeles.
+     * @param height el alto en píxeles.
+     * @return la ruta del archivo.
+     * @throws IOException si no se puede escribir.
+     */
+    private Path writePng(String name, int width, int height) throws IOException {
+        ByteArrayOutputStream pixels = new ByteArrayOutputStream();
+        try (DeflaterOutputStream out = new DeflaterOutputStream(pixels)) {
+            for (int y = 0; y < height; y++) {
+                out.write(0);
+                for (int x = 0; x < width; x++) {
+                    out.write(new byte[]{(byte) 200, 30, 30});
+                }
+            }
+        }
+        ByteBuffer header = ByteBuffer.allocate(13).putInt(width).putInt(height).put((byte) 8).put((byte) 2);
+
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        png.writeBytes(new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'});
+        writeChunk(png, "IHDR", header.array());
+        writeChunk(png, "IDAT", pixels.toByteArray());
+        writeChunk(png, "IEND", new byte[0]);
+
+        Path file = sourceDirectory.resolve(name);
+        Files.write(file, png.toByteArray());
+        return file;
+    }
+
+    /**
+     * Añade un bloque a un archivo PNG, con su longitud y su CRC.
+     *
+     * @param png  el contenido del archivo.
+     * @param type el tipo del bloque.
+     * @param data los datos del bloque.
+     */
+    private static void writeChunk(ByteArrayOutputStream png, String type, byte[] data) {
+        byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+        CRC32 crc = new CRC32();
+        crc.update(typeBytes);
+        crc.update(data);
+        png.writeBytes(ByteBuffer.allocate(4).putInt(data.length).array());
+        png.writeBytes(typeBytes);
+        png.writeBytes(data);
+        png.writeBytes(ByteBuffer.allocate(4).putInt((int) crc.getValue()).array());
+    }
+}
@@ -0,0 +1,213 @@
+package org.marcosjfx.marcosfx.backend;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pruebas de {@link LeagueStore}: las compras y ventas de cada mánager sobre un catálogo pequeño, también
+ * desde varios hilos a la vez.
+ */
+class LeagueStoreTest {
+
+    /**
+     * Cabecera del archivo CSV de jugadores.
+     */
+    private static final String HEADER = "id,name,overall,market_value,age,team_id,club_name,club_position,"
+            + "goals,assists,saves,player_face_url,club_logo_url\n";
+
+    /**
+     * Número de jugadores del catálogo.
+     */
+    private static final int PLAYERS = 40;
+
+    /**
+     * Presupuesto inicial de cada mánager: alcanza para unos pocos jugadores.
+     */
+    private static final long START_BUDGET = 5_000_000;
+
+    /**
+     * Número de mánagers de la prueba concurrente.
+     */
+    private static final int MANAGERS = 6;
+
+    /**
+     * Número de hilos que compran y venden a la vez.
+     */
+    private static final int THREADS = 8;
+
+    /**
+     * Número de operaciones de cada hilo.
+     */
+    private static final int OPERATIONS_PER_THREAD = 2_000;
+
+    /**
+     * Directorio con el catálogo de la prueba.
+     */
+    @TempDir
+    Path directory;
+
+    @Test
+    void buysAndSellsMoveMarketValueBetweenBudgetAndSquad() throws Exception {
+        PlayerStore catalog = loadCatalog();
+        LeagueStore league = new LeagueStore(catalog, START_BUDGET);
+        Team team = league.addManager(1);
+        assertSame(team, league.addManager(1));
+        assertEquals(1, league.getManagerCount());
+
+        assertTrue(league.buyPlayer(1, 3));
+        assertTrue(league.buyPlayer(1, 1));
+        assertEquals(START_BUDGET - price(1) - price(3), team.getBudget());
+        assertArrayEquals(new int[]{1, 3}, team.getPlayerIds());
+        assertEquals(price(1) + price(3), league.getSquadValue(1));
+        assertEquals(List.of(1, 3), league.getPlayers(1).stream().map(Player::getId).toList());
+
+        assertTrue(league.sellPlayer(1, 3));
+        assertEquals(START_BUDGET - price(1), team.getBudget());
+        assertArrayEquals(new int[]{1}, team.getPlayerIds());
+
+        // Un jugador que no está en el equipo no se vende.
+        assertFalse(league.sellPlayer(1, 3));
+        assertEquals(START_BUDGET - price(1), team.getBudget());
+    }
+
+    @Test
+    void buyWithoutBudgetIsRejected() throws Exception {
+        LeagueStore league = new LeagueStore(loadCatalog(), START_BUDGET);
+        Team team = league.addManager(1);
+
+        assertTrue(league.buyPlayer(1, PLAYERS));
+        assertTrue(league.buyPlayer(1, PLAYERS - 1));
+        assertTrue(league.buyPlayer(1, PLAYERS - 2));
+        long budget = team.getBudget();
+        assertTrue(budget < price(PLAYERS - 3));
+        assertFalse(league.buyPlayer(1, PLAYERS - 3));
+        assertEquals(budget, team.getBudget());
+        assertArrayEquals(new int[]{PLAYERS - 2, PLAYERS - 1, PLAYERS}, team.getPlayerIds());
+    }
+
+    @Test
+    void duplicateBuyIsNotChargedTwice() throws Exception {
+        LeagueStore league = new LeagueStore(loadCatalog(), START_BUDGET);
+        Team team = league.addManager(1);
+
+        assertTrue(league.buyPlayer(1, 5));
+        assertTrue(league.buyPlayer(1, 5));
+        assertEquals(START_BUDGET - price(5), team.getBudget());
+        assertEquals(1, team.size());
+
+        assertTrue(league.sellPlayer(1, 5));
+        assertEquals(START_BUDGET, team.getBudget());
+        assertEquals(0, team.size());
+    }
+
+    @Test
+    void unknownManagerOrPlayerIsRejected() throws Exception {
+        LeagueStore league = new LeagueStore(loadCatalog(), START_BUDGET);
+        Team team = league.addManager(1);
+
+        assertNull(league.getTeam(2));
+        assertThrows(IllegalArgumentException.class, () -> league.buyPlayer(2, 1));
+        assertThrows(IllegalArgumentException.class, () -> league.sellPlayer(2, 1));
+        assertThrows(IllegalArgumentException.class, () -> league.getPlayers(2));
+        assertThrows(IllegalArgumentException.class, () -> league.getSquadValue(2));
+        assertThrows(IllegalArgumentException.class, () -> league.buyPlayer(1, PLAYERS + 1));
+        assertThrows(IllegalArgumentException.class, () -> league.sellPlayer(1, PLAYERS + 1));
+
+        assertEquals(START_BUDGET, team.getBudget());
+        assertEquals(0, team.size());
+        assertEquals(1, league.getManagerCount());
+    }
+
+    @Test
+    void parallelTradesKeepEachManagerConsistent() throws Exception {
+        LeagueStore league = new LeagueStore(loadCatalog(), START_BUDGET);
+        for (int manager = 1; manager <= MANAGERS; manager++) {
+            league.addManager(manager);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                SplittableRandom random = new SplittableRandom(thread);
+                workers.add(executor.submit(() -> {
+                    start.await();
+                    for (int operation = 0; operation < OPERATIONS_PER_THREAD; operation++) {
+                        int manager = 1 + random.nextInt(MANAGERS);
+                        int playerId = 1 + random.nextInt(PLAYERS);
+                        if (random.nextBoolean()) league.buyPlayer(manager, playerId);
+                        else league.sellPlayer(manager, playerId);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (int manager = 1; manager <= MANAGERS; manager++) {
+            Team team = league.getTeam(manager);
+            int[] playerIds = team.getPlayerIds();
+            long owned = 0;
+            for (int i = 0; i < playerIds.length; i++) {
+                if (i > 0) assertTrue(playerIds[i - 1] < playerIds[i], "ids sin ordenar o repetidos");
+                owned += price(playerIds[i]);
+            }
+            assertTrue(team.getBudget() >= 0);
+            assertEquals(START_BUDGET - owned, team.getBudget());
+            assertEquals(owned, league.getSquadValue(manager));
+            assertEquals(playerIds.length, league.getPlayers(manager).size());
+        }
+    }
+
+    /**
+     * Escribe y carga un catálogo en el que el jugador de id {@code n} cuesta {@link #price(int)}.
+     *
+     * @return el catálogo.
+     * @throws IOException si no se puede escribir o leer.
+     */
+    private PlayerStore loadCatalog() throws IOException {
+        StringBuilder csv = new StringBuilder(HEADER);
+        for (int id = 1; id <= PLAYERS; id++) {
+            csv.append(id).append(",Player ").append(id).append(",70,").append(price(id))
+                    .append(",25,0,Club 0,ST,0,0,0,p.png,club0.png\n");
+        }
+        Path csvPath = directory.resolve("players.csv");
+        Files.writeString(csvPath, csv);
+        return PlayerStore.load(csvPath);
+    }
+
+    /**
+     * Calcula el valor de mercado de un jugador del catálogo de la prueba.
+     *
+     * @param playerId el id del jugador.
+     * @return su valor de mercado.
+     */
+    private static int price(int playerId) {
+        return 500_000 + playerId * 25_000;
+    }
+}
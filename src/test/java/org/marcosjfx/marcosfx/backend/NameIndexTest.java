@@ -0,0 +1,185 @@
+package org.marcosjfx.marcosfx.backend;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Pruebas de {@link NameIndex} a través de {@link PlayerSearch}: tildes, prefijos de palabra, nombres de
+ * club y búsquedas que refinan la anterior.
+ */
+class NameIndexTest {
+
+    /**
+     * Cabecera del archivo CSV de jugadores.
+     */
+    private static final String HEADER = "id,name,overall,market_value,age,team_id,club_name,club_position,"
+            + "goals,assists,saves,player_face_url,club_logo_url\n";
+
+    /**
+     * Sílabas con las que se forman los nombres del catálogo aleatorio, algunas con tildes.
+     */
+    private static final String[] SYLLABLES = {"ma", "mé", "ri", "ro", "sa", "sú", "ca", "ño", "lu", "pé", "an",
+            "ël"};
+
+    /**
+     * Clubes del catálogo aleatorio.
+     */
+    private static final String[] CLUBS = {"Real Madrid", "Atlético de Madrid", "Real Sociedad", "Málaga CF",
+            "Paris Saint-Germain"};
+
+    /**
+     * Directorio con el catálogo de la prueba.
+     */
+    @TempDir
+    Path directory;
+
+    @Test
+    void accentsAndCaseAreIgnored() throws Exception {
+        PlayerSearch search = smallCatalog().newSearch();
+        assertArrayEquals(new int[]{0}, search.search("mbappe"));
+        assertArrayEquals(new int[]{0}, search.search("MBAPPÉ"));
+        assertArrayEquals(new int[]{1}, search.search("suárez"));
+        assertArrayEquals(new int[]{1}, search.search("SUAREZ"));
+        assertArrayEquals(new int[]{2}, search.search("muller"));
+        assertArrayEquals(new int[]{2, 3}, search.search("munchen"));
+    }
+
+    @Test
+    void wordsMatchByPrefix() throws Exception {
+        PlayerSearch search = smallCatalog().newSearch();
+        assertArrayEquals(new int[]{1}, search.search("sua"));
+        assertArrayEquals(new int[]{1}, search.search("l. sua"));
+        assertArrayEquals(new int[]{1}, search.search("sua l"));
+        // "ppe" está dentro de "mbappe", pero no al principio de ninguna palabra.
+        assertArrayEquals(new int[0], search.search("ppe"));
+        assertArrayEquals(new int[0], search.search("l. mbappe"));
+        assertArrayEquals(new int[0], search.search("suarezz"));
+    }
+
+    @Test
+    void clubNamesAreSearched() throws Exception {
+        PlayerSearch search = smallCatalog().newSearch();
+        assertArrayEquals(new int[]{0, 4}, search.search("real"));
+        assertArrayEquals(new int[]{0, 4}, search.search("madrid"));
+        assertArrayEquals(new int[]{0}, search.search("real mbap"));
+        assertArrayEquals(new int[]{1}, search.search("barcelona"));
+        assertArrayEquals(new int[]{2, 3}, search.search("bayern"));
+        assertArrayEquals(new int[]{1, 2, 3}, search.search("fc"));
+    }
+
+    @Test
+    void textWithoutWordsDoesNotFilter() throws Exception {
+        PlayerSearch search = smallCatalog().newSearch();
+        assertNull(search.search(""));
+        assertNull(search.search("   "));
+        assertNull(search.search(" .,- "));
+        assertArrayEquals(new int[]{0}, search.search("mbappe"));
+        assertNull(search.search(""));
+    }
+
+    @Test
+    void typingMatchesLinearScan() throws Exception {
+        Random random = new Random(12);
+        List<String> names = new ArrayList<>();
+        List<String> clubs = new ArrayList<>();
+        List<String[]> rowWords = new ArrayList<>();
+        StringBuilder csv = new StringBuilder(HEADER);
+        for (int row = 0; row < 3_000; row++) {
+            String name = word(random) + " " + word(random) + (random.nextBoolean() ? "" : " " + word(random));
+            String club = CLUBS[random.nextInt(CLUBS.length)];
+            names.add(name);
+            clubs.add(club);
+            rowWords.add(NameIndex.tokens(NameIndex.fold(name + " " + club)));
+            csv.append(row + 1).append(',').append(name).append(",70,1000,25,").append(club.length()).append(',')
+                    .append(club).append(",ST,0,0,0,p.png,club.png\n");
+        }
+        Path csvPath = directory.resolve("players.csv");
+        Files.writeString(csvPath, csv);
+        PlayerStore store = PlayerStore.load(csvPath);
+        PlayerSearch search = store.newSearch();
+
+        for (int i = 0; i < 200; i++) {
+            // Escribe letra a letra una o dos palabras sacadas de un jugador, a veces con otra grafía.
+            int source = random.nextInt(names.size());
+            String[] words = (names.get(source) + " " + clubs.get(source)).split(" ");
+            String text = words[random.nextInt(words.length)];
+            if (random.nextBoolean()) text += " " + words[random.nextInt(words.length)];
+            if (random.nextBoolean()) text = NameIndex.fold(text).toUpperCase(Locale.ROOT);
+            for (int length = 1; length <= text.length(); length++) {
+                String typed = text.substring(0, length);
+                int[] expected = linearSearch(typed, rowWords);
+                assertArrayEquals(expected, search.search(typed), typed);
+                assertArrayEquals(expected, store.newSearch().search(typed), typed);
+            }
+        }
+    }
+
+    /**
+     * Busca recorriendo todos los jugadores: cada palabra del texto tiene que ser el principio de alguna
+     * palabra del nombre o del club.
+     *
+     * @param text     el texto escrito.
+     * @param rowWords las palabras normalizadas del nombre y el club de cada jugador.
+     * @return las filas encontradas, o {@code null} si el texto no tiene palabras.
+     */
+    private static int[] linearSearch(String text, List<String[]> rowWords) {
+        String[] tokens = NameIndex.tokens(NameIndex.fold(text));
+        if (tokens.length == 0) return null;
+        List<Integer> found = new ArrayList<>();
+        for (int row = 0; row < rowWords.size(); row++) {
+            boolean matches = true;
+            for (String token : tokens) {
+                boolean any = false;
+                for (String word : rowWords.get(row)) {
+                    any |= word.startsWith(token);
+                }
+                matches &= any;
+            }
+            if (matches) found.add(row);
+        }
+        return found.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Forma una palabra de dos o tres sílabas, con mayúscula inicial.
+     *
+     * @param random el generador.
+     * @return la palabra.
+     */
+    private static String word(Random random) {
+        StringBuilder word = new StringBuilder();
+        int syllables = 2 + random.nextInt(2);
+        for (int i = 0; i < syllables; i++) {
+            word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+
+    /**
+     * Escribe y carga un catálogo de cinco jugadores conocidos.
+     *
+     * @return el almacén.
+     * @throws IOException si no se puede escribir o leer.
+     */
+    private PlayerStore smallCatalog() throws IOException {
+        String rows = "1,Kylian Mbappé,91,180000000,24,243,Real Madrid,ST,0,0,0,a.png,rm.png\n"
+                + "2,L. Suárez,86,5000000,36,241,FC Barcelona,ST,0,0,0,b.png,fcb.png\n"
+                + "3,Thomas Müller,84,15000000,33,21,FC Bayern München,CAM,0,0,0,c.png,fcbm.png\n"
+                + "4,Manuel Neuer,88,10000000,37,21,FC Bayern München,GK,0,0,0,d.png,fcbm.png\n"
+                + "5,Vinícius Jr.,90,150000000,22,243,Real Madrid,LW,0,0,0,e.png,rm.png\n";
+        Path csvPath = directory.resolve("players.csv");
+        Files.writeString(csvPath, HEADER + rows);
+        return PlayerStore.load(csvPath);
+    }
+}
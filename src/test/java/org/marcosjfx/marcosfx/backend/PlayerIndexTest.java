@@ -0,0 +1,166 @@
+package org.marcosjfx.marcosfx.backend;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pruebas de {@link PlayerIndex} a través de {@link PlayerStore#query(PlayerQuery)}: cada consulta aleatoria
+ * se compara con el recorrido de todas las filas, antes y después de que el simulador cambie los valores
+ * de mercado.
+ */
+class PlayerIndexTest {
+
+    /**
+     * Cabecera del archivo CSV de jugadores.
+     */
+    private static final String HEADER = "id,name,overall,market_value,age,team_id,club_name,club_position,"
+            + "goals,assists,saves,player_face_url,club_logo_url\n";
+
+    /**
+     * Posiciones de los jugadores del catálogo.
+     */
+    private static final Position[] POSITIONS = {Position.GK, Position.CB, Position.LB, Position.CM,
+            Position.CAM, Position.ST, Position.SUB, Position.RES};
+
+    /**
+     * Número de ids de club distintos del catálogo.
+     */
+    private static final int TEAMS = 12;
+
+    /**
+     * Número de consultas aleatorias de cada ronda.
+     */
+    private static final int QUERIES = 400;
+
+    /**
+     * Número de jornadas simuladas entre rondas de consultas.
+     */
+    private static final int MATCHDAYS = 3;
+
+    /**
+     * Directorio con el catálogo de la prueba.
+     */
+    @TempDir
+    Path directory;
+
+    @Test
+    void queriesMatchLinearScan() throws Exception {
+        checkQueries(writeCatalog(3_000, false, new Random(5)), new Random(6));
+    }
+
+    @Test
+    void queriesMatchLinearScanWhenClubsMixTeamIDs() throws Exception {
+        checkQueries(writeCatalog(3_000, true, new Random(7)), new Random(8));
+    }
+
+    /**
+     * Compara consultas aleatorias con el recorrido de todas las filas, antes de simular y después de cada
+     * jornada.
+     *
+     * @param csvPath el catálogo.
+     * @param random  el generador de las consultas.
+     * @throws IOException si no se puede leer el catálogo.
+     */
+    private static void checkQueries(Path csvPath, Random random) throws IOException {
+        PlayerStore store = PlayerStore.load(csvPath);
+        StatSimulator simulator = new StatSimulator(3);
+        int nonEmpty = 0;
+        for (int round = 0; round <= MATCHDAYS; round++) {
+            if (round > 0) {
+                int[] marketValues;
+                synchronized (store) {
+                    marketValues = store.marketValueColumn().clone();
+                }
+                simulator.simulate(store);
+                synchronized (store) {
+                    assertFalse(Arrays.equals(marketValues, store.marketValueColumn()),
+                            "la jornada no cambia valores");
+                }
+            }
+            for (int i = 0; i < QUERIES; i++) {
+                PlayerQuery query = new PlayerQuery();
+                Position position = null;
+                Integer teamID = null;
+                int minRating = Integer.MIN_VALUE;
+                int maxRating = Integer.MAX_VALUE;
+                int minMarketValue = Integer.MIN_VALUE;
+                int maxMarketValue = Integer.MAX_VALUE;
+                int minAge = Integer.MIN_VALUE;
+                int maxAge = Integer.MAX_VALUE;
+                if (random.nextInt(3) == 0) {
+                    position = random.nextInt(10) == 0 ? Position.RW : POSITIONS[random.nextInt(POSITIONS.length)];
+                    query.position(position);
+                }
+                if (random.nextInt(3) == 0) {
+                    teamID = random.nextInt(TEAMS + 1);
+                    query.teamID(teamID);
+                }
+                if (random.nextBoolean()) query.minRating(minRating = 50 + random.nextInt(50));
+                if (random.nextBoolean()) query.maxRating(maxRating = 50 + random.nextInt(50));
+                if (random.nextBoolean()) query.minMarketValue(minMarketValue = random.nextInt(60_000_000));
+                if (random.nextBoolean()) query.maxMarketValue(maxMarketValue = random.nextInt(60_000_000));
+                if (random.nextBoolean()) query.minAge(minAge = 16 + random.nextInt(26));
+                if (random.nextBoolean()) query.maxAge(maxAge = 16 + random.nextInt(26));
+
+                int[] expected;
+                synchronized (store) {
+                    int[] matches = new int[store.size()];
+                    int count = 0;
+                    for (int row = 0; row < store.size(); row++) {
+                        int rating = store.ratingColumn()[row];
+                        int marketValue = store.marketValueColumn()[row];
+                        int age = store.ageColumn()[row];
+                        if ((position == null || store.getPosition(row) == position)
+                                && (teamID == null || store.teamIDColumn()[row] == teamID)
+                                && rating >= minRating && rating <= maxRating
+                                && marketValue >= minMarketValue && marketValue <= maxMarketValue
+                                && age >= minAge && age <= maxAge) {
+                            matches[count++] = row;
+                        }
+                    }
+                    expected = Arrays.copyOf(matches, count);
+                }
+                assertArrayEquals(expected, store.query(query), "ronda " + round + ", consulta " + i);
+                if (expected.length > 0) nonEmpty++;
+            }
+        }
+        // Las consultas tienen que encontrar jugadores a menudo para que la comparación sirva de algo.
+        assertTrue(nonEmpty > QUERIES, "pocas consultas con resultados: " + nonEmpty);
+    }
+
+    /**
+     * Escribe un catálogo con calificaciones, valores de mercado, edades, clubes y posiciones aleatorias.
+     *
+     * @param rows   el número de jugadores.
+     * @param mixed  si el último club tiene jugadores con dos ids de club distintos.
+     * @param random el generador de los datos.
+     * @return la ruta del archivo CSV.
+     * @throws IOException si no se puede escribir.
+     */
+    private Path writeCatalog(int rows, boolean mixed, Random random) throws IOException {
+        StringBuilder csv = new StringBuilder(HEADER);
+        for (int row = 0; row < rows; row++) {
+            int teamID = random.nextInt(TEAMS);
+            int club = mixed && teamID == TEAMS - 1 ? TEAMS - 2 : teamID;
+            csv.append(row + 1).append(",Player ").append(row + 1).append(',').append(50 + random.nextInt(50))
+                    .append(',').append(random.nextInt(60) * 1_000_000 + random.nextInt(4) * 250_000)
+                    .append(',').append(16 + random.nextInt(26)).append(',').append(teamID)
+                    .append(",Club ").append(club).append(',').append(POSITIONS[random.nextInt(POSITIONS.length)])
+                    .append(',').append(random.nextInt(5)).append(',').append(random.nextInt(5)).append(',')
+                    .append(random.nextInt(5)).append(",p.png,club").append(club).append(".png\n");
+        }
+        Path csvPath = directory.resolve("players.csv");
+        Files.writeString(csvPath, csv);
+        return csvPath;
+    }
+}
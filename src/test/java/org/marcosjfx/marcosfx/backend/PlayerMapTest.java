@@ -0,0 +1,129 @@
+package org.marcosjfx.marcosfx.backend;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pruebas de {@link PlayerMap}: secuencias aleatorias de operaciones comparadas con un
+ * {@code HashMap<Integer, Player>}, con ids que caen en las mismas posiciones para que el sondeo lineal,
+ * el desplazamiento al borrar y el crecimiento trabajen con grupos largos.
+ */
+class PlayerMapTest {
+
+    /**
+     * Número de operaciones de cada secuencia aleatoria.
+     */
+    private static final int OPERATIONS = 50_000;
+
+    @Test
+    void randomOperationsWithCollidingIdsMatchHashMap() {
+        // Ids cuya posición inicial es una de las dos últimas o de las dos primeras con cualquier capacidad
+        // hasta 128, para que los grupos den la vuelta al final de los arrays.
+        List<Integer> ids = new ArrayList<>();
+        for (int id = Integer.MIN_VALUE; ids.size() < 80; id += 7_919) {
+            int home = PlayerMap.hash(id) & 127;
+            if (home >= 126 || home <= 1) ids.add(id);
+        }
+        checkAgainstHashMap(ids, new SplittableRandom(1));
+    }
+
+    @Test
+    void randomOperationsWithConsecutiveIdsMatchHashMap() {
+        List<Integer> ids = new ArrayList<>();
+        for (int id = -20; id < 300; id++) {
+            ids.add(id);
+        }
+        ids.add(Integer.MIN_VALUE);
+        ids.add(Integer.MAX_VALUE);
+        checkAgainstHashMap(ids, new SplittableRandom(2));
+    }
+
+    @Test
+    void nullPlayersAreRejected() {
+        PlayerMap map = new PlayerMap();
+        assertThrows(NullPointerException.class, () -> map.put(1, null));
+        assertTrue(map.isEmpty());
+        assertNull(map.get(1));
+    }
+
+    /**
+     * Aplica la misma secuencia aleatoria de operaciones a un {@link PlayerMap} y a un {@link HashMap} y
+     * comprueba que dan los mismos resultados.
+     *
+     * @param ids    los ids con los que se opera.
+     * @param random el generador de la secuencia.
+     */
+    private static void checkAgainstHashMap(List<Integer> ids, SplittableRandom random) {
+        PlayerMap map = new PlayerMap();
+        Map<Integer, Player> expected = new HashMap<>();
+        for (int operation = 0; operation < OPERATIONS; operation++) {
+            int id = ids.get(random.nextInt(ids.size()));
+            String context = "operación " + operation + ", id " + id;
+            int kind = random.nextInt(10);
+            if (kind < 4) {
+                // Añade o sustituye.
+                Player player = player(id, operation);
+                assertSame(expected.put(id, player), map.put(id, player), context);
+            } else if (kind < 7) {
+                assertSame(expected.remove(id), map.remove(id), context);
+            } else if (kind < 9) {
+                assertSame(expected.get(id), map.get(id), context);
+                assertEquals(expected.containsKey(id), map.containsKey(id), context);
+            } else if (random.nextInt(500) == 0) {
+                expected.clear();
+                map.clear();
+            }
+            assertEquals(expected.size(), map.size(), context);
+            assertEquals(expected.isEmpty(), map.isEmpty(), context);
+
+            if (operation % 1_000 == 0) assertSameEntries(expected, map, ids);
+        }
+        assertSameEntries(expected, map, ids);
+    }
+
+    /**
+     * Comprueba que el mapa tiene exactamente los jugadores esperados, tanto buscándolos por id como
+     * recorriéndolo.
+     *
+     * @param expected los jugadores esperados por id.
+     * @param map      el mapa comprobado.
+     * @param ids      todos los ids con los que se ha operado.
+     */
+    private static void assertSameEntries(Map<Integer, Player> expected, PlayerMap map, List<Integer> ids) {
+        for (int id : ids) {
+            assertSame(expected.get(id), map.get(id), "id " + id);
+        }
+        Map<Player, Boolean> seen = new IdentityHashMap<>();
+        for (Player player : map) {
+            assertFalse(seen.containsKey(player), "jugador repetido al recorrer el mapa");
+            seen.put(player, true);
+            assertSame(expected.get(player.getId()), player);
+        }
+        assertEquals(expected.size(), seen.size());
+    }
+
+    /**
+     * Crea un jugador distinto en cada llamada, para distinguir las sustituciones.
+     *
+     * @param id      el id del jugador.
+     * @param version el número que distingue a este jugador de otros con el mismo id.
+     * @return el jugador.
+     */
+    private static Player player(int id, int version) {
+        return new Player(id, "Player " + id + " v" + version, 70, 1_000, 25, 1, 0, 0, 0,
+                "Club 1", Position.ST, "player.png", "club1.png");
+    }
+}
@@ -0,0 +1,123 @@
+package org.marcosjfx.marcosfx.backend;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pruebas de {@link PlayerRankings}: las clasificaciones actualizadas con {@link PlayerRankings#refresh()}
+ * tienen que coincidir con las calculadas desde cero sobre el mismo almacén.
+ */
+class PlayerRankingsTest {
+
+    /**
+     * Cabecera del archivo CSV de jugadores.
+     */
+    private static final String HEADER = "id,name,overall,market_value,age,team_id,club_name,club_position,"
+            + "goals,assists,saves,player_face_url,club_logo_url\n";
+
+    /**
+     * Posiciones de los jugadores del catálogo.
+     */
+    private static final String[] POSITIONS = {"GK", "CB", "CM", "ST", "SUB"};
+
+    /**
+     * Número de clubes del catálogo.
+     */
+    private static final int CLUBS = 20;
+
+    /**
+     * Número de jornadas simuladas.
+     */
+    private static final int MATCHDAYS = 6;
+
+    /**
+     * Directorio con el catálogo de la prueba.
+     */
+    @TempDir
+    Path directory;
+
+    @Test
+    void refreshMatchesFreshRankingsAfterMatchdays() throws Exception {
+        PlayerStore store = PlayerStore.load(writeCatalog(20_000, new Random(3)));
+        StatSimulator simulator = new StatSimulator(17);
+        assertSameAsFresh(store);
+        for (int matchday = 0; matchday < MATCHDAYS; matchday++) {
+            simulator.simulate(store);
+            assertSameAsFresh(store);
+        }
+    }
+
+    @Test
+    void topValueForMoneyPlayerWithoutMarketValueLeavesRanking() throws Exception {
+        PlayerStore store = PlayerStore.load(writeCatalog(20_000, new Random(4)));
+        StatSimulator simulator = new StatSimulator(18);
+        simulator.simulate(store);
+        int[] before = store.topRows(PlayerRankings.Ranking.VALUE_FOR_MONEY);
+        assertEquals(PlayerRankings.SIZE, before.length);
+
+        int row = before[0];
+        synchronized (store) {
+            long[] deltas = new long[store.getClubCount()];
+            deltas[store.getClubCode(row)] = -store.marketValueColumn()[row];
+            store.marketValueColumn()[row] = 0;
+            store.addClubMarketValues(deltas);
+        }
+        int[] after = store.topRows(PlayerRankings.Ranking.VALUE_FOR_MONEY);
+        assertEquals(PlayerRankings.SIZE, after.length);
+        for (int top : after) {
+            assertTrue(top != row, "un jugador sin valor de mercado sigue en la clasificación");
+        }
+        assertSameAsFresh(store);
+
+        simulator.simulate(store);
+        assertSameAsFresh(store);
+    }
+
+    /**
+     * Comprueba que las clasificaciones del almacén, actualizadas jornada a jornada, son las mismas que
+     * las calculadas desde cero.
+     *
+     * @param store el almacén.
+     */
+    private static void assertSameAsFresh(PlayerStore store) {
+        for (PlayerRankings.Ranking ranking : PlayerRankings.Ranking.values()) {
+            int[] refreshed = store.topRows(ranking);
+            int[] fresh;
+            synchronized (store) {
+                fresh = new PlayerRankings(store).top(ranking);
+            }
+            assertArrayEquals(fresh, refreshed, ranking.toString());
+        }
+    }
+
+    /**
+     * Escribe un catálogo con calificaciones y valores de mercado que se repiten, para que haya empates.
+     *
+     * @param rows   el número de jugadores.
+     * @param random el generador de los datos.
+     * @return la ruta del archivo CSV.
+     * @throws IOException si no se puede escribir.
+     */
+    private Path writeCatalog(int rows, Random random) throws IOException {
+        StringBuilder csv = new StringBuilder(HEADER);
+        for (int row = 0; row < rows; row++) {
+            int club = random.nextInt(CLUBS);
+            csv.append(row + 1).append(",Player ").append(row + 1).append(',').append(50 + random.nextInt(45))
+                    .append(',').append((1 + random.nextInt(100)) * 100_000).append(",25,").append(club)
+                    .append(",Club ").append(club).append(',').append(POSITIONS[random.nextInt(POSITIONS.length)])
+                    .append(",0,0,0,p.png,club").append(club).append(".png\n");
+        }
+        Path csvPath = directory.resolve("players.csv");
+        Files.writeString(csvPath, csv);
+        return csvPath;
+    }
+}
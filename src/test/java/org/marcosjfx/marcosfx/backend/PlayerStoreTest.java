@@ -0,0 +1,241 @@
+package org.marcosjfx.marcosfx.backend;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pruebas de {@link PlayerStore} con un archivo CSV pequeño escrito en la prueba: la carga del CSV, cuándo
+ * se usa su {@link CatalogSnapshot copia binaria} y el guardado de las estadísticas de cada jornada.
+ */
+class PlayerStoreTest {
+
+    /**
+     * Cabecera del archivo CSV de jugadores.
+     */
+    private static final String HEADER = "id,name,overall,market_value,age,team_id,club_name,club_position,"
+            + "goals,assists,saves,player_face_url,club_logo_url\n";
+
+    /**
+     * Directorio con el catálogo de la prueba.
+     */
+    @TempDir
+    Path directory;
+
+    @Test
+    void unknownPositionsAreReadAsUnknownAndSavedUnchanged() throws Exception {
+        Path csvPath = directory.resolve("players.csv");
+        String rows = "1,A,80,1000,20,5,Club 5,GK,0,0,3,a.png,club5.png\n"
+                + "2,B,75,2000,21,5,Club 5,LWF,1,0,0,b.png,club5.png\n"
+                + "3,C,70,3000,22,5,Club 5,,0,1,0,c.png,club5.png\n";
+        Files.writeString(csvPath, HEADER + rows);
+
+        PlayerStore store = PlayerStore.load(csvPath);
+        assertEquals(3, store.size());
+        assertEquals(Position.GK, store.getPosition(0));
+        assertEquals(Position.UNKNOWN, store.getPosition(1));
+        assertEquals(Position.UNKNOWN, store.getPosition(2));
+
+        assertEquals("LWF", store.getPlayer(1).getPositionCode());
+        assertEquals("", store.getPlayer(2).getPositionCode());
+
+        // La segunda carga sale de la copia binaria, que guarda el ordinal y el código original.
+        PlayerStore fromSnapshot = PlayerStore.load(csvPath);
+        assertEquals(Position.UNKNOWN, fromSnapshot.getPosition(1));
+        assertEquals("LWF", fromSnapshot.getPlayer(1).getPositionCode());
+
+        fromSnapshot.save(csvPath);
+        assertEquals(HEADER + rows, Files.readString(csvPath).replace(System.lineSeparator(), "\n"));
+    }
+
+    @Test
+    void emptyAndDefaultImageURLsSurviveSnapshot() throws Exception {
+        Path csvPath = directory.resolve("players.csv");
+        String rows = "1,A,80,1000,20,5,Club 5,GK,0,0,3,,club5.png\n"
+                + "2,B,75,2000,21,5,Club 5,ST,1,0,0," + Player.defaultPlayerImageURL(2) + ",club5.png\n"
+                + "3,C,70,3000,22,5,Club 5,CB,0,1,0,c.png,club5.png\n";
+        Files.writeString(csvPath, HEADER + rows);
+
+        PlayerStore parsed = PlayerStore.load(csvPath);
+        assertTrue(Files.exists(CatalogSnapshot.pathFor(csvPath)));
+        PlayerStore fromSnapshot = PlayerStore.load(csvPath);
+        for (int row = 0; row < parsed.size(); row++) {
+            assertEquals(parsed.getPlayer(row).getPlayerImageURL(), fromSnapshot.getPlayer(row).getPlayerImageURL());
+        }
+        assertEquals("", fromSnapshot.getPlayer(0).getPlayerImageURL());
+        assertEquals(Player.defaultPlayerImageURL(2), fromSnapshot.getPlayer(1).getPlayerImageURL());
+
+        fromSnapshot.save(csvPath);
+        assertEquals(HEADER + rows, Files.readString(csvPath).replace(System.lineSeparator(), "\n"));
+    }
+
+    @Test
+    void snapshotIsIgnoredWhenCsvChanges() throws Exception {
+        Path csvPath = writeCatalog(50);
+        PlayerStore.load(csvPath);
+        FileTime modified = Files.getLastModifiedTime(csvPath);
+
+        // Mismo tamaño y otra fecha de modificación.
+        String csv = Files.readString(csvPath);
+        Files.writeString(csvPath, csv.replaceFirst(",Player 1,60,", ",Player 1,99,"));
+        Files.setLastModifiedTime(csvPath, FileTime.fromMillis(modified.toMillis() + 2_000));
+        assertEquals(99, PlayerStore.load(csvPath).getPlayer(0).getRating());
+
+        // Otro tamaño y la misma fecha de modificación.
+        modified = Files.getLastModifiedTime(csvPath);
+        Files.writeString(csvPath, "51,Player 51,70,5000,25,0,Club 0,GK,0,0,0,p.png,club0.png\n",
+                StandardOpenOption.APPEND);
+        Files.setLastModifiedTime(csvPath, modified);
+        PlayerStore store = PlayerStore.load(csvPath);
+        assertEquals(51, store.size());
+        assertEquals(99, store.getPlayer(0).getRating());
+        assertEquals("Player 51", store.getPlayer(50).getName());
+    }
+
+    @Test
+    void damagedSnapshotIsRebuiltFromCsv() throws Exception {
+        Path csvPath = writeCatalog(50);
+        PlayerStore parsed = PlayerStore.load(csvPath);
+        Path snapshotPath = CatalogSnapshot.pathFor(csvPath);
+        byte[] snapshot = Files.readAllBytes(snapshotPath);
+
+        // Un byte del texto de la cabecera del CSV, después de la cabecera de la copia: falla el CRC.
+        overwrite(snapshotPath, CatalogSnapshot.HEADER_BYTES + 4, (byte) ~snapshot[CatalogSnapshot.HEADER_BYTES + 4]);
+        assertSameCatalog(parsed, PlayerStore.load(csvPath));
+        assertArrayEquals(snapshot, Files.readAllBytes(snapshotPath));
+    }
+
+    @Test
+    void snapshotOfAnotherVersionIsRebuiltFromCsv() throws Exception {
+        Path csvPath = writeCatalog(50);
+        PlayerStore parsed = PlayerStore.load(csvPath);
+        Path snapshotPath = CatalogSnapshot.pathFor(csvPath);
+        byte[] snapshot = Files.readAllBytes(snapshotPath);
+
+        // La versión es el segundo entero de la cabecera.
+        overwrite(snapshotPath, 7, (byte) (snapshot[7] + 1));
+        assertSameCatalog(parsed, PlayerStore.load(csvPath));
+        assertArrayEquals(snapshot, Files.readAllBytes(snapshotPath));
+    }
+
+    @Test
+    void savedStatsAreReadBack() throws Exception {
+        Path csvPath = writeCatalog(200);
+        PlayerStore store = PlayerStore.load(csvPath);
+        StatSimulator simulator = new StatSimulator(7);
+
+        simulator.simulate(store);
+        store.saveStats(csvPath);
+        simulator.simulate(store);
+        store.saveStats(csvPath);
+
+        assertSameStats(store, PlayerStore.load(csvPath));
+        try (Stream<Path> files = Files.list(directory)) {
+            assertTrue(files.noneMatch(file -> file.toString().endsWith(".tmp")));
+        }
+    }
+
+    @Test
+    void failedStatsWriteKeepsRowsChanged() throws Exception {
+        Path csvPath = writeCatalog(200);
+        PlayerStore store = PlayerStore.load(csvPath);
+        Path statsPath = StatsFile.pathFor(csvPath);
+        Files.createDirectory(statsPath);
+        Files.writeString(statsPath.resolve("blocked"), "");
+
+        new StatSimulator(7).simulate(store);
+        assertThrows(IOException.class, () -> store.saveStats(csvPath));
+        synchronized (store) {
+            assertTrue(Arrays.stream(store.changedStatsColumn()).anyMatch(word -> word != 0));
+        }
+
+        Files.delete(statsPath.resolve("blocked"));
+        Files.delete(statsPath);
+        store.saveStats(csvPath);
+        assertSameStats(store, PlayerStore.load(csvPath));
+    }
+
+    /**
+     * Escribe un catálogo con jugadores de varios clubes y posiciones.
+     *
+     * @param rows el número de jugadores.
+     * @return la ruta del archivo CSV.
+     * @throws IOException si no se puede escribir.
+     */
+    private Path writeCatalog(int rows) throws IOException {
+        String[] positions = {"GK", "CB", "CM", "ST", "SUB"};
+        StringBuilder csv = new StringBuilder(HEADER);
+        for (int row = 0; row < rows; row++) {
+            int club = row % 4;
+            csv.append(row + 1).append(",Player ").append(row + 1).append(',').append(60 + row % 30)
+                    .append(',').append(1_000_000 + row * 1_000).append(",25,").append(club)
+                    .append(",Club ").append(club).append(',').append(positions[row % positions.length])
+                    .append(",0,0,0,p.png,club").append(club).append(".png\n");
+        }
+        Path csvPath = directory.resolve("players.csv");
+        Files.writeString(csvPath, csv);
+        return csvPath;
+    }
+
+    /**
+     * Sustituye un byte de un archivo.
+     *
+     * @param path     el archivo.
+     * @param position la posición del byte.
+     * @param value    el valor nuevo.
+     * @throws IOException si no se puede escribir.
+     */
+    private static void overwrite(Path path, long position, byte value) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{value}), position);
+        }
+    }
+
+    /**
+     * Comprueba que dos almacenes tienen los mismos jugadores.
+     *
+     * @param expected el almacén esperado.
+     * @param actual   el almacén comprobado.
+     */
+    private static void assertSameCatalog(PlayerStore expected, PlayerStore actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int row = 0; row < expected.size(); row++) {
+            Player expectedPlayer = expected.getPlayer(row);
+            Player actualPlayer = actual.getPlayer(row);
+            assertEquals(expectedPlayer.getId(), actualPlayer.getId());
+            assertEquals(expectedPlayer.getName(), actualPlayer.getName());
+            assertEquals(expectedPlayer.getRating(), actualPlayer.getRating());
+            assertEquals(expectedPlayer.getMarketValue(), actualPlayer.getMarketValue());
+            assertEquals(expectedPlayer.getClubName(), actualPlayer.getClubName());
+            assertEquals(expectedPlayer.getPositionCode(), actualPlayer.getPositionCode());
+            assertEquals(expectedPlayer.getPlayerImageURL(), actualPlayer.getPlayerImageURL());
+        }
+    }
+
+    /**
+     * Comprueba que dos almacenes tienen las mismas estadísticas.
+     *
+     * @param expected el almacén esperado.
+     * @param actual   el almacén comprobado.
+     */
+    private static void assertSameStats(PlayerStore expected, PlayerStore actual) {
+        assertArrayEquals(expected.marketValueColumn(), actual.marketValueColumn());
+        assertArrayEquals(expected.goalsColumn(), actual.goalsColumn());
+        assertArrayEquals(expected.assistsColumn(), actual.assistsColumn());
+        assertArrayEquals(expected.savesColumn(), actual.savesColumn());
+    }
+}
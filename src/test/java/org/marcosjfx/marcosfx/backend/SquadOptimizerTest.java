@@ -0,0 +1,227 @@
+package org.marcosjfx.marcosfx.backend;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pruebas de {@link SquadOptimizer}: la alineación encontrada se compara con la mejor de todas las
+ * alineaciones posibles de un catálogo pequeño, recorridas una a una.
+ */
+class SquadOptimizerTest {
+
+    /**
+     * Cabecera del archivo CSV de jugadores.
+     */
+    private static final String HEADER = "id,name,overall,market_value,age,team_id,club_name,club_position,"
+            + "goals,assists,saves,player_face_url,club_logo_url\n";
+
+    /**
+     * Posiciones de los jugadores del catálogo, con suplentes y reservas que no se alinean.
+     */
+    private static final String[] POSITIONS = {"GK", "GK", "GK", "CB", "LB", "RB", "CB", "CDM", "CM", "CAM", "LM",
+            "ST", "LW", "CF", "SUB", "RES"};
+
+    /**
+     * Alineaciones probadas; todas con un portero salvo la última, que pide más porteros de los que hay.
+     */
+    private static final Formation[] FORMATIONS = {Formation.parse("4-4-2"), Formation.parse("3-5-2"),
+            Formation.parse("5-3-2"), Formation.parse("4-3-3"), new Formation(1, 2, 0, 1), new Formation(7, 0, 0, 0)};
+
+    /**
+     * Directorio con el catálogo de la prueba.
+     */
+    @TempDir
+    Path directory;
+
+    @Test
+    void optimizeMatchesBruteForce() throws Exception {
+        PlayerStore store = PlayerStore.load(writeCatalog(32, new Random(11)));
+        for (SquadOptimizer.Objective objective : SquadOptimizer.Objective.values()) {
+            for (Formation formation : FORMATIONS) {
+                List<List<long[]>> choices = lineChoices(store, formation, objective);
+                long cheapest = 0;
+                long dearest = 0;
+                for (List<long[]> line : choices) {
+                    cheapest += line.stream().mapToLong(choice -> choice[1]).min().orElse(Long.MAX_VALUE / 8);
+                    dearest += line.stream().mapToLong(choice -> choice[1]).max().orElse(Long.MAX_VALUE / 8);
+                }
+                long[] budgets = {0, cheapest - 1, cheapest, (cheapest * 3 + dearest) / 4, (cheapest + dearest) / 2,
+                        dearest - 1, dearest, Long.MAX_VALUE / 8};
+                for (long budget : budgets) {
+                    long expected = bestScore(choices, 0, 0, 0, budget);
+                    SquadOptimizer.Squad squad = SquadOptimizer.optimize(store, formation, objective, budget);
+                    String context = objective + " " + formation + " " + budget;
+                    if (expected < 0) {
+                        assertNull(squad, context);
+                        continue;
+                    }
+                    assertNotNull(squad, context);
+                    assertEquals(expected, squad.score(), context);
+                    assertValidSquad(store, formation, objective, budget, squad, context);
+                }
+            }
+        }
+    }
+
+    @Test
+    void optimizeWithoutEnoughPlayersReturnsNull() throws Exception {
+        PlayerStore store = PlayerStore.load(writeCatalog(32, new Random(11)));
+        assertNull(SquadOptimizer.optimize(store, new Formation(1, 0, 0, 20), SquadOptimizer.Objective.RATING,
+                Long.MAX_VALUE / 8));
+    }
+
+    @Test
+    void optimizeFailsWhenLineTableIsTooLarge() throws Exception {
+        StringBuilder csv = new StringBuilder(HEADER);
+        for (int row = 0; row < 6; row++) {
+            csv.append(row + 1).append(",Player ").append(row + 1).append(",70,").append(1_000 + row)
+                    .append(",25,0,Club 0,ST,").append(100_000_000 + row).append(",0,0,p.png,club0.png\n");
+        }
+        Path csvPath = directory.resolve("players.csv");
+        Files.writeString(csvPath, csv);
+        PlayerStore store = PlayerStore.load(csvPath);
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () ->
+                SquadOptimizer.optimize(store, new Formation(0, 0, 0, 3), SquadOptimizer.Objective.POINTS,
+                        Long.MAX_VALUE / 8));
+        assertTrue(e.getMessage().contains("memoria"));
+        assertNotNull(SquadOptimizer.optimize(store, new Formation(0, 0, 0, 3), SquadOptimizer.Objective.RATING,
+                Long.MAX_VALUE / 8));
+    }
+
+    /**
+     * Escribe un catálogo con puntuaciones y precios que se repiten, para que haya empates.
+     *
+     * @param rows   el número de jugadores.
+     * @param random el generador de las estadísticas.
+     * @return la ruta del archivo CSV.
+     * @throws IOException si no se puede escribir.
+     */
+    private Path writeCatalog(int rows, Random random) throws IOException {
+        StringBuilder csv = new StringBuilder(HEADER);
+        for (int row = 0; row < rows; row++) {
+            csv.append(row + 1).append(",Player ").append(row + 1).append(',').append(60 + random.nextInt(8))
+                    .append(',').append((1 + random.nextInt(6)) * 500_000).append(",25,0,Club 0,")
+                    .append(POSITIONS[row % POSITIONS.length]).append(',').append(random.nextInt(4)).append(',')
+                    .append(random.nextInt(4)).append(',').append(random.nextInt(6)).append(",p.png,club0.png\n");
+        }
+        Path csvPath = directory.resolve("players.csv");
+        Files.writeString(csvPath, csv);
+        return csvPath;
+    }
+
+    /**
+     * Enumera, para cada línea, todas las formas de llenar sus huecos con jugadores de esa línea.
+     *
+     * @param store     el catálogo.
+     * @param formation el número de jugadores de cada línea.
+     * @param objective el criterio que se maximiza.
+     * @return para cada línea, la puntuación y el coste de cada combinación.
+     */
+    private static List<List<long[]>> lineChoices(PlayerStore store, Formation formation,
+                                                  SquadOptimizer.Objective objective) {
+        List<List<long[]>> choices = new ArrayList<>();
+        for (int line = 0; line < 4; line++) {
+            List<Player> players = new ArrayList<>();
+            for (int row = 0; row < store.size(); row++) {
+                if (store.getPosition(row).line() == line) players.add(store.getPlayer(row));
+            }
+            List<long[]> lineChoices = new ArrayList<>();
+            combine(players, formation.slots(line), 0, 0, 0, objective, lineChoices);
+            choices.add(lineChoices);
+        }
+        return choices;
+    }
+
+    /**
+     * Añade todas las combinaciones de {@code left} jugadores tomados a partir de {@code from}.
+     *
+     * @param players   los jugadores de la línea.
+     * @param left      los huecos que quedan por llenar.
+     * @param from      el primer jugador que se puede elegir.
+     * @param score     la puntuación de los jugadores ya elegidos.
+     * @param cost      el coste de los jugadores ya elegidos.
+     * @param objective el criterio que se maximiza.
+     * @param out       las combinaciones encontradas.
+     */
+    private static void combine(List<Player> players, int left, int from, long score, long cost,
+                                SquadOptimizer.Objective objective, List<long[]> out) {
+        if (left == 0) {
+            out.add(new long[]{score, cost});
+            return;
+        }
+        for (int i = from; i <= players.size() - left; i++) {
+            Player player = players.get(i);
+            combine(players, left - 1, i + 1, score + objective.score(player), cost + player.getMarketValue(),
+                    objective, out);
+        }
+    }
+
+    /**
+     * Busca la mayor puntuación de todas las alineaciones que caben en el presupuesto.
+     *
+     * @param choices las combinaciones de cada línea.
+     * @param line    la línea que se elige.
+     * @param score   la puntuación de las líneas ya elegidas.
+     * @param cost    el coste de las líneas ya elegidas.
+     * @param budget  el dinero disponible.
+     * @return la mayor puntuación, o -1 si ninguna alineación cabe.
+     */
+    private static long bestScore(List<List<long[]>> choices, int line, long score, long cost, long budget) {
+        if (cost > budget) return -1;
+        if (line == choices.size()) return score;
+        long best = -1;
+        for (long[] choice : choices.get(line)) {
+            best = Math.max(best, bestScore(choices, line + 1, score + choice[0], cost + choice[1], budget));
+        }
+        return best;
+    }
+
+    /**
+     * Comprueba que una alineación tiene jugadores distintos en sus líneas y que su puntuación y su coste
+     * son los de esos jugadores.
+     *
+     * @param store     el catálogo.
+     * @param formation el número de jugadores de cada línea.
+     * @param objective el criterio que se maximiza.
+     * @param budget    el dinero disponible.
+     * @param squad     la alineación encontrada.
+     * @param context   el caso que se comprueba.
+     */
+    private static void assertValidSquad(PlayerStore store, Formation formation, SquadOptimizer.Objective objective,
+                                         long budget, SquadOptimizer.Squad squad, String context) {
+        assertEquals(formation.size(), squad.rows().length, context);
+        Set<Integer> rows = new HashSet<>();
+        long score = 0;
+        long cost = 0;
+        int index = 0;
+        for (int line = 0; line < 4; line++) {
+            for (int slot = 0; slot < formation.slots(line); slot++) {
+                int row = squad.rows()[index++];
+                assertTrue(rows.add(row), context);
+                assertEquals(line, store.getPosition(row).line(), context);
+                Player player = store.getPlayer(row);
+                score += objective.score(player);
+                cost += player.getMarketValue();
+            }
+        }
+        assertEquals(squad.score(), score, context);
+        assertEquals(squad.cost(), cost, context);
+        assertTrue(cost <= budget, context);
+    }
+}
@@ -0,0 +1,175 @@
+package org.marcosjfx.marcosfx.backend;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Pruebas de {@link StatSimulator}: con la misma semilla, las jornadas simuladas sobre copias de un mismo
+ * catálogo dan las mismas estadísticas con cualquier número de hilos.
+ */
+class StatSimulatorTest {
+
+    /**
+     * Cabecera del archivo CSV de jugadores.
+     */
+    private static final String HEADER = "id,name,overall,market_value,age,team_id,club_name,club_position,"
+            + "goals,assists,saves,player_face_url,club_logo_url\n";
+
+    /**
+     * Posiciones de los jugadores del catálogo.
+     */
+    private static final String[] POSITIONS = {"GK", "CB", "CM", "ST", "SUB"};
+
+    /**
+     * Número de clubes del catálogo.
+     */
+    private static final int CLUBS = 30;
+
+    /**
+     * Semilla de los simuladores.
+     */
+    private static final long SEED = 42;
+
+    /**
+     * Número de jornadas simuladas.
+     */
+    private static final int MATCHDAYS = 5;
+
+    /**
+     * Directorio con las copias del catálogo.
+     */
+    @TempDir
+    Path directory;
+
+    @Test
+    void sameSeedGivesSameStatsWithAnyParallelism() throws Exception {
+        // Más filas que varios bloques del simulador, con el último incompleto.
+        String csv = catalog(4 * 4096 + 1000, new Random(1));
+        PlayerStore commonPool = load(csv, "common");
+        PlayerStore oneThread = load(csv, "one");
+        PlayerStore fourThreads = load(csv, "four");
+        int[] initialMarketValues;
+        synchronized (commonPool) {
+            initialMarketValues = commonPool.marketValueColumn().clone();
+        }
+
+        StatSimulator commonPoolSimulator = new StatSimulator(SEED);
+        StatSimulator oneThreadSimulator = new StatSimulator(SEED);
+        StatSimulator fourThreadsSimulator = new StatSimulator(SEED);
+        ForkJoinPool onePool = new ForkJoinPool(1);
+        ForkJoinPool fourPool = new ForkJoinPool(4);
+        try {
+            for (int matchday = 0; matchday < MATCHDAYS; matchday++) {
+                commonPoolSimulator.simulate(commonPool);
+                onePool.submit(() -> oneThreadSimulator.simulate(oneThread)).get();
+                fourPool.submit(() -> fourThreadsSimulator.simulate(fourThreads)).get();
+
+                assertSameStats(commonPool, oneThread);
+                assertSameStats(commonPool, fourThreads);
+            }
+        } finally {
+            onePool.shutdown();
+            fourPool.shutdown();
+        }
+
+        synchronized (commonPool) {
+            assertFalse(Arrays.equals(initialMarketValues, commonPool.marketValueColumn()));
+        }
+        assertClubTotalsMatchRows(commonPool);
+    }
+
+    @Test
+    void differentSeedsGiveDifferentStats() throws Exception {
+        String csv = catalog(5_000, new Random(2));
+        PlayerStore first = load(csv, "first");
+        PlayerStore second = load(csv, "second");
+        new StatSimulator(SEED).simulate(first);
+        new StatSimulator(SEED + 1).simulate(second);
+        synchronized (first) {
+            synchronized (second) {
+                assertFalse(Arrays.equals(first.goalsColumn(), second.goalsColumn()));
+            }
+        }
+    }
+
+    /**
+     * Comprueba que dos almacenes tienen las mismas estadísticas y los mismos totales por club.
+     *
+     * @param expected el almacén esperado.
+     * @param actual   el almacén comprobado.
+     */
+    private static void assertSameStats(PlayerStore expected, PlayerStore actual) {
+        synchronized (expected) {
+            synchronized (actual) {
+                assertArrayEquals(expected.marketValueColumn(), actual.marketValueColumn());
+                assertArrayEquals(expected.goalsColumn(), actual.goalsColumn());
+                assertArrayEquals(expected.assistsColumn(), actual.assistsColumn());
+                assertArrayEquals(expected.savesColumn(), actual.savesColumn());
+                assertArrayEquals(expected.changedStatsColumn(), actual.changedStatsColumn());
+            }
+        }
+        PlayerStore.ClubMarketValues expectedClubs = expected.getMarketValueByClub();
+        PlayerStore.ClubMarketValues actualClubs = actual.getMarketValueByClub();
+        assertArrayEquals(expectedClubs.clubNames(), actualClubs.clubNames());
+        assertArrayEquals(expectedClubs.marketValues(), actualClubs.marketValues());
+    }
+
+    /**
+     * Comprueba que el valor total de cada club es la suma de los valores de mercado de sus jugadores.
+     *
+     * @param store el almacén.
+     */
+    private static void assertClubTotalsMatchRows(PlayerStore store) {
+        long[] totals;
+        synchronized (store) {
+            totals = new long[store.getClubCount()];
+            for (int row = 0; row < store.size(); row++) {
+                totals[store.getClubCode(row)] += store.marketValueColumn()[row];
+            }
+        }
+        assertArrayEquals(totals, store.getMarketValueByClub().marketValues());
+    }
+
+    /**
+     * Guarda una copia del catálogo en su propio directorio y la carga.
+     *
+     * @param csv  el contenido del catálogo.
+     * @param name el nombre del directorio de la copia.
+     * @return el almacén de la copia.
+     * @throws IOException si no se puede escribir o leer.
+     */
+    private PlayerStore load(String csv, String name) throws IOException {
+        Path csvPath = Files.createDirectory(directory.resolve(name)).resolve("players.csv");
+        Files.writeString(csvPath, csv);
+        return PlayerStore.load(csvPath);
+    }
+
+    /**
+     * Genera un catálogo con jugadores de varios clubes y posiciones.
+     *
+     * @param rows   el número de jugadores.
+     * @param random el generador de los datos.
+     * @return el contenido del archivo CSV.
+     */
+    private static String catalog(int rows, Random random) {
+        StringBuilder csv = new StringBuilder(HEADER);
+        for (int row = 0; row < rows; row++) {
+            int club = random.nextInt(CLUBS);
+            csv.append(row + 1).append(",Player ").append(row + 1).append(',').append(50 + random.nextInt(45))
+                    .append(',').append((1 + random.nextInt(100)) * 100_000).append(",25,").append(club)
+                    .append(",Club ").append(club).append(',').append(POSITIONS[random.nextInt(POSITIONS.length)])
+                    .append(",0,0,0,p.png,club").append(club).append(".png\n");
+        }
+        return csv.toString();
+    }
+}
@@ -0,0 +1,304 @@
+package org.marcosjfx.marcosfx.backend;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pruebas de {@link TeamRepository}: muchos hilos compran y venden a la vez los mismos jugadores y no se
+ * pierde ni se duplica ninguna operación, ni en memoria ni al volver a abrir el equipo desde team.json y su
+ * diario; el diario se recupera hasta el último registro completo y las operaciones ya copiadas en
+ * team.json no se aplican dos veces.
+ */
+class TeamRepositoryTest {
+
+    /**
+     * Número de hilos que compran y venden a la vez.
+     */
+    private static final int THREADS = 32;
+
+    /**
+     * Operaciones que hace cada hilo.
+     */
+    private static final int OPERATIONS_PER_THREAD = 500;
+
+    /**
+     * Número de jugadores distintos, pocos para que los hilos coincidan a menudo en el mismo jugador.
+     */
+    private static final int PLAYERS = 48;
+
+    /**
+     * Presupuesto inicial, suficiente para la mitad de los jugadores, para que también haya compras
+     * rechazadas por falta de presupuesto.
+     */
+    private static final int START_BUDGET = 25_000_000;
+
+    /**
+     * Directorio con el equipo de la prueba.
+     */
+    @TempDir
+    Path directory;
+
+    @Test
+    void concurrentBuysAndSellsKeepBudgetAndRosterConsistent() throws Exception {
+        Path jsonPath = directory.resolve("team.json");
+        Files.writeString(jsonPath, "{\"budget\":" + START_BUDGET + ",\"team\":[]}");
+        List<Player> players = createPlayers();
+        TeamRepository repository = TeamRepository.load(jsonPath);
+
+        runConcurrently(repository, players);
+
+        assertTrue(repository.getBudget() >= 0);
+        assertEquals(START_BUDGET - ownedValue(repository.getPlayerIds(), players), repository.getBudget());
+
+        repository.flush();
+        TeamDocument document = new ObjectMapper().readValue(jsonPath.toFile(), TeamDocument.class);
+        Set<Integer> documentIds = new HashSet<>();
+        for (RosterEntry entry : document.team()) {
+            assertTrue(documentIds.add(entry.id()), "jugador repetido en team.json: " + entry.id());
+        }
+        assertEquals(repository.getPlayerIds(), documentIds);
+        assertEquals(repository.getBudget(), document.budget());
+
+        // Operaciones que solo quedan en el diario: al volver a abrir el equipo se tienen que aplicar
+        // sobre la copia de team.json.
+        for (Player player : players) {
+            repository.removePlayer(player);
+        }
+        assertTrue(repository.addPlayer(players.get(0)));
+        assertTrue(repository.addPlayer(players.get(1)));
+
+        TeamRepository reopened = TeamRepository.load(jsonPath);
+        assertEquals(Set.of(1, 2), reopened.getPlayerIds());
+        assertEquals(START_BUDGET - ownedValue(Set.of(1, 2), players), reopened.getBudget());
+        assertEquals(repository.getBudget(), reopened.getBudget());
+    }
+
+    @Test
+    void unknownPositionsAreReadAsUnknownAndSavedUnchanged() throws Exception {
+        Path jsonPath = directory.resolve("team.json");
+        Files.writeString(jsonPath, "{\"budget\":" + START_BUDGET + ",\"team\":["
+                + "{\"ID\":1,\"Name\":\"A\",\"ClubName\":\"Club 1\",\"Position\":\"LWF\"},"
+                + "{\"ID\":2,\"Name\":\"B\",\"ClubName\":\"Club 1\",\"Position\":\"\"}]}");
+        TeamRepository repository = TeamRepository.load(jsonPath);
+        assertEquals(Position.UNKNOWN, repository.getPlayers().get(1).getPosition());
+        assertEquals(Position.UNKNOWN, repository.getPlayers().get(2).getPosition());
+
+        // La compra solo queda en el diario, que también se tiene que poder aplicar al volver a abrir.
+        assertTrue(repository.addPlayer(new Player(3, "C", 70, 1_000, 25, 1, 0, 0, 0,
+                "Club 1", Position.parse("XYZ"), "XYZ", "player3.png", "club1.png")));
+        TeamRepository reopened = TeamRepository.load(jsonPath);
+        assertEquals(Set.of(1, 2, 3), reopened.getPlayerIds());
+        assertEquals(Position.UNKNOWN, reopened.getPlayers().get(3).getPosition());
+        assertEquals("XYZ", reopened.getPlayers().get(3).getPositionCode());
+
+        reopened.flush();
+        TeamDocument document = new ObjectMapper().readValue(jsonPath.toFile(), TeamDocument.class);
+        Map<Integer, String> positions = new HashMap<>();
+        for (RosterEntry entry : document.team()) {
+            positions.put(entry.id(), entry.position());
+        }
+        assertEquals(Map.of(1, "LWF", 2, "", 3, "XYZ"), positions);
+    }
+
+    @Test
+    void replayStopsAtLastCompleteRecord() throws Exception {
+        Path jsonPath = directory.resolve("team.json");
+        Files.writeString(jsonPath, "{\"budget\":" + START_BUDGET + ",\"team\":[]}");
+        Path journalPath = journalPath(jsonPath);
+        List<Player> players = createPlayers();
+        TeamRepository repository = TeamRepository.load(jsonPath);
+
+        assertTrue(repository.addPlayer(players.get(0)));
+        assertTrue(repository.addPlayer(players.get(1)));
+        long afterBuys = Files.size(journalPath);
+        repository.removePlayer(players.get(0));
+        long afterSell = Files.size(journalPath);
+        assertTrue(repository.addPlayer(players.get(2)));
+
+        // El último registro se corta por la mitad, como si la aplicación se cerrara mientras lo escribe.
+        truncate(journalPath, (afterSell + Files.size(journalPath)) / 2);
+        TeamRepository reopened = TeamRepository.load(jsonPath);
+        assertEquals(Set.of(2), reopened.getPlayerIds());
+        assertEquals(START_BUDGET - ownedValue(Set.of(2), players), reopened.getBudget());
+        assertEquals(afterSell, Files.size(journalPath));
+
+        // Un byte cambiado en los datos de la venta hace que no coincida su CRC: se descarta desde ahí.
+        flipByte(journalPath, afterSell - 1);
+        TeamRepository afterCorruption = TeamRepository.load(jsonPath);
+        assertEquals(Set.of(1, 2), afterCorruption.getPlayerIds());
+        assertEquals(START_BUDGET - ownedValue(Set.of(1, 2), players), afterCorruption.getBudget());
+        assertEquals(afterBuys, Files.size(journalPath));
+
+        // Las operaciones nuevas se escriben a continuación del último registro válido.
+        assertTrue(afterCorruption.addPlayer(players.get(3)));
+        TeamRepository afterAppend = TeamRepository.load(jsonPath);
+        assertEquals(Set.of(1, 2, 4), afterAppend.getPlayerIds());
+        assertEquals(START_BUDGET - ownedValue(Set.of(1, 2, 4), players), afterAppend.getBudget());
+    }
+
+    @Test
+    void compactedTradesAreNotAppliedTwice() throws Exception {
+        Path jsonPath = directory.resolve("team.json");
+        Files.writeString(jsonPath, "{\"budget\":" + START_BUDGET + ",\"team\":[]}");
+        Path journalPath = journalPath(jsonPath);
+        List<Player> players = createPlayers();
+        TeamRepository repository = TeamRepository.load(jsonPath);
+
+        assertTrue(repository.addPlayer(players.get(0)));
+        assertTrue(repository.addPlayer(players.get(1)));
+        byte[] journalBeforeCompaction = Files.readAllBytes(journalPath);
+        repository.flush();
+        assertEquals(0, Files.size(journalPath));
+        TeamDocument document = new ObjectMapper().readValue(jsonPath.toFile(), TeamDocument.class);
+        assertEquals(2, document.journalSequence());
+        assertEquals(2, document.team().size());
+
+        // Cierre entre la copia de team.json y el vaciado del diario: los registros que ya incluye la
+        // copia siguen en el diario y se tienen que saltar.
+        Files.write(journalPath, journalBeforeCompaction);
+        TeamRepository reopened = TeamRepository.load(jsonPath);
+        assertEquals(Set.of(1, 2), reopened.getPlayerIds());
+        assertEquals(START_BUDGET - ownedValue(Set.of(1, 2), players), reopened.getBudget());
+
+        // Las operaciones posteriores continúan la secuencia y se aplican una sola vez.
+        reopened.removePlayer(players.get(0));
+        assertTrue(reopened.addPlayer(players.get(2)));
+        TeamRepository afterTrades = TeamRepository.load(jsonPath);
+        assertEquals(Set.of(2, 3), afterTrades.getPlayerIds());
+        assertEquals(START_BUDGET - ownedValue(Set.of(2, 3), players), afterTrades.getBudget());
+
+        afterTrades.flush();
+        assertEquals(0, Files.size(journalPath));
+        TeamRepository afterSecondCompaction = TeamRepository.load(jsonPath);
+        assertEquals(Set.of(2, 3), afterSecondCompaction.getPlayerIds());
+        assertEquals(afterTrades.getBudget(), afterSecondCompaction.getBudget());
+        try (Stream<Path> files = Files.list(directory)) {
+            assertTrue(files.noneMatch(file -> file.toString().endsWith(".tmp")));
+        }
+    }
+
+    /**
+     * Obtiene la ruta del diario de un equipo.
+     *
+     * @param jsonPath ruta al archivo JSON del equipo.
+     * @return la ruta del diario.
+     */
+    private static Path journalPath(Path jsonPath) {
+        return jsonPath.resolveSibling(jsonPath.getFileName() + ".journal");
+    }
+
+    /**
+     * Recorta un archivo a un tamaño.
+     *
+     * @param path el archivo.
+     * @param size el tamaño nuevo.
+     * @throws IOException si no se puede recortar.
+     */
+    private static void truncate(Path path, long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(size);
+        }
+    }
+
+    /**
+     * Invierte los bits de un byte de un archivo.
+     *
+     * @param path     el archivo.
+     * @param position la posición del byte.
+     * @throws IOException si no se puede leer o escribir.
+     */
+    private static void flipByte(Path path, long position) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer value = ByteBuffer.allocate(1);
+            channel.read(value, position);
+            value.put(0, (byte) ~value.get(0));
+            value.rewind();
+            channel.write(value, position);
+        }
+    }
+
+    /**
+     * Compra y vende jugadores al azar desde {@value #THREADS} hilos que empiezan a la vez.
+     *
+     * @param repository el equipo.
+     * @param players    los jugadores que se compran y venden.
+     * @throws Exception si alguna operación falla.
+     */
+    private static void runConcurrently(TeamRepository repository, List<Player> players) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                SplittableRandom random = new SplittableRandom(thread);
+                workers.add(executor.submit(() -> {
+                    start.await();
+                    for (int operation = 0; operation < OPERATIONS_PER_THREAD; operation++) {
+                        Player player = players.get(random.nextInt(players.size()));
+                        if (random.nextBoolean()) repository.addPlayer(player);
+                        else repository.removePlayer(player);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Crea los jugadores de la prueba, con ids consecutivos desde 1 y precios distintos.
+     *
+     * @return los jugadores, con el de id {@code n} en la posición {@code n - 1}.
+     */
+    private static List<Player> createPlayers() {
+        List<Player> players = new ArrayList<>();
+        for (int id = 1; id <= PLAYERS; id++) {
+            players.add(new Player(id, "Player " + id, 70, 1_000_000 + id * 1_000, 25, 1, 0, 0, 0,
+                    "Club 1", Position.ST, "player" + id + ".png", "club1.png"));
+        }
+        return players;
+    }
+
+    /**
+     * Suma el precio de los jugadores del equipo.
+     *
+     * @param ids     los ids de los jugadores del equipo.
+     * @param players todos los jugadores de la prueba.
+     * @return la suma de sus valores de mercado.
+     */
+    private static long ownedValue(Set<Integer> ids, List<Player> players) {
+        long value = 0;
+        for (int id : ids) {
+            value += players.get(id - 1).getMarketValue();
+        }
+        return value;
+    }
+}